@@ -1,30 +1,35 @@
 package com.sleepmeditation;
 
 import android.content.Context;
-import android.media.AudioAttributes;
 import android.media.AudioManager;
 import android.media.MediaPlayer;
 import android.os.VibrationEffect;
 import android.os.Vibrator;
 import android.util.Log;
 
-import java.io.IOException;
-
 /**
  * 闹钟音频播放器
  * 负责播放闹钟声音和震动
+ * 非线程安全，只能在AudioEngine线程上使用
  */
 public class AlarmAudioPlayer {
     private static final String TAG = "AlarmAudioPlayer";
     
     private Context context;
     private MediaPlayer mediaPlayer;
+    // 闹钟音频已缓存解码结果时代替mediaPlayer播放
+    private PcmLoopPlayer pcmLoopPlayer;
     private Vibrator vibrator;
     private AudioManager audioManager;
-    private boolean isPlaying = false;
+    private final AssetManifest assetManifest;
+    private final MediaPlayerPool playerPool;
+    private final AudioAssets audioAssets;
 
-    public AlarmAudioPlayer(Context context) {
+    public AlarmAudioPlayer(Context context, MediaPlayerPool playerPool) {
         this.context = context;
+        this.playerPool = playerPool;
+        this.assetManifest = AssetManifest.getInstance(context);
+        this.audioAssets = new AudioAssets(context);
         this.vibrator = (Vibrator) context.getSystemService(Context.VIBRATOR_SERVICE);
         this.audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
         Log.d(TAG, "AlarmAudioPlayer已初始化");
@@ -46,48 +51,40 @@ public class AlarmAudioPlayer {
             // 请求音频焦点 - 使用STREAM_ALARM
             requestAudioFocus();
 
-            // 创建MediaPlayer
-            mediaPlayer = new MediaPlayer();
-
-            // 设置音频属性为闹钟类型
-            AudioAttributes attributes = new AudioAttributes.Builder()
-                    .setUsage(AudioAttributes.USAGE_ALARM)
-                    .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
-                    .setLegacyStreamType(AudioManager.STREAM_ALARM)
-                    .build();
+            // 已缓存解码结果时直接从映射的PCM开始循环播放，不经过MediaPlayer的prepare
+            if (audioPath != null && !audioPath.isEmpty()) {
+                PcmDecoder.Pcm pcm = audioAssets.getCached(audioPath);
+                if (pcm != null) {
+                    pcmLoopPlayer = new PcmLoopPlayer(pcm, playerPool.getAttributes(), 1.0f);
+                    pcmLoopPlayer.start();
+                    if (enableVibration && vibrator != null && vibrator.hasVibrator()) {
+                        startVibration();
+                    }
+                    Log.d(TAG, "闹钟从PCM缓存开始播放: " + audioPath);
+                    return true;
+                }
+                // 本次仍使用MediaPlayer，后台解码后下次直接使用缓存
+                audioAssets.prefetch(audioPath);
+            }
 
-            mediaPlayer.setAudioAttributes(attributes);
+            // 从闹钟播放器池中取出播放器（已设置闹钟类型的音频属性）
+            mediaPlayer = playerPool.acquire();
 
             // 设置音频源
             if (audioPath != null && !audioPath.isEmpty()) {
                 try {
-                    // 尝试多个可能的路径
-                    String[] possiblePaths = {
-                        audioPath,
-                        "public/sounds/" + audioPath,
-                        "sounds/" + audioPath
-                    };
-
-                    boolean loaded = false;
-                    for (String path : possiblePaths) {
-                        try {
-                            Log.d(TAG, "尝试加载闹钟音频: " + path);
-                            android.content.res.AssetFileDescriptor afd = context.getAssets().openFd(path);
-                            mediaPlayer.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
-                            afd.close();
-                            Log.d(TAG, "成功加载闹钟音频: " + path);
-                            loaded = true;
-                            break;
-                        } catch (IOException e) {
-                            Log.d(TAG, "路径不存在: " + path);
-                        }
-                    }
-
-                    if (!loaded) {
-                        Log.w(TAG, "无法加载指定音频文件，使用默认闹钟声音");
+                    // 通过资源清单解析实际路径
+                    AssetManifest.Entry asset = assetManifest.resolve(audioPath);
+                    if (asset == null || !asset.stored) {
+                        Log.w(TAG, "找不到可直接读取的闹钟音频: " + audioPath + "，使用默认闹钟声音");
                         playDefaultAlarm();
                         return true;
                     }
+
+                    android.content.res.AssetFileDescriptor afd = context.getAssets().openFd(asset.path);
+                    mediaPlayer.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+                    afd.close();
+                    Log.d(TAG, "成功加载闹钟音频: " + asset.path);
                 } catch (Exception e) {
                     Log.w(TAG, "无法加载指定音频文件，使用默认闹钟声音", e);
                     playDefaultAlarm();
@@ -119,17 +116,27 @@ public class AlarmAudioPlayer {
                 startVibration();
             }
 
-            isPlaying = true;
             Log.d(TAG, "闹钟开始播放，当前播放状态: " + mediaPlayer.isPlaying());
 
             return true;
         } catch (Exception e) {
             Log.e(TAG, "播放闹钟时发生异常", e);
+            recyclePlayer();
             abandonAudioFocus();
             return false;
         }
     }
 
+    /**
+     * 把当前播放器归还到池中
+     */
+    private void recyclePlayer() {
+        if (mediaPlayer != null) {
+            playerPool.recycle(mediaPlayer);
+            mediaPlayer = null;
+        }
+    }
+
     /**
      * 请求音频焦点
      */
@@ -159,34 +166,23 @@ public class AlarmAudioPlayer {
      */
     private void playDefaultAlarm() {
         try {
-            // 停止当前播放
-            if (mediaPlayer != null) {
-                mediaPlayer.release();
-            }
-            
-            // 创建新的MediaPlayer
-            mediaPlayer = MediaPlayer.create(context, android.provider.Settings.System.DEFAULT_ALARM_ALERT_URI);
-            
-            if (mediaPlayer != null) {
-                // 设置音频属性为闹钟类型
-                AudioAttributes attributes = new AudioAttributes.Builder()
-                        .setUsage(AudioAttributes.USAGE_ALARM)
-                        .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
-                        .setLegacyStreamType(AudioManager.STREAM_ALARM)
-                        .build();
-                
-                mediaPlayer.setAudioAttributes(attributes);
-                
-                // 设置循环播放
-                mediaPlayer.setLooping(true);
-                
-                // 开始播放
-                mediaPlayer.start();
-                
-                Log.d(TAG, "使用默认闹钟声音");
-            }
+            // 归还可能已设置了数据源的播放器，重新取出一个干净的播放器
+            recyclePlayer();
+            mediaPlayer = playerPool.acquire();
+
+            mediaPlayer.setDataSource(context, android.provider.Settings.System.DEFAULT_ALARM_ALERT_URI);
+            mediaPlayer.prepare();
+
+            // 设置循环播放
+            mediaPlayer.setLooping(true);
+
+            // 开始播放
+            mediaPlayer.start();
+
+            Log.d(TAG, "使用默认闹钟声音");
         } catch (Exception e) {
             Log.e(TAG, "播放默认闹钟声音时发生异常", e);
+            recyclePlayer();
         }
     }
     
@@ -219,12 +215,16 @@ public class AlarmAudioPlayer {
     public void stopAlarm() {
         try {
             // 停止音频播放
+            if (pcmLoopPlayer != null) {
+                pcmLoopPlayer.release();
+                pcmLoopPlayer = null;
+            }
             if (mediaPlayer != null) {
                 if (mediaPlayer.isPlaying()) {
                     mediaPlayer.stop();
                 }
-                mediaPlayer.release();
-                mediaPlayer = null;
+                // 重置后放回池中，下次播放复用
+                recyclePlayer();
             }
 
             // 停止震动
@@ -235,7 +235,6 @@ public class AlarmAudioPlayer {
             // 放弃音频焦点
             abandonAudioFocus();
 
-            isPlaying = false;
             Log.d(TAG, "闹钟已停止");
         } catch (Exception e) {
             Log.e(TAG, "停止闹钟时发生异常", e);
@@ -248,6 +247,9 @@ public class AlarmAudioPlayer {
      */
     public boolean isPlaying() {
         try {
+            if (pcmLoopPlayer != null) {
+                return pcmLoopPlayer.isPlaying();
+            }
             return mediaPlayer != null && mediaPlayer.isPlaying();
         } catch (Exception e) {
             Log.e(TAG, "检查播放状态时发生异常", e);
@@ -0,0 +1,124 @@
+package com.sleepmeditation;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * 闹钟表中的一条记录
+ * 重复闹钟由时、分和星期掩码描述，每次触发后计算下一次触发时间；
+ * 单次闹钟触发后删除，其中由延迟创建的闹钟以elapsedRealtime截止时间为准，不受系统时间调整影响
+ */
+final class AlarmEntry {
+    static final String KIND_WAKE = "wake";
+    static final String KIND_BEDTIME = "bedtime";
+
+    // 星期掩码，第0位为周一，第6位为周日；0表示单次闹钟
+    static final int EVERY_DAY = 0x7F;
+
+    final long id;
+    // 时和分，单次闹钟由延迟创建时为-1
+    final int hour;
+    final int minute;
+    final int weekdays;
+    final String kind;
+    final String label;
+    final boolean enableVibration;
+    final boolean useAlarmClock;
+    // 下一次触发时间（System.currentTimeMillis）
+    long nextFireAt;
+    // 由延迟创建的闹钟的触发时间（SystemClock.elapsedRealtime），按时刻设置的闹钟为-1
+    long fireAtElapsed = -1;
+
+    AlarmEntry(long id, int hour, int minute, int weekdays, String kind, String label,
+               boolean enableVibration, boolean useAlarmClock, long nextFireAt) {
+        this.id = id;
+        this.hour = hour;
+        this.minute = minute;
+        this.weekdays = weekdays;
+        this.kind = kind;
+        this.label = label;
+        this.enableVibration = enableVibration;
+        this.useAlarmClock = useAlarmClock;
+        this.nextFireAt = nextFireAt;
+    }
+
+    boolean isRepeating() {
+        return weekdays != 0 && hour >= 0;
+    }
+
+    /**
+     * 是否由延迟创建（没有时刻，以elapsedRealtime截止时间为准）
+     */
+    boolean isRelative() {
+        return hour < 0 && fireAtElapsed >= 0;
+    }
+
+    /**
+     * 距离触发的毫秒数，由延迟创建的闹钟按elapsedRealtime计算，其余按系统时间计算
+     */
+    long delayUntilFire(long now, long elapsedNow) {
+        return isRelative() ? fireAtElapsed - elapsedNow : nextFireAt - now;
+    }
+
+    /**
+     * 系统时间、时区变化或开机后重新计算触发时间
+     * 按时刻设置的闹钟（包括单次）重新计算下一次时刻；由延迟创建的闹钟保持elapsedRealtime截止时间，
+     * 只换算对应的系统时间；开机后elapsedRealtime从0开始，改为由保存的系统时间换算截止时间
+     */
+    void onClockChanged(long now, long elapsedNow, boolean rebooted, TimeZone timeZone) {
+        if (hour >= 0) {
+            // 从前一分钟开始计算，时间只是小幅调整时不会跳过即将到来的这一次
+            nextFireAt = computeNext(now - 60000, timeZone);
+        } else if (fireAtElapsed >= 0) {
+            if (rebooted) {
+                fireAtElapsed = elapsedNow + Math.max(0, nextFireAt - now);
+            } else {
+                nextFireAt = now + (fireAtElapsed - elapsedNow);
+            }
+        }
+    }
+
+    /**
+     * 计算严格晚于after的下一次触发时间
+     * @return 单次闹钟没有下一次时返回-1
+     */
+    long computeNext(long after, TimeZone timeZone) {
+        if (hour < 0) {
+            return -1;
+        }
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.setTimeInMillis(after);
+        calendar.set(Calendar.HOUR_OF_DAY, hour);
+        calendar.set(Calendar.MINUTE, minute);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+
+        if (weekdays == 0) {
+            if (calendar.getTimeInMillis() <= after) {
+                calendar.add(Calendar.DAY_OF_MONTH, 1);
+            }
+            return calendar.getTimeInMillis();
+        }
+
+        // 今天的时刻已过时从明天开始找，最多找一周
+        for (int day = 0; day <= 7; day++) {
+            if (calendar.getTimeInMillis() > after && (weekdays & weekdayBit(calendar)) != 0) {
+                return calendar.getTimeInMillis();
+            }
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+            // 跨越夏令时切换时保持同一钟点
+            calendar.set(Calendar.HOUR_OF_DAY, hour);
+            calendar.set(Calendar.MINUTE, minute);
+        }
+        return -1;
+    }
+
+    /**
+     * 日历所在星期几对应的掩码位
+     */
+    static int weekdayBit(Calendar calendar) {
+        // Calendar.SUNDAY为1，MONDAY为2
+        int index = (calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7;
+        return 1 << index;
+    }
+}
@@ -0,0 +1,149 @@
+package com.sleepmeditation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按下一次触发时间排序的索引最小堆
+ * 除堆数组外维护闹钟ID到堆下标的映射，插入、删除任意闹钟和取出最早闹钟都是O(log n)
+ * 触发时间相同时ID小的在前，保证顺序稳定
+ *
+ * 不是线程安全的，由AlarmScheduler加锁访问
+ */
+final class AlarmHeap {
+    private final List<AlarmEntry> heap = new ArrayList<>();
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    int size() {
+        return heap.size();
+    }
+
+    boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    boolean contains(long id) {
+        return positions.containsKey(id);
+    }
+
+    /**
+     * 最早触发的闹钟，堆为空时返回null
+     */
+    AlarmEntry peek() {
+        return heap.isEmpty() ? null : heap.get(0);
+    }
+
+    /**
+     * 插入闹钟，已存在同一ID时替换
+     */
+    void add(AlarmEntry entry) {
+        remove(entry.id);
+        heap.add(entry);
+        positions.put(entry.id, heap.size() - 1);
+        siftUp(heap.size() - 1);
+    }
+
+    /**
+     * 取出最早触发的闹钟，堆为空时返回null
+     */
+    AlarmEntry poll() {
+        AlarmEntry top = peek();
+        if (top != null) {
+            removeAt(0);
+        }
+        return top;
+    }
+
+    /**
+     * 删除指定ID的闹钟
+     * @return 被删除的闹钟，不存在时返回null
+     */
+    AlarmEntry remove(long id) {
+        Integer index = positions.get(id);
+        if (index == null) {
+            return null;
+        }
+        AlarmEntry entry = heap.get(index);
+        removeAt(index);
+        return entry;
+    }
+
+    /**
+     * 所有闹钟的副本，顺序不保证
+     */
+    List<AlarmEntry> toList() {
+        return new ArrayList<>(heap);
+    }
+
+    private void removeAt(int index) {
+        int last = heap.size() - 1;
+        AlarmEntry removed = heap.get(index);
+        positions.remove(removed.id);
+        if (index == last) {
+            heap.remove(last);
+            return;
+        }
+        AlarmEntry moved = heap.remove(last);
+        heap.set(index, moved);
+        positions.put(moved.id, index);
+        // 移过来的元素可能需要上浮或下沉
+        if (!siftUp(index)) {
+            siftDown(index);
+        }
+    }
+
+    /**
+     * @return 元素是否移动过
+     */
+    private boolean siftUp(int index) {
+        boolean moved = false;
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!less(heap.get(index), heap.get(parent))) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+            moved = true;
+        }
+        return moved;
+    }
+
+    private void siftDown(int index) {
+        int size = heap.size();
+        while (true) {
+            int left = index * 2 + 1;
+            if (left >= size) {
+                break;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < size && less(heap.get(right), heap.get(left))) {
+                smallest = right;
+            }
+            if (!less(heap.get(smallest), heap.get(index))) {
+                break;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private static boolean less(AlarmEntry a, AlarmEntry b) {
+        if (a.nextFireAt != b.nextFireAt) {
+            return a.nextFireAt < b.nextFireAt;
+        }
+        return a.id < b.id;
+    }
+
+    private void swap(int i, int j) {
+        AlarmEntry a = heap.get(i);
+        AlarmEntry b = heap.get(j);
+        heap.set(i, b);
+        heap.set(j, a);
+        positions.put(b.id, i);
+        positions.put(a.id, j);
+    }
+}
@@ -0,0 +1,125 @@
+package com.sleepmeditation;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 闹钟和定时器实际触发时刻相对预期时刻的延迟直方图
+ * 按来源（alarm/timer）、厂商、系统版本和调度API分组，保存在SharedPreferences中，跨进程重启累计，
+ * 用于根据实际数据选择调度API（Doze和厂商省电策略下setExactAndAllowWhileIdle可能被大幅延后）
+ */
+final class AlarmLatencyStats {
+    private static final String TAG = "AlarmLatencyStats";
+    private static final String PREFS_NAME = "alarm_latency";
+
+    // 直方图各桶的上界（毫秒，不含），最后一桶没有上界
+    static final long[] BUCKET_UPPER_MS = {100, 1000, 5000, 30000, 60000, 5 * 60000, 15 * 60000};
+
+    private AlarmLatencyStats() {
+    }
+
+    /**
+     * 根据接收到的Intent记录一次触发延迟，Intent中没有预期时刻时忽略
+     * @param source 来源，"alarm"或"timer"
+     */
+    static void recordFromIntent(Context context, String source, Intent intent) {
+        long intendedElapsed = intent.getLongExtra(ExactAlarms.EXTRA_INTENDED_ELAPSED, -1);
+        if (intendedElapsed < 0) {
+            return;
+        }
+        String path = intent.getStringExtra(ExactAlarms.EXTRA_API_PATH);
+        long latencyMs = SystemClock.elapsedRealtime() - intendedElapsed;
+        record(context, source, path != null ? path : "unknown", latencyMs);
+    }
+
+    static synchronized void record(Context context, String source, String path, long latencyMs) {
+        String key = source + "|" + Build.MANUFACTURER.toLowerCase(Locale.ROOT) + "|" + Build.VERSION.SDK_INT + "|" + path;
+        SharedPreferences preferences = getPreferences(context);
+        long[] counts = parseCounts(preferences.getString(key, null));
+        counts[bucketIndex(latencyMs)]++;
+        preferences.edit().putString(key, joinCounts(counts)).apply();
+        Log.d(TAG, source + "触发延迟: " + latencyMs + "ms, " + key);
+    }
+
+    /**
+     * 延迟所在的桶；提前触发（负数）计入第一个桶
+     */
+    static int bucketIndex(long latencyMs) {
+        for (int i = 0; i < BUCKET_UPPER_MS.length; i++) {
+            if (latencyMs < BUCKET_UPPER_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_UPPER_MS.length;
+    }
+
+    /**
+     * 获取所有分组的直方图
+     * @return JSON字符串，形如 {"bucketsMs": [...], "groups": {"timer|xiaomi|34|setExactAndAllowWhileIdle": [...]}}
+     */
+    static String getSnapshot(Context context) {
+        try {
+            JSONArray buckets = new JSONArray();
+            for (long upper : BUCKET_UPPER_MS) {
+                buckets.put(upper);
+            }
+            JSONObject groups = new JSONObject();
+            for (Map.Entry<String, ?> entry : getPreferences(context).getAll().entrySet()) {
+                JSONArray counts = new JSONArray();
+                for (long count : parseCounts(String.valueOf(entry.getValue()))) {
+                    counts.put(count);
+                }
+                groups.put(entry.getKey(), counts);
+            }
+            JSONObject snapshot = new JSONObject();
+            snapshot.put("bucketsMs", buckets);
+            snapshot.put("groups", groups);
+            return snapshot.toString();
+        } catch (JSONException e) {
+            Log.e(TAG, "构造延迟统计失败", e);
+            return "{}";
+        }
+    }
+
+    private static long[] parseCounts(String value) {
+        long[] counts = new long[BUCKET_UPPER_MS.length + 1];
+        if (value == null) {
+            return counts;
+        }
+        String[] parts = value.split(",");
+        for (int i = 0; i < parts.length && i < counts.length; i++) {
+            try {
+                counts[i] = Long.parseLong(parts[i]);
+            } catch (NumberFormatException e) {
+                counts[i] = 0;
+            }
+        }
+        return counts;
+    }
+
+    private static String joinCounts(long[] counts) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(counts[i]);
+        }
+        return builder.toString();
+    }
+
+    private static SharedPreferences getPreferences(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -1,23 +1,65 @@
 package com.sleepmeditation;
 
+import android.app.PendingIntent;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
 import android.util.Log;
 
+import androidx.core.app.ActivityCompat;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import java.util.List;
+
 /**
  * 闹钟广播接收器
- * 接收AlarmManager触发的闹钟事件
+ * 接收AlarmManager触发的闹钟事件：起床闹钟启动闹钟播放服务，就寝提醒发送通知
+ * 开机、系统时间或时区变化时重新设置闹钟表中最早的闹钟
  */
 public class AlarmReceiver extends BroadcastReceiver {
     private static final String TAG = "AlarmReceiver";
+    // 就寝提醒的通知ID为该值加闹钟ID，不同的就寝提醒互不覆盖
+    private static final int BEDTIME_NOTIFICATION_ID_BASE = 1000;
 
     @Override
     public void onReceive(Context context, Intent intent) {
         Log.d(TAG, "收到闹钟触发事件");
 
-        if (intent.getAction() != null && intent.getAction().equals("com.sleepmeditation.ALARM_TRIGGER")) {
-            boolean enableVibration = intent.getBooleanExtra("enableVibration", true);
+        String action = intent.getAction();
+        if (Intent.ACTION_BOOT_COMPLETED.equals(action)
+                || Intent.ACTION_TIME_CHANGED.equals(action)
+                || Intent.ACTION_TIMEZONE_CHANGED.equals(action)) {
+            Log.d(TAG, "开机或系统时间变化: " + action);
+            if (Intent.ACTION_BOOT_COMPLETED.equals(action)) {
+                // 重启前的定时会话基于旧的elapsedRealtime，已经失效
+                TimerScheduler.clearSession(context);
+            }
+            AlarmScheduler.getInstance(context).onClockChanged(Intent.ACTION_BOOT_COMPLETED.equals(action));
+            return;
+        }
+
+        if (action != null && action.equals("com.sleepmeditation.ALARM_TRIGGER")) {
+            AlarmLatencyStats.recordFromIntent(context, "alarm", intent);
+
+            List<AlarmEntry> fired = AlarmScheduler.getInstance(context).onAlarmFired();
+            boolean wake = false;
+            boolean enableVibration = false;
+            for (AlarmEntry entry : fired) {
+                if (AlarmEntry.KIND_BEDTIME.equals(entry.kind)) {
+                    sendBedtimeReminder(context, entry);
+                } else {
+                    wake = true;
+                    enableVibration |= entry.enableVibration;
+                }
+            }
+
+            if (!wake) {
+                Log.d(TAG, "没有到期的起床闹钟，到期闹钟数: " + fired.size());
+                return;
+            }
 
             Log.d(TAG, "闹钟时间到，启动闹钟播放服务");
 
@@ -33,4 +75,40 @@ public class AlarmReceiver extends BroadcastReceiver {
             }
         }
     }
+
+    /**
+     * 就寝提醒只发送通知，不播放闹钟声音
+     */
+    private void sendBedtimeReminder(Context context, AlarmEntry entry) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ActivityCompat.checkSelfPermission(context, android.Manifest.permission.POST_NOTIFICATIONS)
+                        != PackageManager.PERMISSION_GRANTED) {
+            Log.w(TAG, "没有通知权限，无法发送就寝提醒");
+            return;
+        }
+
+        Intent intent = new Intent(context, MainActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        PendingIntent pendingIntent = PendingIntent.getActivity(
+                context,
+                0,
+                intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, MainActivity.CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.ic_dialog_info)
+                .setContentTitle("睡眠冥想助手")
+                .setContentText(entry.label.isEmpty() ? "该准备睡觉了" : entry.label)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .setCategory(NotificationCompat.CATEGORY_REMINDER)
+                .setContentIntent(pendingIntent)
+                .setAutoCancel(true);
+        if (entry.enableVibration) {
+            builder.setVibrate(new long[]{0, 500, 200, 500});
+        }
+
+        NotificationManagerCompat.from(context).notify(BEDTIME_NOTIFICATION_ID_BASE + (int) entry.id, builder.build());
+        Log.d(TAG, "已发送就寝提醒: " + entry.id);
+    }
 }
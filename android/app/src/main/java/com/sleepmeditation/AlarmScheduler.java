@@ -4,24 +4,61 @@ import android.app.AlarmManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
-import android.os.Build;
+import android.os.SystemClock;
 import android.util.Log;
 
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TimeZone;
+
 /**
  * 闹钟调度器
  * 使用AlarmManager在指定时间触发闹钟
+ * 基于elapsedRealtime调度，可选setAlarmClock；实际触发延迟由AlarmReceiver记录
+ *
+ * 支持多个闹钟（起床闹钟、就寝提醒、按星期重复）：闹钟表保存在AlarmStore中，内存中按下一次触发时间
+ * 维护一个最小堆，AlarmManager中始终只设置最早的一个；触发后取出到期的闹钟，计算重复闹钟的下一次
+ * 触发时间放回堆中，再设置新的最早闹钟
  */
 public class AlarmScheduler {
     private static final String TAG = "AlarmScheduler";
     private static final int ALARM_REQUEST_CODE = 1001;
+    // 旧版单个闹钟接口使用的闹钟ID，重新设置时替换
+    static final long LEGACY_ALARM_ID = 0;
+    // 触发时间在此范围内的闹钟视为同时到期，一并处理
+    private static final long DUE_TOLERANCE_MS = 1000;
+
+    private static AlarmScheduler instance;
 
     private Context context;
     private AlarmManager alarmManager;
+    private final AlarmStore store;
+    private final AlarmHeap heap = new AlarmHeap();
+    // 当前在AlarmManager中设置的闹钟，-1表示没有
+    private long armedId = -1;
+    private long armedAt = -1;
 
-    public AlarmScheduler(Context context) {
-        this.context = context;
+    private AlarmScheduler(Context context) {
+        this.context = context.getApplicationContext();
         this.alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-        Log.d(TAG, "AlarmScheduler已初始化");
+        this.store = new AlarmStore(this.context);
+        for (AlarmEntry entry : store.loadAll()) {
+            heap.add(entry);
+        }
+        Log.d(TAG, "AlarmScheduler已初始化，闹钟数: " + heap.size());
+        armEarliest();
+    }
+
+    public static synchronized AlarmScheduler getInstance(Context context) {
+        if (instance == null) {
+            instance = new AlarmScheduler(context);
+        }
+        return instance;
     }
 
     /**
@@ -31,51 +68,26 @@ public class AlarmScheduler {
      * @return 是否设置成功
      */
     public boolean scheduleAlarm(int delayInSeconds, boolean enableVibration) {
+        return scheduleAlarm(delayInSeconds, enableVibration, false);
+    }
+
+    /**
+     * 设置闹钟（旧版单个闹钟接口，替换之前通过本接口设置的闹钟，不影响闹钟表中的其他闹钟）
+     * @param delayInSeconds 延迟秒数
+     * @param enableVibration 是否启用震动
+     * @param useAlarmClock 是否使用setAlarmClock（保证准时，状态栏显示闹钟图标）
+     * @return 是否设置成功
+     */
+    public synchronized boolean scheduleAlarm(int delayInSeconds, boolean enableVibration, boolean useAlarmClock) {
         try {
-            // 取消之前的闹钟
-            cancelAlarm();
-
-            // 计算触发时间
-            long triggerAtMillis = System.currentTimeMillis() + (delayInSeconds * 1000L);
-
-            Log.d(TAG, "设置闹钟，延迟: " + delayInSeconds + "秒, 触发时间: " + triggerAtMillis);
-
-            // 创建Intent
-            Intent intent = new Intent(context, AlarmReceiver.class);
-            intent.putExtra("enableVibration", enableVibration);
-            intent.setAction("com.sleepmeditation.ALARM_TRIGGER");
-
-            // 创建PendingIntent
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                context,
-                ALARM_REQUEST_CODE,
-                intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-            );
-
-            // 设置精确闹钟
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                // Android 6.0及以上，使用setExactAndAllowWhileIdle确保在低电量模式下也能触发
-                alarmManager.setExactAndAllowWhileIdle(
-                    AlarmManager.RTC_WAKEUP,
-                    triggerAtMillis,
-                    pendingIntent
-                );
-            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-                // Android 4.4及以上
-                alarmManager.setExact(
-                    AlarmManager.RTC_WAKEUP,
-                    triggerAtMillis,
-                    pendingIntent
-                );
-            } else {
-                // 旧版本Android
-                alarmManager.set(
-                    AlarmManager.RTC_WAKEUP,
-                    triggerAtMillis,
-                    pendingIntent
-                );
-            }
+            Log.d(TAG, "设置闹钟，延迟: " + delayInSeconds + "秒, 使用setAlarmClock: " + useAlarmClock);
+
+            long delayMs = delayInSeconds * 1000L;
+            AlarmEntry entry = new AlarmEntry(LEGACY_ALARM_ID, -1, 0, 0, AlarmEntry.KIND_WAKE, "",
+                    enableVibration, useAlarmClock, System.currentTimeMillis() + delayMs);
+            // 延迟闹钟以elapsedRealtime为准，系统时间调整后仍在同样的时长后触发
+            entry.fireAtElapsed = SystemClock.elapsedRealtime() + delayMs;
+            insert(entry);
 
             Log.d(TAG, "闹钟设置成功，将在 " + delayInSeconds + " 秒后触发");
             return true;
@@ -86,26 +98,13 @@ public class AlarmScheduler {
     }
 
     /**
-     * 取消闹钟
+     * 取消闹钟（旧版单个闹钟接口）
      * @return 是否取消成功
      */
     public boolean cancelAlarm() {
         try {
-            Intent intent = new Intent(context, AlarmReceiver.class);
-            intent.setAction("com.sleepmeditation.ALARM_TRIGGER");
-
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                context,
-                ALARM_REQUEST_CODE,
-                intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-            );
-
-            if (alarmManager != null) {
-                alarmManager.cancel(pendingIntent);
-                Log.d(TAG, "闹钟已取消");
-            }
-
+            removeAlarm(LEGACY_ALARM_ID);
+            Log.d(TAG, "闹钟已取消");
             return true;
         } catch (Exception e) {
             Log.e(TAG, "取消闹钟失败", e);
@@ -113,6 +112,123 @@ public class AlarmScheduler {
         }
     }
 
+    /**
+     * 添加闹钟
+     * @param hour 时（0-23）
+     * @param minute 分（0-59）
+     * @param weekdays 重复的星期掩码，第0位为周一，第6位为周日；0表示只响一次
+     * @param kind 类型：wake（起床闹钟，播放闹钟声音）或bedtime（就寝提醒，发送通知）
+     * @param label 显示的名称
+     * @param enableVibration 是否启用震动
+     * @param useAlarmClock 是否使用setAlarmClock
+     * @return 闹钟ID，参数无效时返回-1
+     */
+    public synchronized long addAlarm(int hour, int minute, int weekdays, String kind, String label,
+                                      boolean enableVibration, boolean useAlarmClock) {
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || (weekdays & ~AlarmEntry.EVERY_DAY) != 0) {
+            Log.w(TAG, "闹钟参数无效: " + hour + ":" + minute + ", weekdays=" + weekdays);
+            return -1;
+        }
+        String alarmKind = AlarmEntry.KIND_BEDTIME.equals(kind) ? AlarmEntry.KIND_BEDTIME : AlarmEntry.KIND_WAKE;
+        AlarmEntry entry = new AlarmEntry(store.nextId(), hour, minute, weekdays, alarmKind,
+                label != null ? label : "", enableVibration, useAlarmClock, 0);
+        entry.nextFireAt = entry.computeNext(System.currentTimeMillis(), TimeZone.getDefault());
+        insert(entry);
+        Log.d(TAG, "已添加闹钟: " + entry.id + ", " + hour + ":" + minute + ", weekdays=" + weekdays
+                + ", 下次触发: " + new java.util.Date(entry.nextFireAt));
+        return entry.id;
+    }
+
+    /**
+     * 删除闹钟，被删除的是最早的闹钟时重新设置AlarmManager
+     * @return 闹钟不存在时返回false
+     */
+    public synchronized boolean removeAlarm(long id) {
+        AlarmEntry removed = heap.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        store.remove(id);
+        armEarliest();
+        Log.d(TAG, "已删除闹钟: " + id);
+        return true;
+    }
+
+    /**
+     * 列出所有闹钟，按下一次触发时间排序
+     * @return JSON数组字符串
+     */
+    public synchronized String listAlarms() {
+        List<AlarmEntry> entries = heap.toList();
+        Collections.sort(entries, new Comparator<AlarmEntry>() {
+            @Override
+            public int compare(AlarmEntry a, AlarmEntry b) {
+                return Long.compare(a.nextFireAt, b.nextFireAt);
+            }
+        });
+        JSONArray alarms = new JSONArray();
+        try {
+            for (AlarmEntry entry : entries) {
+                alarms.put(AlarmStore.toJson(entry));
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "构造闹钟列表失败", e);
+        }
+        return alarms.toString();
+    }
+
+    /**
+     * AlarmManager触发时由AlarmReceiver调用：取出所有到期的闹钟，重复闹钟计算下一次触发时间后放回，
+     * 单次闹钟删除，然后设置新的最早闹钟
+     * @return 本次到期的闹钟
+     */
+    public synchronized List<AlarmEntry> onAlarmFired() {
+        long now = System.currentTimeMillis();
+        long elapsedNow = SystemClock.elapsedRealtime();
+        List<AlarmEntry> fired = new ArrayList<>();
+        // 当前设置的闹钟已经触发
+        armedId = -1;
+
+        while (!heap.isEmpty() && heap.peek().delayUntilFire(now, elapsedNow) <= DUE_TOLERANCE_MS) {
+            AlarmEntry entry = heap.poll();
+            fired.add(entry);
+            long next = entry.isRepeating()
+                    ? entry.computeNext(Math.max(now, entry.nextFireAt), TimeZone.getDefault())
+                    : -1;
+            if (next > 0) {
+                entry.nextFireAt = next;
+                heap.add(entry);
+                store.put(entry);
+            } else {
+                store.remove(entry.id);
+            }
+        }
+
+        Log.d(TAG, "闹钟触发，到期: " + fired.size() + ", 剩余: " + heap.size());
+        armEarliest();
+        return fired;
+    }
+
+    /**
+     * 系统时间、时区变化或开机后重新计算触发时间并重新设置
+     * 按时刻设置的闹钟（重复和单次）按新的时间重新计算时刻；由延迟创建的闹钟保持原来的
+     * elapsedRealtime截止时间，开机后由保存的系统时间换算新的截止时间
+     * @param rebooted 是否由开机触发
+     */
+    public synchronized void onClockChanged(boolean rebooted) {
+        long now = System.currentTimeMillis();
+        long elapsedNow = SystemClock.elapsedRealtime();
+        for (AlarmEntry entry : heap.toList()) {
+            heap.remove(entry.id);
+            entry.onClockChanged(now, elapsedNow, rebooted, TimeZone.getDefault());
+            heap.add(entry);
+            store.put(entry);
+        }
+        armedId = -1;
+        armEarliest();
+        Log.d(TAG, "系统时间变化，已重新设置闹钟");
+    }
+
     /**
      * 检查闹钟是否已设置
      * @return 是否已设置
@@ -130,4 +246,59 @@ public class AlarmScheduler {
 
         return pendingIntent != null;
     }
+
+    private void insert(AlarmEntry entry) {
+        heap.add(entry);
+        store.put(entry);
+        armEarliest();
+    }
+
+    /**
+     * 在AlarmManager中设置最早的闹钟，最早的闹钟没有变化时不做任何事
+     */
+    private void armEarliest() {
+        AlarmEntry earliest = heap.peek();
+        if (earliest == null) {
+            if (armedId != -1 || isAlarmSet()) {
+                disarm();
+            }
+            armedId = -1;
+            armedAt = -1;
+            return;
+        }
+        if (earliest.id == armedId && earliest.nextFireAt == armedAt) {
+            return;
+        }
+
+        // 创建Intent
+        Intent intent = new Intent(context, AlarmReceiver.class);
+        intent.putExtra("alarmId", earliest.id);
+        intent.putExtra("enableVibration", earliest.enableVibration);
+        intent.setAction("com.sleepmeditation.ALARM_TRIGGER");
+
+        // 基于elapsedRealtime设置，不受系统时间调整影响
+        long delayMs = Math.max(0, earliest.delayUntilFire(System.currentTimeMillis(),
+                SystemClock.elapsedRealtime()));
+        ExactAlarms.schedule(context, alarmManager, intent, ALARM_REQUEST_CODE, delayMs, earliest.useAlarmClock);
+        armedId = earliest.id;
+        armedAt = earliest.nextFireAt;
+        Log.d(TAG, "已设置最早的闹钟: " + earliest.id + ", " + delayMs / 1000 + "秒后触发");
+    }
+
+    private void disarm() {
+        Intent intent = new Intent(context, AlarmReceiver.class);
+        intent.setAction("com.sleepmeditation.ALARM_TRIGGER");
+
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(
+            context,
+            ALARM_REQUEST_CODE,
+            intent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        if (alarmManager != null) {
+            alarmManager.cancel(pendingIntent);
+        }
+        pendingIntent.cancel();
+    }
 }
@@ -21,8 +21,6 @@ public class AlarmService extends Service {
     private static final String CHANNEL_ID = "AlarmChannel";
     private static final int NOTIFICATION_ID = 1;
 
-    private AlarmAudioPlayer alarmAudioPlayer;
-
     @Override
     public void onCreate() {
         super.onCreate();
@@ -30,9 +28,6 @@ public class AlarmService extends Service {
 
         // 创建通知渠道（Android 8.0及以上）
         createNotificationChannel();
-
-        // 初始化闹钟播放器
-        alarmAudioPlayer = new AlarmAudioPlayer(this);
     }
 
     @Override
@@ -125,14 +120,8 @@ public class AlarmService extends Service {
         try {
             Log.d(TAG, "开始播放闹钟");
 
-            // 使用3.mp3作为闹钟音频
-            boolean success = alarmAudioPlayer.playAlarm("sounds/3.mp3", enableVibration);
-
-            if (!success) {
-                Log.w(TAG, "播放自定义闹钟失败，尝试播放默认闹钟");
-            }
-
-            Log.d(TAG, "闹钟播放" + (success ? "成功" : "失败"));
+            // 使用3.mp3作为闹钟音频，由音频引擎线程加载播放，播放结果通过alarmState事件通知网页
+            AudioEngine.getInstance(this).playAlarm("sounds/3.mp3", enableVibration);
         } catch (Exception e) {
             Log.e(TAG, "播放闹钟时发生异常", e);
         }
@@ -144,9 +133,7 @@ public class AlarmService extends Service {
         Log.d(TAG, "AlarmService销毁");
 
         // 停止闹钟
-        if (alarmAudioPlayer != null) {
-            alarmAudioPlayer.stopAlarm();
-        }
+        AudioEngine.getInstance(this).stopAlarm();
     }
 
     @Override
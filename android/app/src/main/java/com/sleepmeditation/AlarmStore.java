@@ -0,0 +1,100 @@
+package com.sleepmeditation;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 闹钟表的持久化
+ * 每条闹钟以JSON保存为SharedPreferences中的一项，增删只写入对应的一项，不重写整张表
+ */
+final class AlarmStore {
+    private static final String TAG = "AlarmStore";
+    private static final String PREFS_NAME = "alarm_store";
+    private static final String KEY_PREFIX = "alarm_";
+    private static final String KEY_NEXT_ID = "nextId";
+
+    private final SharedPreferences preferences;
+
+    AlarmStore(Context context) {
+        this.preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * 读取所有闹钟，无法解析的记录被删除
+     */
+    List<AlarmEntry> loadAll() {
+        List<AlarmEntry> entries = new ArrayList<>();
+        for (Map.Entry<String, ?> item : preferences.getAll().entrySet()) {
+            if (!item.getKey().startsWith(KEY_PREFIX)) {
+                continue;
+            }
+            try {
+                entries.add(fromJson(new JSONObject(String.valueOf(item.getValue()))));
+            } catch (JSONException e) {
+                Log.w(TAG, "闹钟记录损坏，删除: " + item.getKey());
+                preferences.edit().remove(item.getKey()).apply();
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 分配新的闹钟ID，0保留给旧版单个闹钟接口
+     */
+    long nextId() {
+        long id = Math.max(1, preferences.getLong(KEY_NEXT_ID, 1));
+        preferences.edit().putLong(KEY_NEXT_ID, id + 1).apply();
+        return id;
+    }
+
+    void put(AlarmEntry entry) {
+        try {
+            preferences.edit().putString(KEY_PREFIX + entry.id, toJson(entry).toString()).apply();
+        } catch (JSONException e) {
+            Log.e(TAG, "保存闹钟失败: " + entry.id, e);
+        }
+    }
+
+    void remove(long id) {
+        preferences.edit().remove(KEY_PREFIX + id).apply();
+    }
+
+    static JSONObject toJson(AlarmEntry entry) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("id", entry.id);
+        json.put("hour", entry.hour);
+        json.put("minute", entry.minute);
+        json.put("weekdays", entry.weekdays);
+        json.put("kind", entry.kind);
+        json.put("label", entry.label);
+        json.put("enableVibration", entry.enableVibration);
+        json.put("useAlarmClock", entry.useAlarmClock);
+        json.put("nextFireAt", entry.nextFireAt);
+        json.put("fireAtElapsed", entry.fireAtElapsed);
+        return json;
+    }
+
+    private static AlarmEntry fromJson(JSONObject json) throws JSONException {
+        AlarmEntry entry = new AlarmEntry(
+            json.getLong("id"),
+            json.optInt("hour", -1),
+            json.optInt("minute", 0),
+            json.optInt("weekdays", 0),
+            json.optString("kind", AlarmEntry.KIND_WAKE),
+            json.optString("label", ""),
+            json.optBoolean("enableVibration", true),
+            json.optBoolean("useAlarmClock", false),
+            json.getLong("nextFireAt")
+        );
+        entry.fireAtElapsed = json.optLong("fireAtElapsed", -1);
+        return entry;
+    }
+}
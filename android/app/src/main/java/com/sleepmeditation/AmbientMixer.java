@@ -0,0 +1,391 @@
+package com.sleepmeditation;
+
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+import android.os.Handler;
+import android.os.Process;
+import android.util.Log;
+
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 环境音混音器
+ * 多个循环音层（雨声、低音嗡鸣等）混合后通过同一个AudioTrack输出，
+ * 代替多个同时播放的MediaPlayer（每个都有自己的解码器和音频焦点请求）
+ *
+ * 每个音层解码一次后，由填充线程重采样到统一的输出采样率并写入各自的定长环形缓冲区，
+ * 混音线程从环形缓冲区读取、按增益混合并写入AudioTrack；混音过程使用预分配的缓冲区，不分配内存
+ * 音层的增益和静音可在任意线程原子地修改，混音线程在下一个块内平滑过渡到新增益
+ *
+ * 输出期间与普通音频共用引擎的音频焦点；写入AudioTrack失败时停止输出并移除所有音层
+ *
+ * addLayer/removeLayer/release只在AudioEngine线程调用
+ */
+public class AmbientMixer {
+    private static final String TAG = "AmbientMixer";
+    private static final int CHANNELS = 2;
+    // 每次混音和写入AudioTrack的帧数
+    private static final int BLOCK_FRAMES = 1024;
+    private static final int BLOCK_SAMPLES = BLOCK_FRAMES * CHANNELS;
+    // 每个音层预先重采样的块数
+    private static final int RING_BLOCKS = 4;
+    static final int MAX_LAYERS = 8;
+
+    private final AudioAttributes attributes;
+    private final int sampleRate;
+    private final Handler handler;
+    private final MediaAudioFocus audioFocus;
+    private Runnable stateChangedListener;
+
+    // 写时复制，混音和填充线程每个块读取一次引用
+    private volatile Layer[] layers = new Layer[0];
+
+    private volatile boolean running = false;
+    private AudioTrack audioTrack;
+    private Thread mixThread;
+    private Thread feedThread;
+
+    // 以下缓冲区只在混音线程使用
+    private final short[] layerBlock = new short[BLOCK_SAMPLES];
+    private final int[] mixBlock = new int[BLOCK_SAMPLES];
+    private final short[] outputBlock = new short[BLOCK_SAMPLES];
+    private volatile long underruns = 0;
+
+    /**
+     * 一个循环音层
+     */
+    public static final class Layer {
+        final String id;
+        private final ShortBuffer source;
+        private final int sourceChannels;
+        private final int sourceFrames;
+        // 32.32定点数表示的源位置和步长，只在填充线程使用
+        private final long step;
+        private long position = 0;
+        final PcmRingBuffer ring;
+
+        // 增益以float位模式存储，任意线程原子修改
+        private final AtomicInteger gainBits;
+        private volatile boolean muted = false;
+        // 上一个块实际使用的增益，只在混音线程使用
+        private float appliedGain = 0f;
+
+        Layer(String id, PcmDecoder.Pcm pcm, int outputRate, float gain) {
+            this.id = id;
+            this.source = pcm.data.asShortBuffer();
+            this.sourceChannels = pcm.channelCount;
+            this.sourceFrames = pcm.getFrameCount();
+            this.step = ((long) pcm.sampleRate << 32) / outputRate;
+            this.ring = new PcmRingBuffer(BLOCK_SAMPLES * RING_BLOCKS);
+            this.gainBits = new AtomicInteger(Float.floatToIntBits(gain));
+        }
+
+        public float getGain() {
+            return Float.intBitsToFloat(gainBits.get());
+        }
+
+        public void setGain(float gain) {
+            gainBits.set(Float.floatToIntBits(Math.max(0f, Math.min(1f, gain))));
+        }
+
+        public boolean isMuted() {
+            return muted;
+        }
+
+        public void setMuted(boolean muted) {
+            this.muted = muted;
+        }
+
+        /**
+         * 把源PCM线性插值重采样为立体声写入环形缓冲区，直到缓冲区写满；到结尾时无缝回到开头
+         */
+        void fill() {
+            while (ring.free() >= CHANNELS) {
+                int index = (int) (position >>> 32);
+                long fraction = position & 0xFFFFFFFFL;
+                int next = index + 1 < sourceFrames ? index + 1 : 0;
+                for (int c = 0; c < CHANNELS; c++) {
+                    int channel = Math.min(c, sourceChannels - 1);
+                    int s0 = source.get(index * sourceChannels + channel);
+                    int s1 = source.get(next * sourceChannels + channel);
+                    ring.put((short) (s0 + (((s1 - s0) * fraction) >> 32)));
+                }
+                position += step;
+                if ((position >>> 32) >= sourceFrames) {
+                    position -= (long) sourceFrames << 32;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param handler 引擎线程的Handler，混音线程写入失败后在该线程上释放AudioTrack
+     */
+    public AmbientMixer(AudioAttributes attributes, Handler handler, MediaAudioFocus audioFocus) {
+        this.attributes = attributes;
+        this.sampleRate = AudioTrack.getNativeOutputSampleRate(AudioManager.STREAM_MUSIC);
+        this.handler = handler;
+        this.audioFocus = audioFocus;
+    }
+
+    /**
+     * 设置混音器在命令之外停止时的回调（写入AudioTrack失败），在引擎线程上执行
+     */
+    public void setOnStateChangedListener(Runnable listener) {
+        this.stateChangedListener = listener;
+    }
+
+    /**
+     * 添加音层，第一个音层加入时开始输出
+     * @return 音层数已达上限或PCM为空时返回false
+     */
+    public synchronized boolean addLayer(String id, PcmDecoder.Pcm pcm, float gain) {
+        if (pcm.getFrameCount() == 0) {
+            Log.w(TAG, "音层没有音频数据: " + id);
+            return false;
+        }
+        removeLayer(id);
+        if (layers.length >= MAX_LAYERS) {
+            Log.w(TAG, "音层数已达上限" + MAX_LAYERS + "，无法添加: " + id);
+            return false;
+        }
+
+        Layer layer = new Layer(id, pcm, sampleRate, gain);
+        // 先填满缓冲区再加入混音，避免开头出现静音
+        layer.fill();
+        Layer[] updated = Arrays.copyOf(layers, layers.length + 1);
+        updated[layers.length] = layer;
+        layers = updated;
+        Log.d(TAG, "添加音层: " + id + ", " + pcm.sampleRate + "Hz -> " + sampleRate + "Hz, 当前" + updated.length + "层");
+
+        if (!running) {
+            // 写入失败后尚未清理的AudioTrack先释放
+            stop();
+            start();
+        }
+        return true;
+    }
+
+    /**
+     * 移除音层，最后一个音层移除后停止输出
+     */
+    public synchronized boolean removeLayer(String id) {
+        Layer[] current = layers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].id.equals(id)) {
+                Layer[] updated = new Layer[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                layers = updated;
+                Log.d(TAG, "移除音层: " + id + ", 剩余" + updated.length + "层");
+                if (updated.length == 0) {
+                    stop();
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 移除所有音层并停止输出
+     */
+    public synchronized void release() {
+        layers = new Layer[0];
+        stop();
+    }
+
+    /**
+     * 设置音层增益，可在任意线程调用
+     */
+    public boolean setGain(String id, float gain) {
+        Layer layer = findLayer(id);
+        if (layer == null) {
+            return false;
+        }
+        layer.setGain(gain);
+        return true;
+    }
+
+    /**
+     * 设置音层静音，可在任意线程调用
+     */
+    public boolean setMuted(String id, boolean muted) {
+        Layer layer = findLayer(id);
+        if (layer == null) {
+            return false;
+        }
+        layer.setMuted(muted);
+        return true;
+    }
+
+    public int getLayerCount() {
+        return layers.length;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 获取统计信息，可在任意线程调用
+     */
+    public String getStats() {
+        return "layers=" + layers.length + ", sampleRate=" + sampleRate + ", underruns=" + underruns;
+    }
+
+    private Layer findLayer(String id) {
+        for (Layer layer : layers) {
+            if (layer.id.equals(id)) {
+                return layer;
+            }
+        }
+        return null;
+    }
+
+    private void start() {
+        if (audioFocus.acquire(TAG) != AudioManager.AUDIOFOCUS_REQUEST_GRANTED) {
+            Log.w(TAG, "音频焦点请求失败，但继续输出");
+        }
+        int minBufferSize = AudioTrack.getMinBufferSize(sampleRate, AudioFormat.CHANNEL_OUT_STEREO,
+                AudioFormat.ENCODING_PCM_16BIT);
+        audioTrack = new AudioTrack.Builder()
+                .setAudioAttributes(attributes)
+                .setAudioFormat(new AudioFormat.Builder()
+                        .setSampleRate(sampleRate)
+                        .setChannelMask(AudioFormat.CHANNEL_OUT_STEREO)
+                        .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+                        .build())
+                .setBufferSizeInBytes(Math.max(minBufferSize * 2, BLOCK_SAMPLES * 2 * 2))
+                .setTransferMode(AudioTrack.MODE_STREAM)
+                .build();
+        running = true;
+        audioTrack.play();
+
+        final long blockNanos = BLOCK_FRAMES * 1000000000L / sampleRate;
+        feedThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (running) {
+                    for (Layer layer : layers) {
+                        layer.fill();
+                    }
+                    // 混音线程每处理一个块就唤醒一次
+                    LockSupport.parkNanos(blockNanos);
+                }
+            }
+        }, "AmbientMixer-feed");
+        mixThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_AUDIO);
+                mixLoop();
+            }
+        }, "AmbientMixer");
+        feedThread.start();
+        mixThread.start();
+        Log.d(TAG, "混音器已启动: " + sampleRate + "Hz");
+    }
+
+    private void mixLoop() {
+        while (running) {
+            Layer[] current = layers;
+            Arrays.fill(mixBlock, 0);
+
+            for (Layer layer : current) {
+                int read = layer.ring.read(layerBlock, 0, BLOCK_SAMPLES);
+                if (read < BLOCK_SAMPLES) {
+                    // 填充线程没跟上，不足部分按静音处理
+                    Arrays.fill(layerBlock, read, BLOCK_SAMPLES, (short) 0);
+                    underruns++;
+                }
+
+                // 在一个块内从上次的增益线性过渡到目标增益，避免突变产生爆音
+                float from = layer.appliedGain;
+                float to = layer.isMuted() ? 0f : layer.getGain();
+                float delta = (to - from) / BLOCK_FRAMES;
+                for (int frame = 0; frame < BLOCK_FRAMES; frame++) {
+                    float gain = from + delta * frame;
+                    int i = frame * CHANNELS;
+                    mixBlock[i] += (int) (layerBlock[i] * gain);
+                    mixBlock[i + 1] += (int) (layerBlock[i + 1] * gain);
+                }
+                layer.appliedGain = to;
+            }
+            LockSupport.unpark(feedThread);
+
+            for (int i = 0; i < BLOCK_SAMPLES; i++) {
+                outputBlock[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixBlock[i]));
+            }
+            int written = audioTrack.write(outputBlock, 0, BLOCK_SAMPLES);
+            if (written < 0) {
+                Log.e(TAG, "写入AudioTrack失败: " + written);
+                running = false;
+                handler.post(releaseAfterWriteFailure);
+                break;
+            }
+        }
+    }
+
+    /**
+     * 混音线程写入失败退出后，在引擎线程上移除音层、释放AudioTrack和音频焦点
+     */
+    private final Runnable releaseAfterWriteFailure = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (AmbientMixer.this) {
+                if (running || audioTrack == null) {
+                    // 已经被release或重新启动
+                    return;
+                }
+                layers = new Layer[0];
+                stop();
+            }
+            if (stateChangedListener != null) {
+                stateChangedListener.run();
+            }
+        }
+    };
+
+    /**
+     * 停止输出并释放AudioTrack，混音线程因写入失败已退出时也会释放
+     */
+    private void stop() {
+        if (audioTrack == null) {
+            return;
+        }
+        running = false;
+        try {
+            audioTrack.pause();
+            audioTrack.flush();
+            audioTrack.stop();
+        } catch (IllegalStateException e) {
+            Log.w(TAG, "停止AudioTrack失败: " + e.getMessage());
+        }
+        join(mixThread);
+        join(feedThread);
+        mixThread = null;
+        feedThread = null;
+        audioTrack.release();
+        audioTrack = null;
+        audioFocus.release(TAG);
+        Log.d(TAG, "混音器已停止: " + getStats());
+    }
+
+    private static void join(Thread thread) {
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
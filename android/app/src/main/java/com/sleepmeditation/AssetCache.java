@@ -0,0 +1,219 @@
+package com.sleepmeditation;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Web资源字节缓存
+ * 以标准化路径为键的LRU缓存，按总字节数限制容量，
+ * 同一资源的并发请求只读取一次AssetManager
+ */
+public class AssetCache {
+    private static final String TAG = "AssetCache";
+
+    /**
+     * 缓存条目，保存可直接作为响应体的字节、MIME类型和响应头
+     */
+    public static final class Entry {
+        public final byte[] data;
+        public final String mimeType;
+        public final Map<String, String> headers;
+
+        public Entry(byte[] data, String mimeType, Map<String, String> headers) {
+            this.data = data;
+            this.mimeType = mimeType;
+            this.headers = headers;
+        }
+    }
+
+    /**
+     * 缓存未命中时的资源加载器
+     */
+    public interface Loader {
+        Entry load(String path) throws IOException;
+    }
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    // accessOrder=true，迭代顺序即为最近最少使用顺序
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(32, 0.75f, true);
+    private final Map<String, FutureTask<Entry>> inFlight = new HashMap<>();
+    private long currentBytes = 0;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong collapsedCount = new AtomicLong();
+
+    /**
+     * @param maxBytes 缓存总字节上限
+     * @param maxEntryBytes 单个条目字节上限，超过的资源只加载不缓存
+     */
+    public AssetCache(long maxBytes, long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+    }
+
+    /**
+     * 获取资源，未命中时通过loader加载
+     * 多个线程同时请求同一路径时只有第一个线程执行加载，其余线程等待其结果
+     * @param path 标准化后的资源路径
+     * @param loader 资源加载器
+     * @return 缓存条目
+     * @throws IOException 资源不存在或读取失败
+     */
+    public Entry get(final String path, final Loader loader) throws IOException {
+        FutureTask<Entry> task;
+        boolean owner = false;
+
+        synchronized (this) {
+            Entry cached = entries.get(path);
+            if (cached != null) {
+                hitCount.incrementAndGet();
+                return cached;
+            }
+
+            task = inFlight.get(path);
+            if (task == null) {
+                task = new FutureTask<>(new Callable<Entry>() {
+                    @Override
+                    public Entry call() throws Exception {
+                        return loader.load(path);
+                    }
+                });
+                inFlight.put(path, task);
+                owner = true;
+                missCount.incrementAndGet();
+            } else {
+                collapsedCount.incrementAndGet();
+            }
+        }
+
+        if (owner) {
+            task.run();
+        }
+
+        try {
+            Entry entry = task.get();
+            if (owner) {
+                synchronized (this) {
+                    inFlight.remove(path);
+                    put(path, entry);
+                }
+            }
+            return entry;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("加载资源被中断: " + path, e);
+        } catch (ExecutionException e) {
+            if (owner) {
+                synchronized (this) {
+                    inFlight.remove(path);
+                }
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("加载资源失败: " + path, cause);
+        }
+    }
+
+    /**
+     * 放入缓存并按LRU顺序淘汰超出容量的条目，调用方需持有锁
+     */
+    private void put(String path, Entry entry) {
+        if (entry == null || entry.data.length > maxEntryBytes) {
+            return;
+        }
+
+        Entry previous = entries.put(path, entry);
+        if (previous != null) {
+            currentBytes -= previous.data.length;
+        }
+        currentBytes += entry.data.length;
+
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            currentBytes -= eldest.getValue().data.length;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 清空缓存（内存紧张时调用）
+     */
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+        Log.d(TAG, "资源缓存已清空");
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 获取被合并到进行中加载的并发请求数
+     */
+    public long getCollapsedCount() {
+        return collapsedCount.get();
+    }
+
+    public synchronized long getSizeBytes() {
+        return currentBytes;
+    }
+
+    /**
+     * 获取缓存统计信息
+     */
+    public synchronized String getStats() {
+        return "命中: " + hitCount.get() +
+                ", 未命中: " + missCount.get() +
+                ", 合并请求: " + collapsedCount.get() +
+                ", 条目数: " + entries.size() +
+                ", 占用: " + currentBytes + "/" + maxBytes + "字节";
+    }
+
+    /**
+     * 标准化资源路径
+     * 去掉查询参数和片段、开头的"./"和"/"，以及重复的斜杠
+     */
+    public static String normalizePath(String path) {
+        if (path == null) {
+            return "";
+        }
+
+        int cut = path.length();
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            cut = query;
+        }
+        int fragment = path.indexOf('#');
+        if (fragment >= 0 && fragment < cut) {
+            cut = fragment;
+        }
+        String normalized = path.substring(0, cut);
+
+        while (normalized.startsWith("./") || normalized.startsWith("/")) {
+            normalized = normalized.startsWith("./") ? normalized.substring(2) : normalized.substring(1);
+        }
+        while (normalized.contains("//")) {
+            normalized = normalized.replace("//", "/");
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,242 @@
+package com.sleepmeditation;
+
+import android.content.Context;
+import android.util.Log;
+import android.webkit.MimeTypeMap;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * assets资源清单
+ * 加载构建时生成的asset-manifest.json，通过一次哈希查找把逻辑名称
+ * （如"3.mp3"、"sounds/3.mp3"、"assets/index.js"）解析为实际的assets路径
+ *
+ * 音频文件名别名在加载时由bareNameAliases生成，同名文件不生成别名，结果与文件顺序无关
+ */
+public final class AssetManifest {
+    private static final String TAG = "AssetManifest";
+    public static final String MANIFEST_PATH = "asset-manifest.json";
+
+    private static volatile AssetManifest instance;
+
+    /**
+     * 清单条目
+     */
+    public static final class Entry {
+        public final String path;
+        public final long size;
+        // 是否未压缩存储，只有未压缩的资源才能通过openFd读取
+        public final boolean stored;
+        public final String mimeType;
+        // 构建时计算的内容哈希，用作ETag；清单缺失时为null
+        public final String hash;
+        public final long lastModified;
+        // 构建时生成的预压缩版本，按优先级排列的Content-Encoding名称（如"br"、"gzip"）
+        public final List<String> encodings;
+
+        Entry(String path, long size, boolean stored, String mimeType, String hash, long lastModified,
+              List<String> encodings) {
+            this.path = path;
+            this.size = size;
+            this.stored = stored;
+            this.mimeType = mimeType;
+            this.hash = hash;
+            this.lastModified = lastModified;
+            this.encodings = encodings;
+        }
+    }
+
+    // 实际路径和别名都映射到同一个条目
+    private final Map<String, Entry> entries;
+    // 提示音名称到条目的映射，由CuePlayer预加载
+    private final Map<String, Entry> cues;
+    private final boolean loaded;
+
+    private AssetManifest(Map<String, Entry> entries, Map<String, Entry> cues, boolean loaded) {
+        this.entries = entries;
+        this.cues = cues;
+        this.loaded = loaded;
+    }
+
+    /**
+     * 获取资源清单，首次调用时从assets加载
+     */
+    public static AssetManifest getInstance(Context context) {
+        AssetManifest manifest = instance;
+        if (manifest == null) {
+            synchronized (AssetManifest.class) {
+                manifest = instance;
+                if (manifest == null) {
+                    manifest = load(context.getApplicationContext());
+                    instance = manifest;
+                }
+            }
+        }
+        return manifest;
+    }
+
+    private static AssetManifest load(Context context) {
+        long start = System.currentTimeMillis();
+        try (InputStream inputStream = context.getAssets().open(MANIFEST_PATH)) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+
+            JSONObject root = new JSONObject(outputStream.toString("UTF-8"));
+            JSONObject files = root.getJSONObject("files");
+            JSONObject aliases = root.optJSONObject("aliases");
+
+            Map<String, Entry> entries = new HashMap<>(files.length() * 2 + (aliases != null ? aliases.length() * 2 : 0));
+            List<String> filePaths = new ArrayList<>(files.length());
+            Iterator<String> paths = files.keys();
+            while (paths.hasNext()) {
+                String path = paths.next();
+                filePaths.add(path);
+                JSONObject file = files.getJSONObject(path);
+                JSONArray encodingArray = file.optJSONArray("encodings");
+                List<String> encodings = new ArrayList<>();
+                if (encodingArray != null) {
+                    for (int i = 0; i < encodingArray.length(); i++) {
+                        encodings.add(encodingArray.getString(i));
+                    }
+                }
+                entries.put(path, new Entry(
+                        path,
+                        file.optLong("size", -1),
+                        file.optBoolean("stored", false),
+                        file.optString("mime", "application/octet-stream"),
+                        file.optString("hash", null),
+                        file.optLong("lastModified", 0),
+                        Collections.unmodifiableList(encodings)));
+            }
+
+            if (aliases != null) {
+                Iterator<String> names = aliases.keys();
+                while (names.hasNext()) {
+                    String name = names.next();
+                    Entry entry = entries.get(aliases.getString(name));
+                    if (entry != null && !entries.containsKey(name)) {
+                        entries.put(name, entry);
+                    }
+                }
+            }
+
+            Set<String> ambiguous = new TreeSet<>();
+            for (Map.Entry<String, String> alias : bareNameAliases(filePaths, ambiguous).entrySet()) {
+                if (!entries.containsKey(alias.getKey())) {
+                    entries.put(alias.getKey(), entries.get(alias.getValue()));
+                }
+            }
+            if (!ambiguous.isEmpty()) {
+                Log.w(TAG, "多个音频文件同名，只能通过完整路径引用: " + ambiguous);
+            }
+
+            Map<String, Entry> cues = new LinkedHashMap<>();
+            JSONObject cueNames = root.optJSONObject("cues");
+            if (cueNames != null) {
+                Iterator<String> names = cueNames.keys();
+                while (names.hasNext()) {
+                    String name = names.next();
+                    Entry entry = entries.get(cueNames.getString(name));
+                    if (entry != null) {
+                        cues.put(name, entry);
+                    }
+                }
+            }
+
+            Log.d(TAG, "资源清单已加载: " + files.length() + "个文件, " + entries.size() + "个名称, "
+                    + cues.size() + "个提示音, 耗时" + (System.currentTimeMillis() - start) + "ms");
+            return new AssetManifest(entries, Collections.unmodifiableMap(cues), true);
+        } catch (Exception e) {
+            Log.e(TAG, "加载资源清单失败，按请求路径直接读取", e);
+            return new AssetManifest(new HashMap<String, Entry>(), Collections.<String, Entry>emptyMap(), false);
+        }
+    }
+
+    /**
+     * 生成音频文件名别名，例如"3.mp3" → "public/sounds/3.mp3"
+     * 多个sounds目录下有同名文件时无法确定应指向哪一个，这些名称不生成别名并记入ambiguous，
+     * 因此结果与paths的顺序无关
+     * @param paths 清单中的assets路径
+     * @param ambiguous 收集同名的文件名
+     * @return 文件名到assets路径
+     */
+    static Map<String, String> bareNameAliases(Iterable<String> paths, Set<String> ambiguous) {
+        Map<String, String> aliases = new HashMap<>();
+        for (String path : paths) {
+            if (!path.contains("sounds/")) {
+                continue;
+            }
+            String name = path.substring(path.lastIndexOf('/') + 1);
+            if (ambiguous.contains(name)) {
+                continue;
+            }
+            String existing = aliases.put(name, path);
+            if (existing != null && !existing.equals(path)) {
+                aliases.remove(name);
+                ambiguous.add(name);
+            }
+        }
+        return aliases;
+    }
+
+    /**
+     * 解析资源名称
+     * @param name 逻辑名称或assets路径，允许带"./"前缀和查询参数
+     * @return 清单条目，找不到时返回null；清单未能加载时按原路径返回条目
+     */
+    public Entry resolve(String name) {
+        String normalized = AssetCache.normalizePath(name);
+        Entry entry = entries.get(normalized);
+        if (entry == null && !loaded && !normalized.isEmpty()) {
+            // 清单缺失时无法得知存储方式，按未压缩处理，由调用方在打开失败时降级
+            return new Entry(normalized, -1, true, guessMimeType(normalized), null, 0,
+                    Collections.<String>emptyList());
+        }
+        return entry;
+    }
+
+    /**
+     * 获取资源的MIME类型，清单中没有的资源按扩展名推断
+     */
+    public String getMimeType(String path) {
+        Entry entry = entries.get(AssetCache.normalizePath(path));
+        return entry != null ? entry.mimeType : guessMimeType(path);
+    }
+
+    /**
+     * 获取清单中列出的提示音（cues目录下的短音频），键为不带扩展名的文件名
+     */
+    public Map<String, Entry> getCues() {
+        return cues;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private static String guessMimeType(String path) {
+        String extension = MimeTypeMap.getFileExtensionFromUrl(path);
+        String mimeType = extension != null
+                ? MimeTypeMap.getSingleton().getMimeTypeFromExtension(extension.toLowerCase())
+                : null;
+        return mimeType != null ? mimeType : "application/octet-stream";
+    }
+}
@@ -0,0 +1,130 @@
+package com.sleepmeditation;
+
+import android.os.SystemClock;
+import android.util.Log;
+import android.webkit.JavascriptInterface;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步JS桥接
+ * 同步的@JavascriptInterface方法在WebView的JavaBridge线程上执行，期间JS被阻塞（例如MediaPlayer.prepare()）
+ * 通过AsyncBridge.call()调用时立即返回调用ID，实际方法在专用的原生线程上执行，
+ * 完成后统一通过NativeEvents事件通道以bridgeResult事件回传结果，由网页端的Promise接收
+ *
+ * 异步调用复用NativeBridge注册表中的同一批方法，原有的同步调用方式保持不变
+ */
+public class AsyncBridge {
+    private static final String TAG = "AsyncBridge";
+
+    // 所有异步调用在同一个线程上按顺序执行，保持与同步调用相同的先后顺序
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "NativeBridge");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final NativeBridge nativeBridge;
+    private final AtomicLong nextCallId = new AtomicLong();
+
+    public AsyncBridge(NativeBridge nativeBridge) {
+        this.nativeBridge = nativeBridge;
+    }
+
+    /**
+     * 异步调用桥接方法
+     * @param bridge 桥接名称，如"RegularAudioBridge"
+     * @param method 方法名称，如"playRegularAudio"
+     * @param argsJson JSON数组形式的参数
+     * @return 调用ID，结果通过bridgeResult事件回传
+     */
+    @JavascriptInterface
+    public String call(final String bridge, final String method, final String argsJson) {
+        final String callId = String.valueOf(nextCallId.incrementAndGet());
+        final long enqueuedAt = SystemClock.elapsedRealtime();
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    long startedAt = SystemClock.elapsedRealtime();
+                    try {
+                        JSONArray args = argsJson != null && !argsJson.isEmpty() ? new JSONArray(argsJson) : new JSONArray();
+                        Object result = nativeBridge.invoke(bridge, method, args);
+                        resolve(callId, true, result);
+                    } catch (Exception e) {
+                        Log.e(TAG, "异步调用失败: " + bridge + "." + method, e);
+                        resolve(callId, false, e.getMessage() != null ? e.getMessage() : e.toString());
+                    }
+                    Log.d(TAG, bridge + "." + method + "#" + callId + " 排队" + (startedAt - enqueuedAt)
+                            + "ms, 执行" + (SystemClock.elapsedRealtime() - startedAt) + "ms");
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "桥接已关闭，拒绝调用: " + bridge + "." + method);
+            resolve(callId, false, "bridge closed");
+        }
+        return callId;
+    }
+
+    /**
+     * 异步执行一批调用，全部调用在原生线程上一次执行完毕后统一回传结果数组
+     * @param batchJson 格式与NativeBridge.dispatch()相同
+     * @return 调用ID，结果通过bridgeResult事件回传
+     */
+    @JavascriptInterface
+    public String callBatch(final String batchJson) {
+        final String callId = String.valueOf(nextCallId.incrementAndGet());
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        resolve(callId, true, nativeBridge.dispatchBatch(new JSONArray(batchJson)));
+                    } catch (Exception e) {
+                        Log.e(TAG, "异步批量调用失败: " + batchJson, e);
+                        resolve(callId, false, e.getMessage() != null ? e.getMessage() : e.toString());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "桥接已关闭，拒绝批量调用");
+            resolve(callId, false, "bridge closed");
+        }
+        return callId;
+    }
+
+    /**
+     * 通过统一的完成通道把结果回传给网页
+     */
+    private void resolve(String callId, boolean ok, Object result) {
+        try {
+            JSONObject envelope = new JSONObject();
+            envelope.put("id", callId);
+            envelope.put("ok", ok);
+            envelope.put("result", JSONObject.wrap(result));
+            NativeEvents.getInstance().emit(NativeEvents.BRIDGE_RESULT, envelope);
+        } catch (JSONException e) {
+            Log.e(TAG, "序列化调用结果失败: #" + callId, e);
+        }
+    }
+
+    /**
+     * 停止原生线程，Activity销毁时调用
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,192 @@
+package com.sleepmeditation;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.os.Handler;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 应用内音频文件的查找与解码
+ * 优先使用资源清单中未压缩存储的assets文件，其次是res/raw
+ * 普通音频播放器、闹钟播放器和环境音混音器共用
+ * 解码结果保存在PcmCache中，再次使用同一音频时直接内存映射
+ */
+public class AudioAssets {
+    private static final String TAG = "AudioAssets";
+
+    // 播放前需要的解码在此线程进行，不占用音频引擎线程
+    private static ExecutorService decoder;
+
+    private final Context context;
+    private final AssetManifest assetManifest;
+    private final PcmCache pcmCache;
+
+    public AudioAssets(Context context) {
+        this.context = context;
+        this.assetManifest = AssetManifest.getInstance(context);
+        this.pcmCache = PcmCache.getInstance(context);
+    }
+
+    /**
+     * 打开音频文件，调用方负责关闭
+     * @return 文件描述符，找不到时返回null
+     */
+    public AssetFileDescriptor openFd(String audioFileName) {
+        // 通过资源清单解析实际路径
+        AssetManifest.Entry asset = assetManifest.resolve(audioFileName);
+        if (asset != null && asset.stored) {
+            try {
+                AssetFileDescriptor afd = context.getAssets().openFd(asset.path);
+                Log.d(TAG, "成功从assets加载音频文件: " + asset.path);
+                return afd;
+            } catch (IOException e) {
+                Log.e(TAG, "打开音频文件失败: " + asset.path, e);
+            }
+        } else if (asset != null) {
+            Log.w(TAG, "音频文件在APK中被压缩存储，无法直接读取: " + asset.path);
+        }
+
+        Log.w(TAG, "无法从assets加载音频文件，尝试从res/raw加载");
+
+        // 尝试从res/raw加载
+        int resId = getRawResourceId(audioFileName);
+        AssetFileDescriptor rawFd = resId != 0 ? context.getResources().openRawResourceFd(resId) : null;
+        if (rawFd == null) {
+            Log.e(TAG, "无法找到音频文件资源: " + audioFileName);
+            return null;
+        }
+        Log.d(TAG, "从res/raw加载音频文件: " + audioFileName);
+        return rawFd;
+    }
+
+    /**
+     * 获取音频文件的PCM，优先使用磁盘缓存；未缓存时当场解码，并在后台写入缓存
+     * @return 解码结果，失败时返回null
+     */
+    public PcmDecoder.Pcm decode(String audioFileName) {
+        String key = PcmCache.key(sourceId(audioFileName));
+        PcmDecoder.Pcm pcm = pcmCache.get(key);
+        if (pcm != null) {
+            return pcm;
+        }
+        pcm = decodeUncached(audioFileName);
+        if (pcm != null) {
+            pcmCache.putAsync(key, pcm);
+        }
+        return pcm;
+    }
+
+    /**
+     * 解码完成回调
+     */
+    public interface DecodeCallback {
+        /**
+         * @param pcm 解码结果，失败时为null
+         */
+        void onDecoded(PcmDecoder.Pcm pcm);
+    }
+
+    /**
+     * 在解码线程上获取音频文件的PCM（同decode），完成后把结果投递到handler所在线程回调
+     */
+    public void decodeAsync(final String audioFileName, final Handler handler, final DecodeCallback callback) {
+        getDecoder().execute(new Runnable() {
+            @Override
+            public void run() {
+                final PcmDecoder.Pcm pcm = decode(audioFileName);
+                if (!handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onDecoded(pcm);
+                    }
+                })) {
+                    Log.w(TAG, "回调线程已退出，丢弃解码结果: " + audioFileName);
+                }
+            }
+        });
+    }
+
+    private static synchronized ExecutorService getDecoder() {
+        if (decoder == null) {
+            decoder = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    return new Thread(runnable, "AudioDecoder");
+                }
+            });
+        }
+        return decoder;
+    }
+
+    /**
+     * 只从磁盘缓存获取PCM，未缓存时返回null而不解码
+     */
+    public PcmDecoder.Pcm getCached(String audioFileName) {
+        return pcmCache.get(PcmCache.key(sourceId(audioFileName)));
+    }
+
+    /**
+     * 在后台解码并写入缓存，之后的decode可以直接使用映射的PCM
+     */
+    public void prefetch(String audioFileName) {
+        pcmCache.prefetch(PcmCache.key(sourceId(audioFileName)), this, audioFileName);
+    }
+
+    /**
+     * 音频内容的标识：资源清单中有内容哈希时使用哈希，否则使用文件名加APK安装时间（应用更新后自动失效）
+     */
+    private String sourceId(String audioFileName) {
+        AssetManifest.Entry asset = assetManifest.resolve(audioFileName);
+        if (asset != null && asset.hash != null) {
+            return "asset:" + asset.hash;
+        }
+        long installedAt = new File(context.getApplicationInfo().sourceDir).lastModified();
+        return "file:" + audioFileName + "@" + installedAt;
+    }
+
+    /**
+     * 从APK中读取并解码，不使用缓存
+     * @return 解码结果，失败时返回null
+     */
+    PcmDecoder.Pcm decodeUncached(String audioFileName) {
+        AssetFileDescriptor afd = openFd(audioFileName);
+        if (afd == null) {
+            return null;
+        }
+        try {
+            return PcmDecoder.decode(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+        } finally {
+            try {
+                afd.close();
+            } catch (IOException e) {
+                Log.w(TAG, "关闭音频文件失败: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 获取原始资源ID
+     * @param fileName 文件名
+     * @return 资源ID，如果找不到返回0
+     */
+    private int getRawResourceId(String fileName) {
+        try {
+            // 移除文件扩展名
+            String resourceName = fileName.contains(".") ?
+                fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
+
+            // 获取资源ID
+            return context.getResources().getIdentifier(
+                resourceName, "raw", context.getPackageName());
+        } catch (Exception e) {
+            Log.e(TAG, "获取资源ID时发生异常: " + fileName, e);
+            return 0;
+        }
+    }
+}
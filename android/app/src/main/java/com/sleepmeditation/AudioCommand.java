@@ -0,0 +1,54 @@
+package com.sleepmeditation;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 在引擎线程执行的音频命令，调用方等待超时后可以取消
+ * 尚未开始执行时取消，命令不再执行；已经开始执行时取消，命令结束后执行rollback撤销它的效果，
+ * 调用方因超时得到false时，引擎中不会留下这条命令开始的播放
+ */
+final class AudioCommand extends FutureTask<Boolean> {
+    private final Started command;
+    private final Runnable rollback;
+
+    /**
+     * @param rollback 撤销命令效果，在引擎线程执行；为null时不撤销
+     */
+    AudioCommand(Callable<Boolean> command, Runnable rollback) {
+        this(new Started(command), rollback);
+    }
+
+    private AudioCommand(Started command, Runnable rollback) {
+        super(command);
+        this.command = command;
+        this.rollback = rollback;
+    }
+
+    @Override
+    public void run() {
+        super.run();
+        if (isCancelled() && command.started && rollback != null) {
+            rollback.run();
+        }
+    }
+
+    /**
+     * 记录命令是否已经开始执行，FutureTask在取消后不会调用call
+     */
+    private static final class Started implements Callable<Boolean> {
+        private final Callable<Boolean> command;
+        // 只在执行命令的线程上访问
+        private boolean started = false;
+
+        Started(Callable<Boolean> command) {
+            this.command = command;
+        }
+
+        @Override
+        public Boolean call() throws Exception {
+            started = true;
+            return command.call();
+        }
+    }
+}
@@ -0,0 +1,563 @@
+package com.sleepmeditation;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.AudioManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 音频引擎
+ * 所有MediaPlayer（普通音频和闹钟）都由同一个HandlerThread创建、操作和释放，
+ * 外部只能通过公开方法向该线程投递命令，避免JavaBridge线程、主线程和MediaPlayer回调线程之间的竞争
+ *
+ * 播放状态在每条命令执行后以不可变的State快照发布到volatile字段，读取状态无需加锁也不需要等待引擎线程
+ * 引擎为进程级单例，MainActivity和AlarmService共用同一个闹钟播放器
+ */
+public final class AudioEngine {
+    private static final String TAG = "AudioEngine";
+    // 池内空闲播放器保留时长，覆盖1.mp3到2.mp3之间以及重复开始/停止的间隔
+    private static final long POOL_IDLE_TIMEOUT_MS = 60 * 1000;
+
+    private static AudioEngine instance;
+
+    private final Context context;
+    private final Handler handler;
+
+    // 媒体和闹钟两种用途各一个播放器池
+    private final MediaPlayerPool mediaPool;
+    private final MediaPlayerPool alarmPool;
+
+    // 环境音混音器，音层的添加和移除在引擎线程上进行，增益和静音可在任意线程修改
+    private final AmbientMixer ambientMixer;
+    private final AudioAssets audioAssets;
+    // 普通音频和环境音共用的音频焦点
+    private final MediaAudioFocus mediaFocus;
+    // 正在后台解码的环境音层，移除或替换后到达的解码结果被丢弃；只在引擎线程访问
+    private final Map<String, Object> pendingLayers = new HashMap<>();
+    // 短提示音，播放不经过引擎线程
+    private final CuePlayer cuePlayer;
+
+    // 以下播放器只在引擎线程上访问
+    private RegularAudioPlayer regularPlayer;
+    private AlarmAudioPlayer alarmPlayer;
+
+    // 引擎创建前和没有任何播放时的状态
+    private static final State IDLE_STATE = new State(null, false, false, false, 0);
+
+    private volatile State state = IDLE_STATE;
+    private volatile StateListener stateListener;
+
+    /**
+     * 播放状态快照，创建后不可修改
+     */
+    public static final class State {
+        public final String regularFile;
+        public final boolean regularPlaying;
+        public final boolean alarmPlaying;
+        public final boolean ambientPlaying;
+        public final long updatedAt;
+
+        State(String regularFile, boolean regularPlaying, boolean alarmPlaying, boolean ambientPlaying,
+              long updatedAt) {
+            this.regularFile = regularFile;
+            this.regularPlaying = regularPlaying;
+            this.alarmPlaying = alarmPlaying;
+            this.ambientPlaying = ambientPlaying;
+            this.updatedAt = updatedAt;
+        }
+
+        /**
+         * 是否处于睡眠播放会话中（普通音频播放或暂停中，或有环境音层），闹钟不计入
+         */
+        public boolean hasSession() {
+            return regularFile != null || ambientPlaying;
+        }
+    }
+
+    /**
+     * 播放状态变化回调，在引擎线程上执行
+     */
+    public interface StateListener {
+        void onStateChanged(State state);
+    }
+
+    private AudioEngine(Context context) {
+        this.context = context.getApplicationContext();
+        HandlerThread thread = new HandlerThread("AudioEngine");
+        thread.start();
+        this.handler = new Handler(thread.getLooper());
+
+        mediaPool = new MediaPlayerPool("media", new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_MEDIA)
+                .setContentType(AudioAttributes.CONTENT_TYPE_MUSIC)
+                .setLegacyStreamType(AudioManager.STREAM_MUSIC)
+                .build(), handler, POOL_IDLE_TIMEOUT_MS);
+        alarmPool = new MediaPlayerPool("alarm", new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_ALARM)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                .setLegacyStreamType(AudioManager.STREAM_ALARM)
+                .build(), handler, POOL_IDLE_TIMEOUT_MS);
+        mediaFocus = new MediaAudioFocus(this.context);
+        ambientMixer = new AmbientMixer(mediaPool.getAttributes(), handler, mediaFocus);
+        ambientMixer.setOnStateChangedListener(new Runnable() {
+            @Override
+            public void run() {
+                publishState();
+            }
+        });
+        audioAssets = new AudioAssets(this.context);
+        cuePlayer = new CuePlayer(this.context, new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_MEDIA)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                .build());
+        Log.d(TAG, "音频引擎线程已启动");
+    }
+
+    public static synchronized AudioEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new AudioEngine(context);
+        }
+        return instance;
+    }
+
+    /**
+     * 引擎已创建时释放空闲播放器和PCM缓存，不会为此创建引擎
+     */
+    public static synchronized void trimMemoryIfCreated() {
+        if (instance != null) {
+            instance.trimMemory();
+        }
+    }
+
+    /**
+     * 引擎已创建时返回当前播放状态，否则返回空闲状态，不会为此创建引擎
+     * 只需要判断是否有进行中的播放时使用，例如熄屏时决定是否休眠
+     */
+    public static synchronized State getStateIfCreated() {
+        return instance != null ? instance.getState() : IDLE_STATE;
+    }
+
+    /**
+     * 引擎已创建时返回播放器池统计，否则返回null，不会为此创建引擎
+     */
+    public static synchronized String getPoolStatsIfCreated() {
+        return instance != null ? instance.getPoolStats() : null;
+    }
+
+    /**
+     * 获取当前播放状态快照，可在任意线程调用
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * 设置播放状态变化回调，传入null取消
+     */
+    public void setStateListener(StateListener listener) {
+        this.stateListener = listener;
+    }
+
+    /**
+     * 播放普通音频
+     * @return 播放结果，在引擎线程完成加载和准备后可用
+     */
+    public Future<Boolean> playRegular(final String audioFileName, final float volume, final boolean loop) {
+        return playRegular(audioFileName, volume, loop, false);
+    }
+
+    /**
+     * 播放普通音频
+     * @param pcmLoop 是否使用无缝循环模式；PCM未缓存时解码在AudioAssets的解码线程上进行，
+     *                期间先用MediaPlayer播放，不阻塞引擎线程
+     */
+    public Future<Boolean> playRegular(final String audioFileName, final float volume, final boolean loop,
+                                       final boolean pcmLoop) {
+        return submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                boolean success = getRegularPlayer().playAudio(audioFileName, volume, loop, pcmLoop);
+                publishState();
+                return success;
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                Log.w(TAG, "播放命令已超时，停止: " + audioFileName);
+                regularPlayer.stopAudio();
+                publishState();
+            }
+        });
+    }
+
+    /**
+     * 预加载下一首普通音频，当前音频结束时无缝切换
+     */
+    public void prepareNextRegular(final String audioFileName, final float volume, final boolean loop) {
+        prepareNextRegular(audioFileName, volume, loop, false);
+    }
+
+    public void prepareNextRegular(final String audioFileName, final float volume, final boolean loop,
+                                   final boolean pcmLoop) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                if (regularPlayer != null) {
+                    regularPlayer.prepareNext(audioFileName, volume, loop, pcmLoop);
+                }
+            }
+        });
+    }
+
+    /**
+     * 设置下一首与当前音频之间的交叉淡化时长，0表示直接无缝切换
+     */
+    public void setCrossfadeDuration(final long durationMs) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                getRegularPlayer().setCrossfadeDuration(durationMs);
+            }
+        });
+    }
+
+    public void stopRegular() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                if (regularPlayer != null) {
+                    regularPlayer.stopAudio();
+                }
+                publishState();
+            }
+        });
+    }
+
+    public void pauseRegular() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                if (regularPlayer != null) {
+                    regularPlayer.pauseAudio();
+                }
+                publishState();
+            }
+        });
+    }
+
+    public void resumeRegular() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                if (regularPlayer != null) {
+                    regularPlayer.resumeAudio();
+                }
+                publishState();
+            }
+        });
+    }
+
+    /**
+     * 添加环境音层，解码在AudioAssets的解码线程上进行，完成后回到引擎线程加入混音
+     * @param layerId 音层标识，已存在时替换
+     * @return 加入结果，在解码完成并加入混音后可用；解码期间该音层被移除时为false
+     */
+    public Future<Boolean> addAmbientLayer(final String layerId, final String audioFileName, final float gain) {
+        final PcmDecoder.Pcm[] decoded = new PcmDecoder.Pcm[1];
+        final Object token = new Object();
+        final AudioCommand result = new AudioCommand(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                if (pendingLayers.get(layerId) != token) {
+                    Log.d(TAG, "环境音层解码期间已被移除或替换: " + layerId);
+                    return false;
+                }
+                pendingLayers.remove(layerId);
+                if (decoded[0] == null) {
+                    Log.w(TAG, "环境音层解码失败: " + audioFileName);
+                    return false;
+                }
+                boolean success = ambientMixer.addLayer(layerId, decoded[0], gain);
+                publishState();
+                return success;
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                Log.w(TAG, "添加环境音层已超时，移除: " + layerId);
+                ambientMixer.removeLayer(layerId);
+                publishState();
+            }
+        });
+        post(new Runnable() {
+            @Override
+            public void run() {
+                pendingLayers.put(layerId, token);
+                audioAssets.decodeAsync(audioFileName, handler, new AudioAssets.DecodeCallback() {
+                    @Override
+                    public void onDecoded(PcmDecoder.Pcm pcm) {
+                        decoded[0] = pcm;
+                        result.run();
+                        // 等待超时被取消时命令不会执行，清理解码前登记的音层
+                        if (result.isCancelled() && pendingLayers.get(layerId) == token) {
+                            pendingLayers.remove(layerId);
+                        }
+                    }
+                });
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 设置环境音层增益，直接修改不经过引擎线程，可在任意线程调用
+     */
+    public boolean setAmbientLayerGain(String layerId, float gain) {
+        return ambientMixer.setGain(layerId, gain);
+    }
+
+    /**
+     * 设置环境音层静音，可在任意线程调用
+     */
+    public boolean setAmbientLayerMuted(String layerId, boolean muted) {
+        return ambientMixer.setMuted(layerId, muted);
+    }
+
+    public void removeAmbientLayer(final String layerId) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                pendingLayers.remove(layerId);
+                ambientMixer.removeLayer(layerId);
+                publishState();
+            }
+        });
+    }
+
+    public void stopAmbient() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                pendingLayers.clear();
+                ambientMixer.release();
+                publishState();
+            }
+        });
+    }
+
+    /**
+     * 获取混音器统计，可在任意线程调用
+     */
+    public String getAmbientStats() {
+        return ambientMixer.getStats();
+    }
+
+    /**
+     * 预加载资源清单中的提示音
+     */
+    public void preloadCues() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                cuePlayer.preload();
+            }
+        });
+    }
+
+    /**
+     * 播放提示音，直接在调用线程执行，可在任意线程调用
+     * @param triggeredAt 触发时间（SystemClock.elapsedRealtimeNanos）
+     */
+    public boolean playCue(String name, float gain, long triggeredAt) {
+        return cuePlayer.play(name, gain, triggeredAt);
+    }
+
+    /**
+     * 播放闹钟，播放状态通过alarmState事件通知网页
+     */
+    public Future<Boolean> playAlarm(final String audioPath, final boolean enableVibration) {
+        return submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                boolean success = getAlarmPlayer().playAlarm(audioPath, enableVibration);
+                publishState();
+                NativeEvents.getInstance().emit(NativeEvents.ALARM_STATE, NativeEvents.payload("playing", success));
+                return success;
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                Log.w(TAG, "闹钟命令已超时，停止: " + audioPath);
+                alarmPlayer.stopAlarm();
+                publishState();
+                NativeEvents.getInstance().emit(NativeEvents.ALARM_STATE, NativeEvents.payload("playing", false));
+            }
+        });
+    }
+
+    public void stopAlarm() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                if (alarmPlayer != null) {
+                    alarmPlayer.stopAlarm();
+                }
+                publishState();
+                NativeEvents.getInstance().emit(NativeEvents.ALARM_STATE, NativeEvents.payload("playing", false));
+            }
+        });
+    }
+
+    public Future<Boolean> testVibration() {
+        return submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return getAlarmPlayer().testVibration();
+            }
+        }, null);
+    }
+
+    /**
+     * 停止所有音频
+     */
+    public void stopAll() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                if (regularPlayer != null) {
+                    regularPlayer.stopAudio();
+                }
+                if (alarmPlayer != null) {
+                    alarmPlayer.stopAlarm();
+                }
+                pendingLayers.clear();
+                ambientMixer.release();
+                publishState();
+            }
+        });
+    }
+
+    /**
+     * 释放播放器池中的空闲播放器，内存紧张时调用
+     */
+    public void trimMemory() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                mediaPool.releaseIdle();
+                alarmPool.releaseIdle();
+                PcmCache.getInstance(context).purge();
+                Log.d(TAG, "已释放空闲播放器: " + getPoolStats());
+            }
+        });
+    }
+
+    /**
+     * 在后台解码音频并写入PCM缓存，之后的无缝循环、混音和闹钟可以直接从映射的PCM开始
+     */
+    public void prefetchPcm(String audioFileName) {
+        audioAssets.prefetch(audioFileName);
+    }
+
+    /**
+     * 获取播放器池统计，可在任意线程调用
+     */
+    public String getPoolStats() {
+        return mediaPool.getStats() + "; " + alarmPool.getStats() + "; " + PcmCache.getInstance(context).getStats();
+    }
+
+    /**
+     * 等待命令结果，超时或失败时返回false
+     * 只会阻塞调用线程（例如AsyncBridge的原生线程），不会阻塞引擎线程
+     * 超时时取消命令：尚未执行的命令不再执行，正在执行的命令结束后撤销，返回false时不会留下播放
+     */
+    public static boolean await(Future<Boolean> result, long timeoutMs) {
+        try {
+            Boolean value = result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            return value != null && value;
+        } catch (TimeoutException e) {
+            if (result.cancel(false)) {
+                Log.w(TAG, "音频命令" + timeoutMs + "ms内未完成，已取消");
+                return false;
+            }
+            // 取消前命令刚好完成，使用它的结果
+            return await(result, 0);
+        } catch (Exception e) {
+            Log.e(TAG, "等待音频命令结果失败", e);
+            return false;
+        }
+    }
+
+    private RegularAudioPlayer getRegularPlayer() {
+        if (regularPlayer == null) {
+            regularPlayer = new RegularAudioPlayer(context, mediaPool, handler, mediaFocus);
+            // MediaPlayer在引擎线程创建，完成回调也在引擎线程执行
+            regularPlayer.setOnAudioCompletionListener(new RegularAudioPlayer.OnAudioCompletionListener() {
+                @Override
+                public void onAudioCompletion(String audioFileName) {
+                    Log.d(TAG, "音频播放完成，通知JavaScript: " + audioFileName);
+                    publishState();
+                    NativeEvents.getInstance().emit(NativeEvents.AUDIO_COMPLETED,
+                            NativeEvents.payload("fileName", audioFileName));
+                }
+            });
+            regularPlayer.setOnStateChangedListener(new Runnable() {
+                @Override
+                public void run() {
+                    publishState();
+                }
+            });
+            Log.d(TAG, "普通音频播放器已初始化");
+        }
+        return regularPlayer;
+    }
+
+    private AlarmAudioPlayer getAlarmPlayer() {
+        if (alarmPlayer == null) {
+            alarmPlayer = new AlarmAudioPlayer(context, alarmPool);
+            Log.d(TAG, "闹钟播放器已初始化");
+        }
+        return alarmPlayer;
+    }
+
+    /**
+     * 根据播放器的实际状态发布新的快照，只在引擎线程调用
+     */
+    private void publishState() {
+        String regularFile = regularPlayer != null ? regularPlayer.getCurrentFile() : null;
+        boolean regularPlaying = regularPlayer != null && regularPlayer.isPlaying();
+        boolean alarmPlaying = alarmPlayer != null && alarmPlayer.isPlaying();
+        State updated = new State(regularFile, regularPlaying, alarmPlaying, ambientMixer.isRunning(),
+                SystemClock.elapsedRealtime());
+        state = updated;
+        StateListener listener = stateListener;
+        if (listener != null) {
+            listener.onStateChanged(updated);
+        }
+    }
+
+    /**
+     * @param rollback 等待方超时取消时撤销已执行的命令，为null时不撤销
+     */
+    private Future<Boolean> submit(Callable<Boolean> command, Runnable rollback) {
+        AudioCommand task = new AudioCommand(command, rollback);
+        post(task);
+        return task;
+    }
+
+    private void post(Runnable command) {
+        if (!handler.post(command)) {
+            Log.w(TAG, "音频引擎线程已退出，命令被丢弃");
+        }
+    }
+}
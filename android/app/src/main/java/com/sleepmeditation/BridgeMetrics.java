@@ -0,0 +1,191 @@
+package com.sleepmeditation;
+
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 桥接方法调用指标
+ * 按 "桥接名.方法名" 记录调用次数、失败次数和耗时分布，用于找出调用频繁或耗时较长的原生方法
+ *
+ * 耗时使用固定的对数分桶直方图：第i个桶统计 [2^i, 2^(i+1)) 微秒内的调用，
+ * 记录时只做原子自增，不加锁也不分配内存；百分位取所在桶的上界，误差在2倍以内
+ *
+ * 数据保存在进程级的静态实例中，Activity因配置变化重建时不会丢失
+ */
+public final class BridgeMetrics {
+    private static final String TAG = "BridgeMetrics";
+    // 2^23微秒约8.4秒，更长的调用计入最后一个桶
+    static final int BUCKET_COUNT = 24;
+
+    private static final BridgeMetrics instance = new BridgeMetrics();
+
+    private final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+
+    BridgeMetrics() {
+    }
+
+    public static BridgeMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * 开始记录一次调用，配合try-with-resources使用：
+     * try (BridgeMetrics.Scope scope = BridgeMetrics.getInstance().start("RegularAudioBridge.playRegularAudio")) { ... }
+     */
+    public Scope start(String name) {
+        return new Scope(stats(name));
+    }
+
+    /**
+     * 直接记录一次调用
+     */
+    public void record(String name, long elapsedNanos, boolean failed) {
+        stats(name).record(elapsedNanos, failed);
+    }
+
+    MethodStats stats(String name) {
+        MethodStats stats = methods.get(name);
+        if (stats == null) {
+            MethodStats created = new MethodStats();
+            stats = methods.putIfAbsent(name, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 获取所有方法的指标快照，按方法名排序
+     * 每个方法包含 count、errors、p50Ms、p95Ms、p99Ms、maxMs
+     */
+    public String getSnapshot() {
+        try {
+            JSONObject snapshot = new JSONObject();
+            for (Map.Entry<String, MethodStats> entry : new TreeMap<>(methods).entrySet()) {
+                MethodStats stats = entry.getValue();
+                JSONObject method = new JSONObject();
+                method.put("count", stats.getCount());
+                method.put("errors", stats.getErrors());
+                method.put("p50Ms", stats.percentileMicros(0.50) / 1000.0);
+                method.put("p95Ms", stats.percentileMicros(0.95) / 1000.0);
+                method.put("p99Ms", stats.percentileMicros(0.99) / 1000.0);
+                method.put("maxMs", stats.getMaxMicros() / 1000.0);
+                snapshot.put(entry.getKey(), method);
+            }
+            return snapshot.toString();
+        } catch (JSONException e) {
+            Log.e(TAG, "序列化桥接指标失败", e);
+            return "{}";
+        }
+    }
+
+    /**
+     * 清空所有指标
+     */
+    public void reset() {
+        methods.clear();
+    }
+
+    /**
+     * 单个方法的指标，所有字段均为原子变量，可在多个桥接线程上并发记录
+     */
+    static final class MethodStats {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+        void record(long elapsedNanos, boolean failed) {
+            long micros = Math.max(0, elapsedNanos / 1000);
+            buckets.incrementAndGet(bucketOf(micros));
+            count.incrementAndGet();
+            if (failed) {
+                errors.incrementAndGet();
+            }
+
+            long max = maxMicros.get();
+            while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+                max = maxMicros.get();
+            }
+        }
+
+        static int bucketOf(long micros) {
+            if (micros <= 1) {
+                return 0;
+            }
+            return Math.min(BUCKET_COUNT - 1, 63 - Long.numberOfLeadingZeros(micros));
+        }
+
+        /**
+         * 估算百分位耗时（微秒），返回目标排名所在桶的上界，且不超过实际最大值
+         */
+        long percentileMicros(double percentile) {
+            long total = 0;
+            long[] snapshot = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                snapshot[i] = buckets.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(percentile * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.min(1L << (i + 1), maxMicros.get());
+                }
+            }
+            return maxMicros.get();
+        }
+
+        long getCount() {
+            return count.get();
+        }
+
+        long getErrors() {
+            return errors.get();
+        }
+
+        long getMaxMicros() {
+            return maxMicros.get();
+        }
+    }
+
+    /**
+     * 一次调用的计时范围，close()时记录耗时
+     */
+    public static final class Scope implements Closeable {
+        private final MethodStats stats;
+        private final long startNanos = System.nanoTime();
+        private boolean failed = false;
+
+        Scope(MethodStats stats) {
+            this.stats = stats;
+        }
+
+        /**
+         * 标记本次调用失败
+         */
+        public void markFailed() {
+            failed = true;
+        }
+
+        @Override
+        public void close() {
+            stats.record(System.nanoTime() - startNanos, failed);
+        }
+    }
+}
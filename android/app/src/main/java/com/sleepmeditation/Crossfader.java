@@ -0,0 +1,163 @@
+package com.sleepmeditation;
+
+import android.os.Handler;
+
+/**
+ * 两路音频之间的等功率交叉淡化
+ * 淡化由引擎线程的Handler驱动：每一步都根据System.nanoTime()计算实际进度，
+ * 消息被延迟处理时也不会拖长或打乱淡化曲线
+ *
+ * Channel.setGain和开始、结束回调都在引擎线程上执行，MediaPlayer和AudioTrack只在该线程上被操作；
+ * 调用方在开始回调中启动淡入的播放器，在结束回调中回收淡出的播放器
+ */
+public class Crossfader {
+    // 两次调整音量之间的间隔
+    private static final long STEP_MS = 10;
+
+    /**
+     * 一路音频的音量控制，setGain在引擎线程上调用
+     */
+    public interface Channel {
+        void setGain(float gain);
+    }
+
+    /**
+     * 淡化开始和结束回调，在引擎线程上执行
+     */
+    public interface Listener {
+        void onCrossfadeStart();
+
+        void onCrossfadeFinished();
+    }
+
+    /**
+     * 延迟执行任务，引擎中由Handler实现，测试中可以替换
+     */
+    interface Scheduler {
+        void postDelayed(Runnable task, long delayMs);
+
+        void removeCallbacks(Runnable task);
+    }
+
+    /**
+     * 计算淡化进度的时钟
+     */
+    interface Clock {
+        long nanoTime();
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    private final Channel fadeOut;
+    private final float fadeOutVolume;
+    private final Channel fadeIn;
+    private final float fadeInVolume;
+    private final long durationNanos;
+    private final Scheduler scheduler;
+    private final Clock clock;
+    private final Listener listener;
+
+    private boolean cancelled = false;
+    private long startAt;
+
+    /**
+     * @param handler 引擎线程的Handler
+     */
+    public Crossfader(Channel fadeOut, float fadeOutVolume, Channel fadeIn, float fadeInVolume,
+                      long durationMs, final Handler handler, Listener listener) {
+        this(fadeOut, fadeOutVolume, fadeIn, fadeInVolume, durationMs, new Scheduler() {
+            @Override
+            public void postDelayed(Runnable task, long delayMs) {
+                handler.postDelayed(task, delayMs);
+            }
+
+            @Override
+            public void removeCallbacks(Runnable task) {
+                handler.removeCallbacks(task);
+            }
+        }, SYSTEM_CLOCK, listener);
+    }
+
+    Crossfader(Channel fadeOut, float fadeOutVolume, Channel fadeIn, float fadeInVolume,
+               long durationMs, Scheduler scheduler, Clock clock, Listener listener) {
+        this.fadeOut = fadeOut;
+        this.fadeOutVolume = fadeOutVolume;
+        this.fadeIn = fadeIn;
+        this.fadeInVolume = fadeInVolume;
+        this.durationNanos = durationMs * 1000000L;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.listener = listener;
+    }
+
+    /**
+     * 淡入音轨的增益，progress从0到1，sin曲线与fadeOutGain的平方和恒为1
+     */
+    static float fadeInGain(float progress) {
+        return (float) Math.sin(clamp(progress) * Math.PI / 2);
+    }
+
+    /**
+     * 淡出音轨的增益
+     */
+    static float fadeOutGain(float progress) {
+        return (float) Math.cos(clamp(progress) * Math.PI / 2);
+    }
+
+    private static float clamp(float progress) {
+        return Math.max(0f, Math.min(1f, progress));
+    }
+
+    /**
+     * 在delayMs后开始淡化，在引擎线程调用
+     */
+    public void start(long delayMs) {
+        long delay = Math.max(0, delayMs);
+        startAt = clock.nanoTime() + delay * 1000000L;
+        scheduler.postDelayed(begin, delay);
+    }
+
+    private final Runnable begin = new Runnable() {
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            fadeIn.setGain(0f);
+            listener.onCrossfadeStart();
+            step.run();
+        }
+    };
+
+    private final Runnable step = new Runnable() {
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            float progress = durationNanos > 0 ? (float) (clock.nanoTime() - startAt) / durationNanos : 1f;
+            fadeOut.setGain(fadeOutVolume * fadeOutGain(progress));
+            fadeIn.setGain(fadeInVolume * fadeInGain(progress));
+            if (progress < 1f) {
+                scheduler.postDelayed(step, STEP_MS);
+            } else {
+                cancelled = true;
+                listener.onCrossfadeFinished();
+            }
+        }
+    };
+
+    /**
+     * 取消尚未完成的淡化，之后不会再调整音量或回调，在引擎线程调用
+     */
+    public void cancel() {
+        cancelled = true;
+        scheduler.removeCallbacks(begin);
+        scheduler.removeCallbacks(step);
+    }
+}
@@ -0,0 +1,67 @@
+package com.sleepmeditation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 提示音加载状态
+ * SoundPool.load返回soundId之前，加载完成回调就可能已经在SoundPool的线程上到达；
+ * 这种情况下先记下回调结果，等load返回、登记名称时再确定加载结果，两种先后顺序结果一致
+ *
+ * 所有方法加锁，可在任意线程调用
+ */
+final class CueLoadTracker {
+    // 已加载完成的提示音名称到soundId
+    private final Map<String, Integer> loaded = new HashMap<>();
+    // 已调用load、尚未完成的soundId到名称
+    private final Map<Integer, String> pending = new HashMap<>();
+    // 在登记名称之前就完成加载的soundId及是否成功
+    private final Map<Integer, Boolean> completedEarly = new HashMap<>();
+
+    /**
+     * load返回soundId后登记名称
+     * @return 加载完成回调已先到达且成功时返回true
+     */
+    synchronized boolean onLoadStarted(int soundId, String name) {
+        Boolean success = completedEarly.remove(soundId);
+        if (success == null) {
+            pending.put(soundId, name);
+            return false;
+        }
+        if (success) {
+            loaded.put(name, soundId);
+        }
+        return success;
+    }
+
+    /**
+     * 加载完成回调
+     * @return 对应的提示音名称，名称尚未登记时返回null
+     */
+    synchronized String onLoadComplete(int soundId, boolean success) {
+        String name = pending.remove(soundId);
+        if (name == null) {
+            completedEarly.put(soundId, success);
+            return null;
+        }
+        if (success) {
+            loaded.put(name, soundId);
+        }
+        return name;
+    }
+
+    /**
+     * @return 已加载的soundId，未加载时返回null
+     */
+    synchronized Integer get(String name) {
+        return loaded.get(name);
+    }
+
+    synchronized int getLoadedCount() {
+        return loaded.size();
+    }
+
+    synchronized int getPendingCount() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,117 @@
+package com.sleepmeditation;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.media.AudioAttributes;
+import android.media.SoundPool;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 提示音播放器
+ * 冥想间隔铃声、界面确认音、闹钟前奏等短音频在空闲时一次性预加载到SoundPool，
+ * 播放时只需一次play调用，不经过MediaPlayer的创建、prepare和释放
+ *
+ * SoundPool本身是线程安全的，play可以直接在JavaBridge线程调用，不经过音频引擎线程
+ */
+public class CuePlayer {
+    private static final String TAG = "CuePlayer";
+    // 同时播放的提示音数量上限，超出时停止优先级最低、最早开始的一个
+    static final int MAX_STREAMS = 4;
+    // 从触发到SoundPool开始播放的耗时，记录到BridgeMetrics
+    static final String LATENCY_METRIC = "CuePlayer.triggerToPlay";
+
+    private final AssetManifest assetManifest;
+    private final Context context;
+    private final SoundPool soundPool;
+    // 加载完成回调可能早于load返回，由CueLoadTracker统一处理两种顺序
+    private final CueLoadTracker cues = new CueLoadTracker();
+    private volatile boolean preloaded = false;
+
+    public CuePlayer(Context context, AudioAttributes attributes) {
+        this.context = context;
+        this.assetManifest = AssetManifest.getInstance(context);
+        this.soundPool = new SoundPool.Builder()
+                .setMaxStreams(MAX_STREAMS)
+                .setAudioAttributes(attributes)
+                .build();
+        this.soundPool.setOnLoadCompleteListener(new SoundPool.OnLoadCompleteListener() {
+            @Override
+            public void onLoadComplete(SoundPool pool, int sampleId, int status) {
+                String name = cues.onLoadComplete(sampleId, status == 0);
+                if (name == null) {
+                    // load尚未返回，登记名称时再确定结果
+                    return;
+                }
+                if (status == 0) {
+                    Log.d(TAG, "提示音已加载: " + name);
+                } else {
+                    Log.w(TAG, "提示音加载失败: " + name + ", status=" + status);
+                }
+            }
+        });
+    }
+
+    /**
+     * 预加载资源清单中列出的所有提示音，只执行一次；解码由SoundPool在自己的线程完成
+     */
+    public synchronized void preload() {
+        if (preloaded) {
+            return;
+        }
+        preloaded = true;
+
+        Map<String, AssetManifest.Entry> manifestCues = assetManifest.getCues();
+        for (Map.Entry<String, AssetManifest.Entry> cue : manifestCues.entrySet()) {
+            AssetManifest.Entry asset = cue.getValue();
+            if (!asset.stored) {
+                Log.w(TAG, "提示音在APK中被压缩存储，无法预加载: " + asset.path);
+                continue;
+            }
+            try (AssetFileDescriptor afd = context.getAssets().openFd(asset.path)) {
+                int soundId = soundPool.load(afd, 1);
+                if (soundId == 0) {
+                    Log.w(TAG, "提示音加载失败: " + cue.getKey());
+                } else if (cues.onLoadStarted(soundId, cue.getKey())) {
+                    Log.d(TAG, "提示音已加载: " + cue.getKey());
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "打开提示音失败: " + asset.path, e);
+            }
+        }
+        Log.d(TAG, "开始预加载" + manifestCues.size() + "个提示音");
+    }
+
+    /**
+     * 播放提示音
+     * @param name 提示音名称（cues目录下不带扩展名的文件名）
+     * @param gain 音量（0.0到1.0）
+     * @param triggeredAt 触发时间（SystemClock.elapsedRealtimeNanos），用于统计延迟
+     * @return 提示音未加载或播放失败时返回false
+     */
+    public boolean play(String name, float gain, long triggeredAt) {
+        Integer soundId = cues.get(name);
+        if (soundId == null) {
+            Log.w(TAG, "提示音未加载: " + name + (preloaded ? "" : "（尚未预加载）"));
+            BridgeMetrics.getInstance().record(LATENCY_METRIC, SystemClock.elapsedRealtimeNanos() - triggeredAt, true);
+            return false;
+        }
+
+        float volume = Math.max(0f, Math.min(1f, gain));
+        int streamId = soundPool.play(soundId, volume, volume, 1, 0, 1f);
+        long latency = SystemClock.elapsedRealtimeNanos() - triggeredAt;
+        BridgeMetrics.getInstance().record(LATENCY_METRIC, latency, streamId == 0);
+        Log.d(TAG, "播放提示音: " + name + ", 延迟" + latency / 1000000.0 + "ms");
+        return streamId != 0;
+    }
+
+    /**
+     * 获取已加载的提示音数量，可在任意线程调用
+     */
+    public int getLoadedCount() {
+        return cues.getLoadedCount();
+    }
+}
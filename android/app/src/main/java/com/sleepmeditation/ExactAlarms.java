@@ -0,0 +1,96 @@
+package com.sleepmeditation;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * 闹钟和定时器共用的AlarmManager调度
+ * 默认使用ELAPSED_REALTIME_WAKEUP，夜间系统时间被修改或NTP校时不会影响触发时刻；
+ * 需要保证准时的闹钟可以选择setAlarmClock，系统会把它当作用户闹钟对待，不受Doze延后
+ *
+ * 调度时把预期触发时刻和所用的API写入Intent，接收器据此统计实际触发的延迟（见AlarmLatencyStats）
+ */
+final class ExactAlarms {
+    private static final String TAG = "ExactAlarms";
+
+    static final String EXTRA_INTENDED_ELAPSED = "intendedElapsed";
+    static final String EXTRA_API_PATH = "apiPath";
+
+    static final String PATH_ALARM_CLOCK = "setAlarmClock";
+    static final String PATH_EXACT_ALLOW_WHILE_IDLE = "setExactAndAllowWhileIdle";
+    static final String PATH_INEXACT_ALLOW_WHILE_IDLE = "setAndAllowWhileIdle";
+    static final String PATH_EXACT = "setExact";
+
+    private ExactAlarms() {
+    }
+
+    /**
+     * 设置广播闹钟，同一requestCode的旧闹钟被替换
+     * @param intent 广播Intent，会被加入预期触发时刻和API名称
+     * @param delayMs 从现在起的延迟毫秒数
+     * @param useAlarmClock 是否使用setAlarmClock
+     * @return 实际使用的API名称
+     */
+    static String schedule(Context context, AlarmManager alarmManager, Intent intent, int requestCode,
+                           long delayMs, boolean useAlarmClock) {
+        long triggerAtElapsed = SystemClock.elapsedRealtime() + delayMs;
+        String path = choosePath(alarmManager, useAlarmClock);
+        intent.putExtra(EXTRA_INTENDED_ELAPSED, triggerAtElapsed);
+        intent.putExtra(EXTRA_API_PATH, path);
+
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(
+            context,
+            requestCode,
+            intent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        switch (path) {
+            case PATH_ALARM_CLOCK:
+                // setAlarmClock只接受系统时间，由单调时钟换算
+                PendingIntent showIntent = PendingIntent.getActivity(
+                    context,
+                    requestCode,
+                    new Intent(context, MainActivity.class),
+                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+                );
+                alarmManager.setAlarmClock(
+                    new AlarmManager.AlarmClockInfo(System.currentTimeMillis() + delayMs, showIntent),
+                    pendingIntent
+                );
+                break;
+            case PATH_EXACT_ALLOW_WHILE_IDLE:
+                // Android 6.0及以上，使用setExactAndAllowWhileIdle确保在低电量模式下也能触发
+                alarmManager.setExactAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, triggerAtElapsed, pendingIntent);
+                break;
+            case PATH_INEXACT_ALLOW_WHILE_IDLE:
+                alarmManager.setAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, triggerAtElapsed, pendingIntent);
+                break;
+            default:
+                alarmManager.setExact(AlarmManager.ELAPSED_REALTIME_WAKEUP, triggerAtElapsed, pendingIntent);
+                break;
+        }
+        Log.d(TAG, "使用 " + path + "，" + delayMs + "ms后触发");
+        return path;
+    }
+
+    private static String choosePath(AlarmManager alarmManager, boolean useAlarmClock) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && !alarmManager.canScheduleExactAlarms()) {
+            // 精确闹钟权限被撤销时setExact*会抛出SecurityException，退回非精确闹钟
+            Log.w(TAG, "没有精确闹钟权限，使用非精确闹钟");
+            return PATH_INEXACT_ALLOW_WHILE_IDLE;
+        }
+        if (useAlarmClock) {
+            return PATH_ALARM_CLOCK;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return PATH_EXACT_ALLOW_WHILE_IDLE;
+        }
+        return PATH_EXACT;
+    }
+}
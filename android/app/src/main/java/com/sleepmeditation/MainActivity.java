@@ -2,6 +2,8 @@ package com.sleepmeditation;
 
 import android.content.pm.PackageManager;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.KeyEvent;
 import android.webkit.WebChromeClient;
@@ -14,17 +16,22 @@ import android.widget.Toast;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
+import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.IBinder;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.PowerManager;
+import android.os.SystemClock;
 import android.app.AlertDialog;
 import android.content.DialogInterface;
 import android.net.Uri;
 import androidx.core.app.ActivityCompat;
 import androidx.core.app.NotificationCompat;
 import androidx.core.content.ContextCompat;
+import androidx.core.splashscreen.SplashScreen;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -32,12 +39,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * 主活动类
  * 负责加载Web应用并提供原生功能接口
@@ -48,17 +49,55 @@ public class MainActivity extends AppCompatActivity {
     private static final int NOTIFICATION_PERMISSION_REQUEST_CODE = 1002;
     
     // 通知渠道ID和名称
-    private static final String CHANNEL_ID = "sleep_meditation_notifications";
+    static final String CHANNEL_ID = "sleep_meditation_notifications";
     private static final String CHANNEL_NAME = "睡眠冥想助手通知";
     private static final String CHANNEL_DESCRIPTION = "睡眠冥想助手的通知";
 
+    // 等待网页首次渲染的最长时间，超时后移除启动画面
+    private static final long FIRST_PAINT_TIMEOUT_MS = 3000;
+    // 等待file://源导出页交回网页存储的最长时间
+    // 导出页需要冷启动WebView并读取全部IndexedDB数据库，低端设备上可能需要数秒
+    private static final long STORAGE_EXPORT_TIMEOUT_MS = 10000;
+
     private WebView webView;
-    private AlarmAudioPlayer alarmAudioPlayer;
-    private RegularAudioPlayer regularAudioPlayer;
-    private boolean permissionsGranted = false;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private StartupOrchestrator startupOrchestrator;
+
+    // 等待音频引擎完成播放命令的最长时间
+    private static final long AUDIO_COMMAND_TIMEOUT_MS = 5000;
+    // playRegularAudio的循环方式
+    private static final String LOOP_MODE_MEDIA_PLAYER = "mediaPlayer";
+    private static final String LOOP_MODE_PCM = "pcm";
+
+    // 在JavaBridge线程读取
+    private volatile boolean permissionsGranted = false;
+
+    // 播放服务持有音频引擎，Activity作为客户端绑定；Activity销毁后播放会话由服务继续保持
+    private PlaybackService playbackService;
+    private boolean playbackServiceBound = false;
+    private final ServiceConnection playbackConnection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder service) {
+            playbackService = ((PlaybackService.LocalBinder) service).getService();
+            Log.d(TAG, "已绑定播放服务");
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            playbackService = null;
+            Log.w(TAG, "播放服务连接断开");
+        }
+    };
     private NotificationManager notificationManager;
     private AlarmScheduler alarmScheduler;
     private TimerScheduler timerScheduler;
+    private WebAssetInterceptor webAssetInterceptor;
+    private NativeBridge nativeBridge;
+    private AsyncBridge asyncBridge;
+    private WebViewHibernator webViewHibernator;
+    private WebStorageMigration storageMigration;
+    // 正在file://源下导出旧的网页存储，此时加载的不是应用页面
+    private boolean exportingStorage = false;
 
     // 需要请求的权限
     private static final String[] REQUIRED_PERMISSIONS = {
@@ -77,73 +116,137 @@ public class MainActivity extends AppCompatActivity {
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        // 启动画面需要在super.onCreate之前安装
+        StartupTracer.mark(StartupTracer.ACTIVITY_CREATE);
+        SplashScreen splashScreen = SplashScreen.installSplashScreen(this);
         super.onCreate(savedInstanceState);
+        // 需要在WebView创建数据目录之前判断是否有旧的网页存储
+        storageMigration = new WebStorageMigration(this);
         setContentView(R.layout.activity_main);
+        StartupTracer.mark(StartupTracer.CONTENT_VIEW);
         
         // 初始化日志
         Log.d(TAG, "应用启动 - MainActivity onCreate");
-        
-        // 初始化闹钟播放器
-        alarmAudioPlayer = new AlarmAudioPlayer(this);
-        Log.d(TAG, "闹钟播放器已初始化");
-
-        // 初始化普通音频播放器
-        regularAudioPlayer = new RegularAudioPlayer(this);
-        // 设置音频播放完成监听器
-        regularAudioPlayer.setOnAudioCompletionListener(new RegularAudioPlayer.OnAudioCompletionListener() {
-            @Override
-            public void onAudioCompletion(String audioFileName) {
-                Log.d(TAG, "音频播放完成，通知JavaScript: " + audioFileName);
-                // 通过WebView调用JavaScript函数，通知音频播放完成
-                final String jsCode = "javascript:window.regularAudioPlayerCallback('" + audioFileName + "')";
-                runOnUiThread(new Runnable() {
+
+        startupOrchestrator = new StartupOrchestrator()
+                // WebView加载前必须完成的工作
+                .add(StartupOrchestrator.Phase.CRITICAL, "assetInterceptor", new Runnable() {
                     @Override
                     public void run() {
+                        // 初始化资源拦截器（同时加载资源清单，供音频播放器解析路径）
+                        webAssetInterceptor = new WebAssetInterceptor(MainActivity.this);
+                    }
+                })
+                .add(StartupOrchestrator.Phase.CRITICAL, "schedulers", new Runnable() {
+                    @Override
+                    public void run() {
+                        notificationManager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
+                        alarmScheduler = AlarmScheduler.getInstance(MainActivity.this);
+                        timerScheduler = new TimerScheduler(MainActivity.this);
+                        Log.d(TAG, "闹钟调度器和定时器调度器已初始化");
+                    }
+                })
+                // 只检查不弹窗：网页一加载就可能调用播放接口，权限状态必须在此之前确定
+                .add(StartupOrchestrator.Phase.CRITICAL, "permissionCheck", new Runnable() {
+                    @Override
+                    public void run() {
+                        permissionsGranted = getMissingPermissions().isEmpty();
+                    }
+                })
+                .add(StartupOrchestrator.Phase.CRITICAL, "webView", new Runnable() {
+                    @Override
+                    public void run() {
+                        // 获取WebView并配置
+                        webView = findViewById(R.id.webview);
                         if (webView != null) {
-                            webView.evaluateJavascript(jsCode, null);
+                            // 先绑定事件通道，页面加载完成后建立消息端口
+                            NativeEvents.getInstance().bind(webView);
+                            setupWebView();
+                            // 会话中熄屏时暂停JS计时器，由原生层接管剩余时间
+                            webViewHibernator = new WebViewHibernator(MainActivity.this, webView, timerScheduler);
+                            webViewHibernator.register();
                         }
                     }
+                })
+                // 网页首次渲染后再执行，不影响首帧
+                .add(StartupOrchestrator.Phase.AFTER_FIRST_PAINT, "notificationChannel", new Runnable() {
+                    @Override
+                    public void run() {
+                        createNotificationChannel();
+                    }
+                })
+                .add(StartupOrchestrator.Phase.AFTER_FIRST_PAINT, "playbackService", new Runnable() {
+                    @Override
+                    public void run() {
+                        // 绑定后服务开始跟踪播放状态，播放开始时自行转为前台服务
+                        playbackServiceBound = bindService(new Intent(MainActivity.this, PlaybackService.class),
+                                playbackConnection, Context.BIND_AUTO_CREATE);
+                    }
+                })
+                // 权限对话框推迟到首次渲染后。这不影响定时器和闹钟：REQUIRED_PERMISSIONS都是安装时授予的普通权限，
+                // 播放接口依赖的permissionsGranted已在CRITICAL阶段确定；通知权限被拒绝或尚未授予时，
+                // AlarmManager仍会按时触发，只是不显示通知，闹钟声音和震动由AlarmService照常播放
+                .add(StartupOrchestrator.Phase.AFTER_FIRST_PAINT, "permissions", new Runnable() {
+                    @Override
+                    public void run() {
+                        requestNotificationPermission();
+                        requestPermissions();
+                    }
+                })
+                // 主线程空闲时执行：厂商检测和电池优化对话框
+                .add(StartupOrchestrator.Phase.IDLE, "batteryOptimization", new Runnable() {
+                    @Override
+                    public void run() {
+                        // 检测电池优化（对于小米等定制系统尤为重要）
+                        checkBatteryOptimization();
+                        Log.d(TAG, "电池优化检测完成");
+                    }
+                })
+                // 预先解码背景音乐和闹钟声音，写入PCM缓存后可立即开始播放
+                .add(StartupOrchestrator.Phase.IDLE, "pcmCache", new Runnable() {
+                    @Override
+                    public void run() {
+                        getAudioEngine().prefetchPcm("2.mp3");
+                        getAudioEngine().prefetchPcm("./sounds/3.mp3");
+                    }
+                })
+                // 预加载铃声、提示音等短音频到SoundPool
+                .add(StartupOrchestrator.Phase.IDLE, "cues", new Runnable() {
+                    @Override
+                    public void run() {
+                        getAudioEngine().preloadCues();
+                    }
                 });
+
+        // 网页首次渲染前保持启动画面，超时后无论如何都要移除
+        splashScreen.setKeepOnScreenCondition(new SplashScreen.KeepOnScreenCondition() {
+            @Override
+            public boolean shouldKeepOnScreen() {
+                return !startupOrchestrator.isFirstPaintReached();
             }
         });
-        Log.d(TAG, "普通音频播放器已初始化");
-        
-        // 初始化通知管理器
-        notificationManager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
-        // 创建通知渠道
-        createNotificationChannel();
-        // 请求通知权限
-        requestNotificationPermission();
-
-        // 初始化闹钟调度器
-        alarmScheduler = new AlarmScheduler(this);
-        Log.d(TAG, "闹钟调度器已初始化");
-
-        // 获取WebView并配置
-        webView = findViewById(R.id.webview);
-        if (webView != null) {
-            setupWebView();
-            // 在setupWebView之后设置WebView引用，确保WebView已完全初始化
-            TimerReceiver.setWebView(webView);
-            Log.d(TAG, "WebView引用已设置到TimerReceiver");
-        }
+        mainHandler.postDelayed(firstPaintTimeout, FIRST_PAINT_TIMEOUT_MS);
 
-        // 初始化定时器调度器
-        timerScheduler = new TimerScheduler(this);
-        Log.d(TAG, "定时器调度器已初始化");
-
-        // 检测电池优化（对于小米等定制系统尤为重要）
-        checkBatteryOptimization();
-        Log.d(TAG, "电池优化检测完成");
-
-        // 请求权限
-        requestPermissions();
+        startupOrchestrator.runCritical();
     }
+
+    /**
+     * 网页迟迟没有发出首次渲染信号时，移除启动画面并继续后续初始化
+     */
+    private final Runnable firstPaintTimeout = new Runnable() {
+        @Override
+        public void run() {
+            Log.w(TAG, "等待网页首次渲染超时(" + FIRST_PAINT_TIMEOUT_MS + "ms)");
+            startupOrchestrator.onFirstPaint("timeout");
+        }
+    };
     
     /**
      * 配置WebView
      */
     private void setupWebView() {
+        StartupTracer.mark(StartupTracer.SETUP_WEBVIEW);
+
         // 启用JavaScript
         WebSettings settings = webView.getSettings();
         settings.setJavaScriptEnabled(true);
@@ -152,20 +255,29 @@ public class MainActivity extends AppCompatActivity {
         settings.setCacheMode(WebSettings.LOAD_DEFAULT);
         settings.setAllowFileAccess(true);
         settings.setAllowContentAccess(true);
-        settings.setAllowFileAccessFromFileURLs(true);
-        settings.setAllowUniversalAccessFromFileURLs(true);
+        // 网页通过https虚拟源加载，不再需要file://跨源访问
+        settings.setAllowFileAccessFromFileURLs(false);
+        settings.setAllowUniversalAccessFromFileURLs(false);
         
         // 启用调试（仅在调试版本中）
         if (BuildConfig.DEBUG) {
             WebView.setWebContentsDebuggingEnabled(true);
         }
 
-        // 添加JavaScript接口
-        webView.addJavascriptInterface(new AlarmAudioInterface(), "AlarmAudioBridge");
-        webView.addJavascriptInterface(new RegularAudioInterface(), "RegularAudioBridge");
-        webView.addJavascriptInterface(new NotificationInterface(), "NotificationBridge");
-        webView.addJavascriptInterface(new AlarmSchedulerInterface(), "AlarmSchedulerBridge");
-        webView.addJavascriptInterface(new TimerSchedulerInterface(), "TimerSchedulerBridge");
+        // 添加JavaScript接口，同时注册到原生模块注册表，网页可以选择同步、批量或异步调用
+        nativeBridge = new NativeBridge();
+        asyncBridge = new AsyncBridge(nativeBridge);
+        addBridge(new AlarmAudioInterface(), "AlarmAudioBridge");
+        addBridge(new RegularAudioInterface(), "RegularAudioBridge");
+        addBridge(new AmbientMixerInterface(), "AmbientMixerBridge");
+        addBridge(new CueInterface(), "CueBridge");
+        addBridge(new NotificationInterface(), "NotificationBridge");
+        addBridge(new AlarmSchedulerInterface(), "AlarmSchedulerBridge");
+        addBridge(new TimerSchedulerInterface(), "TimerSchedulerBridge");
+        addBridge(new AppInterface(), "AppBridge");
+        addBridge(new StorageMigrationInterface(), "StorageMigrationBridge");
+        webView.addJavascriptInterface(nativeBridge, "NativeBridge");
+        webView.addJavascriptInterface(asyncBridge, "AsyncBridge");
         Log.d(TAG, "JavaScript接口已添加到WebView");
 
         // 设置WebViewClient
@@ -176,105 +288,74 @@ public class MainActivity extends AppCompatActivity {
                 return false;
             }
             
+            @Nullable
             @Override
-            public WebResourceResponse shouldInterceptRequest(WebView view, String url) {
+            public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
                 // 处理资源加载
-                if (url.startsWith("file:///android_asset/")) {
-                    String path = url.substring("file:///android_asset/".length());
-                    
-                    try {
-                        InputStream inputStream = getAssets().open(path);
-                        String mimeType = getMimeType(path);
-                        Map<String, String> headers = new HashMap<>();
-                        headers.put("Access-Control-Allow-Origin", "*");
-                        
-                        return new WebResourceResponse(mimeType, "UTF-8", inputStream);
-                    } catch (IOException e) {
-                        Log.e(TAG, "无法加载资源: " + path, e);
-                    }
-                }
-                
-                // 处理相对路径的资源请求
-                else if (url.startsWith("file:///")) {
-                    String path = url.substring("file:///".length());
-                    
-                    // 如果是相对路径的音频文件，尝试多种可能的路径
-                    if (path.startsWith("sounds/") || path.startsWith("./sounds/")) {
-                        // 标准化路径
-                        if (path.startsWith("./sounds/")) {
-                            path = path.substring(2); // 移除 "./"
-                        }
-                        
-                        // 尝试直接加载
-                        try {
-                            Log.d(TAG, "尝试加载音频资源: " + path);
-                            InputStream inputStream = getAssets().open(path);
-                            String mimeType = getMimeType(path);
-                            Map<String, String> headers = new HashMap<>();
-                            headers.put("Access-Control-Allow-Origin", "*");
-                            
-                            Log.d(TAG, "成功加载音频资源: " + path + ", MIME类型: " + mimeType);
-                            return new WebResourceResponse(mimeType, "UTF-8", inputStream);
-                        } catch (IOException e) {
-                            Log.e(TAG, "无法加载音频资源: " + path, e);
-                            
-                            // 尝试其他可能的路径
-                            String[] alternativePaths = {
-                                "public/" + path,
-                                "public/sounds/" + path.substring("sounds/".length()),
-                                "sounds/" + path.substring("sounds/".length())
-                            };
-                            
-                            for (String altPath : alternativePaths) {
-                                try {
-                                    Log.d(TAG, "尝试备用路径: " + altPath);
-                                    InputStream inputStream = getAssets().open(altPath);
-                                    String mimeType = getMimeType(altPath);
-                                    Map<String, String> headers = new HashMap<>();
-                                    headers.put("Access-Control-Allow-Origin", "*");
-                                    
-                                    Log.d(TAG, "成功通过备用路径加载音频资源: " + altPath);
-                                    return new WebResourceResponse(mimeType, "UTF-8", inputStream);
-                                } catch (IOException e2) {
-                                    Log.e(TAG, "备用路径也失败: " + altPath, e2);
-                                }
-                            }
-                        }
-                    }
-                    
-                    // 如果是/assets/开头的路径，转换为public/assets/
-                    else if (path.startsWith("assets/")) {
-                        path = "public/" + path;
-                        
-                        try {
-                            InputStream inputStream = getAssets().open(path);
-                            String mimeType = getMimeType(path);
-                            Map<String, String> headers = new HashMap<>();
-                            headers.put("Access-Control-Allow-Origin", "*");
-                            
-                            return new WebResourceResponse(mimeType, "UTF-8", inputStream);
-                        } catch (IOException e) {
-                            Log.e(TAG, "无法加载资源: " + path, e);
-                        }
-                    }
-                }
-                
-                return null; // 让WebView处理默认加载
+                return webAssetInterceptor.intercept(request);
             }
-            
-            @Nullable
+
             @Override
-            public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
-                return shouldInterceptRequest(view, request.getUrl().toString());
+            public void onPageFinished(WebView view, String url) {
+                super.onPageFinished(view, url);
+                if (exportingStorage) {
+                    return;
+                }
+                StartupTracer.markAndPersist(MainActivity.this, StartupTracer.PAGE_FINISHED);
+                // 页面（重新）加载完成后建立原生→JS事件通道
+                NativeEvents.getInstance().onPageReady(view);
             }
         });
         
         // 设置WebChromeClient
         webView.setWebChromeClient(new WebChromeClient());
         
-        // 从assets加载index.html
-        webView.loadUrl("file:///android_asset/public/index.html");
-        Log.d(TAG, "已加载public/index.html");
+        if (storageMigration.needsExport()) {
+            // 升级后第一次启动：先在file://源下导出旧版本的网页存储，完成后再加载应用页面
+            exportingStorage = true;
+            webView.loadUrl(WebStorageMigration.EXPORT_URL);
+            mainHandler.postDelayed(storageExportTimeout, STORAGE_EXPORT_TIMEOUT_MS);
+            Log.d(TAG, "开始导出file://源的网页存储");
+            return;
+        }
+        loadAppPage();
+    }
+
+    /**
+     * 通过虚拟https源加载assets/public/index.html，使HTTP缓存和代码缓存可以跨启动复用
+     */
+    private void loadAppPage() {
+        mainHandler.removeCallbacks(storageExportTimeout);
+        exportingStorage = false;
+        webView.loadUrl(WebAssetInterceptor.APP_START_URL);
+        StartupTracer.mark(StartupTracer.LOAD_URL);
+        Log.d(TAG, "已加载" + WebAssetInterceptor.APP_START_URL);
+    }
+
+    private final Runnable storageExportTimeout = new Runnable() {
+        @Override
+        public void run() {
+            if (exportingStorage && webView != null) {
+                storageMigration.onExportTimeout();
+                loadAppPage();
+            }
+        }
+    };
+    
+    /**
+     * 获取音频引擎，引擎线程和播放器在第一次使用时才创建
+     */
+    private AudioEngine getAudioEngine() {
+        PlaybackService service = playbackService;
+        return service != null ? service.getAudioEngine() : AudioEngine.getInstance(this);
+    }
+
+    /**
+     * 添加JavaScript接口并注册到原生模块注册表
+     */
+    private void addBridge(Object bridge, String name) {
+        webView.addJavascriptInterface(bridge, name);
+        nativeBridge.register(name, bridge);
     }
     
     /**
@@ -432,48 +513,11 @@ public class MainActivity extends AppCompatActivity {
         }
     }
     
-    /**
-     * 获取MIME类型
-     */
-    private String getMimeType(String path) {
-        if (path.endsWith(".html")) {
-            return "text/html";
-        } else if (path.endsWith(".css")) {
-            return "text/css";
-        } else if (path.endsWith(".js")) {
-            return "application/javascript";
-        } else if (path.endsWith(".png")) {
-            return "image/png";
-        } else if (path.endsWith(".jpg") || path.endsWith(".jpeg")) {
-            return "image/jpeg";
-        } else if (path.endsWith(".gif")) {
-            return "image/gif";
-        } else if (path.endsWith(".svg")) {
-            return "image/svg+xml";
-        } else if (path.endsWith(".mp3")) {
-            return "audio/mpeg";
-        } else if (path.endsWith(".wav")) {
-            return "audio/wav";
-        } else if (path.endsWith(".m4a")) {
-            return "audio/mp4";
-        } else {
-            return "application/octet-stream";
-        }
-    }
-    
     /**
      * 请求权限
      */
     private void requestPermissions() {
-        // 检查哪些权限尚未授予
-        java.util.List<String> permissionsToRequest = new java.util.ArrayList<>();
-        
-        for (String permission : REQUIRED_PERMISSIONS) {
-            if (ContextCompat.checkSelfPermission(this, permission) 
-                    != PackageManager.PERMISSION_GRANTED) {
-                permissionsToRequest.add(permission);
-            }
-        }
+        java.util.List<String> permissionsToRequest = getMissingPermissions();
         
         if (!permissionsToRequest.isEmpty()) {
             ActivityCompat.requestPermissions(
@@ -488,6 +532,20 @@ public class MainActivity extends AppCompatActivity {
         }
     }
     
+    /**
+     * 检查哪些权限尚未授予，不弹出对话框
+     */
+    private java.util.List<String> getMissingPermissions() {
+        java.util.List<String> missing = new java.util.ArrayList<>();
+        for (String permission : REQUIRED_PERMISSIONS) {
+            if (ContextCompat.checkSelfPermission(this, permission)
+                    != PackageManager.PERMISSION_GRANTED) {
+                missing.add(permission);
+            }
+        }
+        return missing;
+    }
+
     /**
      * 权限请求结果处理
      */
@@ -539,6 +597,7 @@ public class MainActivity extends AppCompatActivity {
         
         @android.webkit.JavascriptInterface
         public boolean playAlarm(String audioPath, boolean enableVibration) {
+            StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_ALARM_BRIDGE);
             Log.d(TAG, "JavaScript调用playAlarm，音频路径: " + audioPath + ", 启用震动: " + enableVibration);
             
             if (!permissionsGranted) {
@@ -547,9 +606,13 @@ public class MainActivity extends AppCompatActivity {
             }
             
             try {
-                // 播放闹钟
-                boolean success = alarmAudioPlayer.playAlarm(audioPath, enableVibration);
+                // 播放闹钟，加载和准备在音频引擎线程上完成
+                boolean success = AudioEngine.await(
+                        getAudioEngine().playAlarm(audioPath, enableVibration), AUDIO_COMMAND_TIMEOUT_MS);
                 Log.d(TAG, "闹钟播放结果: " + success);
+                if (success) {
+                    StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_AUDIO);
+                }
                 return success;
             } catch (Exception e) {
                 Log.e(TAG, "播放闹钟时发生异常", e);
@@ -559,11 +622,12 @@ public class MainActivity extends AppCompatActivity {
         
         @android.webkit.JavascriptInterface
         public boolean stopAlarm() {
+            StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_ALARM_BRIDGE);
             Log.d(TAG, "JavaScript调用stopAlarm");
             
             try {
-                alarmAudioPlayer.stopAlarm();
-                Log.d(TAG, "闹钟已停止");
+                getAudioEngine().stopAlarm();
+                Log.d(TAG, "闹钟停止命令已提交");
                 return true;
             } catch (Exception e) {
                 Log.e(TAG, "停止闹钟时发生异常", e);
@@ -573,8 +637,9 @@ public class MainActivity extends AppCompatActivity {
         
         @android.webkit.JavascriptInterface
         public boolean isPlaying() {
+            StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_ALARM_BRIDGE);
             try {
-                return alarmAudioPlayer.isPlaying();
+                return getAudioEngine().getState().alarmPlaying;
             } catch (Exception e) {
                 Log.e(TAG, "检查播放状态时发生异常", e);
                 return false;
@@ -583,25 +648,23 @@ public class MainActivity extends AppCompatActivity {
         
         @android.webkit.JavascriptInterface
         public String getAppVersion() {
+            StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_ALARM_BRIDGE);
             return BuildConfig.VERSION_NAME;
         }
         
         @android.webkit.JavascriptInterface
         public boolean hasPermissions() {
+            StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_ALARM_BRIDGE);
             return permissionsGranted;
         }
 
         @android.webkit.JavascriptInterface
         public boolean testVibration() {
+            StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_ALARM_BRIDGE);
             Log.d(TAG, "JavaScript调用AlarmAudioBridge.testVibration");
 
             try {
-                if (alarmAudioPlayer != null) {
-                    return alarmAudioPlayer.testVibration();
-                } else {
-                    Log.e(TAG, "alarmAudioPlayer 未初始化");
-                    return false;
-                }
+                return AudioEngine.await(getAudioEngine().testVibration(), AUDIO_COMMAND_TIMEOUT_MS);
             } catch (Exception e) {
                 Log.e(TAG, "测试震动时发生异常: " + e.getMessage(), e);
                 return false;
@@ -616,7 +679,17 @@ public class MainActivity extends AppCompatActivity {
         
         @android.webkit.JavascriptInterface
         public boolean playRegularAudio(String audioFileName, float volume, boolean loop) {
-            Log.d(TAG, "JavaScript调用playRegularAudio，音频文件: " + audioFileName + ", 音量: " + volume + ", 循环: " + loop);
+            return playRegularAudio(audioFileName, volume, loop, LOOP_MODE_MEDIA_PLAYER);
+        }
+
+        /**
+         * @param loopMode 循环方式，"pcm"为解码后由AudioTrack无缝循环，其他值使用MediaPlayer循环
+         */
+        @android.webkit.JavascriptInterface
+        public boolean playRegularAudio(String audioFileName, float volume, boolean loop, String loopMode) {
+            StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_REGULAR_BRIDGE);
+            Log.d(TAG, "JavaScript调用playRegularAudio，音频文件: " + audioFileName + ", 音量: " + volume + ", 循环: " + loop
+                    + ", 循环方式: " + loopMode);
             
             if (!permissionsGranted) {
                 Log.w(TAG, "权限未授予，无法播放音频");
@@ -624,15 +697,14 @@ public class MainActivity extends AppCompatActivity {
             }
             
             try {
-                // 确保RegularAudioPlayer已初始化
-                if (regularAudioPlayer == null) {
-                    regularAudioPlayer = new RegularAudioPlayer(MainActivity.this);
-                    Log.d(TAG, "RegularAudioPlayer已重新初始化");
-                }
-                
-                // 播放音频
-                boolean success = regularAudioPlayer.playAudio(audioFileName, volume, loop);
+                // 播放音频，加载和准备在音频引擎线程上完成（首次调用时创建播放器）
+                boolean success = AudioEngine.await(
+                        getAudioEngine().playRegular(audioFileName, volume, loop, LOOP_MODE_PCM.equals(loopMode)),
+                        AUDIO_COMMAND_TIMEOUT_MS);
                 Log.d(TAG, "音频播放结果: " + success);
+                if (success) {
+                    StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_AUDIO);
+                }
                 return success;
             } catch (Exception e) {
                 Log.e(TAG, "播放音频时发生异常", e);
@@ -640,15 +712,48 @@ public class MainActivity extends AppCompatActivity {
             }
         }
         
+        @android.webkit.JavascriptInterface
+        public boolean prepareNextRegularAudio(String audioFileName, float volume, boolean loop) {
+            return prepareNextRegularAudio(audioFileName, volume, loop, LOOP_MODE_MEDIA_PLAYER);
+        }
+
+        @android.webkit.JavascriptInterface
+        public boolean prepareNextRegularAudio(String audioFileName, float volume, boolean loop, String loopMode) {
+            Log.d(TAG, "JavaScript调用prepareNextRegularAudio，音频文件: " + audioFileName + ", 循环方式: " + loopMode);
+
+            try {
+                getAudioEngine().prepareNextRegular(audioFileName, volume, loop, LOOP_MODE_PCM.equals(loopMode));
+                return true;
+            } catch (Exception e) {
+                Log.e(TAG, "预加载下一首音频时发生异常", e);
+                return false;
+            }
+        }
+
+        /**
+         * 设置预加载的下一首与当前音频之间的交叉淡化时长，淡化由原生层完成，屏幕关闭后照常进行
+         */
+        @android.webkit.JavascriptInterface
+        public boolean setCrossfadeDuration(int durationMs) {
+            Log.d(TAG, "JavaScript调用setCrossfadeDuration: " + durationMs + "ms");
+
+            try {
+                getAudioEngine().setCrossfadeDuration(durationMs);
+                return true;
+            } catch (Exception e) {
+                Log.e(TAG, "设置交叉淡化时长时发生异常", e);
+                return false;
+            }
+        }
+
         @android.webkit.JavascriptInterface
         public boolean stopRegularAudio() {
+            StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_REGULAR_BRIDGE);
             Log.d(TAG, "JavaScript调用stopRegularAudio");
             
             try {
-                if (regularAudioPlayer != null) {
-                    regularAudioPlayer.stopAudio();
-                }
-                Log.d(TAG, "音频已停止");
+                getAudioEngine().stopRegular();
+                Log.d(TAG, "音频停止命令已提交");
                 return true;
             } catch (Exception e) {
                 Log.e(TAG, "停止音频时发生异常", e);
@@ -658,13 +763,12 @@ public class MainActivity extends AppCompatActivity {
         
         @android.webkit.JavascriptInterface
         public boolean pauseRegularAudio() {
+            StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_REGULAR_BRIDGE);
             Log.d(TAG, "JavaScript调用pauseRegularAudio");
             
             try {
-                if (regularAudioPlayer != null) {
-                    regularAudioPlayer.pauseAudio();
-                }
-                Log.d(TAG, "音频已暂停");
+                getAudioEngine().pauseRegular();
+                Log.d(TAG, "音频暂停命令已提交");
                 return true;
             } catch (Exception e) {
                 Log.e(TAG, "暂停音频时发生异常", e);
@@ -674,13 +778,12 @@ public class MainActivity extends AppCompatActivity {
         
         @android.webkit.JavascriptInterface
         public boolean resumeRegularAudio() {
+            StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_REGULAR_BRIDGE);
             Log.d(TAG, "JavaScript调用resumeRegularAudio");
             
             try {
-                if (regularAudioPlayer != null) {
-                    regularAudioPlayer.resumeAudio();
-                }
-                Log.d(TAG, "音频已恢复");
+                getAudioEngine().resumeRegular();
+                Log.d(TAG, "音频恢复命令已提交");
                 return true;
             } catch (Exception e) {
                 Log.e(TAG, "恢复音频时发生异常", e);
@@ -690,13 +793,12 @@ public class MainActivity extends AppCompatActivity {
         
         @android.webkit.JavascriptInterface
         public boolean isRegularAudioPlaying() {
+            StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_REGULAR_BRIDGE);
             Log.d(TAG, "JavaScript调用isRegularAudioPlaying");
             
             try {
-                if (regularAudioPlayer != null) {
-                    return regularAudioPlayer.isPlaying();
-                }
-                return false;
+                // 读取引擎发布的状态快照，不等待引擎线程
+                return getAudioEngine().getState().regularPlaying;
             } catch (Exception e) {
                 Log.e(TAG, "检查普通音频播放状态时发生异常", e);
                 return false;
@@ -704,6 +806,99 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * JavaScript接口类，用于叠加多个环境音层（雨声、低音等），所有音层混合后通过同一个输出播放
+     */
+    private class AmbientMixerInterface {
+
+        @android.webkit.JavascriptInterface
+        public boolean addLayer(String layerId, String audioFileName, float gain) {
+            Log.d(TAG, "JavaScript调用AmbientMixerBridge.addLayer: " + layerId + ", 音频文件: " + audioFileName + ", 增益: " + gain);
+
+            if (!permissionsGranted) {
+                Log.w(TAG, "权限未授予，无法播放音频");
+                return false;
+            }
+
+            try {
+                return AudioEngine.await(
+                        getAudioEngine().addAmbientLayer(layerId, audioFileName, gain), AUDIO_COMMAND_TIMEOUT_MS);
+            } catch (Exception e) {
+                Log.e(TAG, "添加环境音层时发生异常", e);
+                return false;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public boolean setLayerGain(String layerId, float gain) {
+            try {
+                return getAudioEngine().setAmbientLayerGain(layerId, gain);
+            } catch (Exception e) {
+                Log.e(TAG, "设置环境音层增益时发生异常", e);
+                return false;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public boolean setLayerMuted(String layerId, boolean muted) {
+            try {
+                return getAudioEngine().setAmbientLayerMuted(layerId, muted);
+            } catch (Exception e) {
+                Log.e(TAG, "设置环境音层静音时发生异常", e);
+                return false;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public boolean removeLayer(String layerId) {
+            Log.d(TAG, "JavaScript调用AmbientMixerBridge.removeLayer: " + layerId);
+
+            try {
+                getAudioEngine().removeAmbientLayer(layerId);
+                return true;
+            } catch (Exception e) {
+                Log.e(TAG, "移除环境音层时发生异常", e);
+                return false;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public boolean stopAll() {
+            Log.d(TAG, "JavaScript调用AmbientMixerBridge.stopAll");
+
+            try {
+                getAudioEngine().stopAmbient();
+                return true;
+            } catch (Exception e) {
+                Log.e(TAG, "停止环境音时发生异常", e);
+                return false;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public String getStats() {
+            return getAudioEngine().getAmbientStats();
+        }
+    }
+
+    /**
+     * JavaScript接口类，用于播放铃声、提示音等预加载的短音频
+     */
+    private class CueInterface {
+
+        @android.webkit.JavascriptInterface
+        public boolean playCue(String name, float gain) {
+            // 在桥接方法入口记录触发时间，统计触发到开始播放的延迟
+            long triggeredAt = SystemClock.elapsedRealtimeNanos();
+            try {
+                return getAudioEngine().playCue(name, gain, triggeredAt);
+            } catch (Exception e) {
+                Log.e(TAG, "播放提示音时发生异常: " + name, e);
+                return false;
+            }
+        }
+    }
+
     /**
      * JavaScript接口类，用于处理通知功能
      */
@@ -755,6 +950,23 @@ public class MainActivity extends AppCompatActivity {
             }
         }
 
+        @android.webkit.JavascriptInterface
+        public boolean scheduleAlarm(int delayInSeconds, boolean enableVibration, boolean useAlarmClock) {
+            Log.d(TAG, "JavaScript调用AlarmSchedulerBridge.scheduleAlarm，延迟: " + delayInSeconds + "秒, 启用震动: " + enableVibration + ", 使用setAlarmClock: " + useAlarmClock);
+
+            try {
+                if (alarmScheduler != null) {
+                    return alarmScheduler.scheduleAlarm(delayInSeconds, enableVibration, useAlarmClock);
+                } else {
+                    Log.e(TAG, "alarmScheduler 未初始化");
+                    return false;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "设置闹钟时发生异常: " + e.getMessage(), e);
+                return false;
+            }
+        }
+
         @android.webkit.JavascriptInterface
         public boolean cancelAlarm() {
             Log.d(TAG, "JavaScript调用AlarmSchedulerBridge.cancelAlarm");
@@ -772,6 +984,57 @@ public class MainActivity extends AppCompatActivity {
             }
         }
 
+        @android.webkit.JavascriptInterface
+        public long addAlarm(int hour, int minute, int weekdays, String kind, String label, boolean enableVibration, boolean useAlarmClock) {
+            Log.d(TAG, "JavaScript调用AlarmSchedulerBridge.addAlarm，" + hour + ":" + minute + ", weekdays=" + weekdays + ", 类型: " + kind);
+
+            try {
+                if (alarmScheduler != null) {
+                    return alarmScheduler.addAlarm(hour, minute, weekdays, kind, label, enableVibration, useAlarmClock);
+                } else {
+                    Log.e(TAG, "alarmScheduler 未初始化");
+                    return -1;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "添加闹钟时发生异常: " + e.getMessage(), e);
+                return -1;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public boolean removeAlarm(long id) {
+            Log.d(TAG, "JavaScript调用AlarmSchedulerBridge.removeAlarm，ID: " + id);
+
+            try {
+                if (alarmScheduler != null) {
+                    return alarmScheduler.removeAlarm(id);
+                } else {
+                    Log.e(TAG, "alarmScheduler 未初始化");
+                    return false;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "删除闹钟时发生异常: " + e.getMessage(), e);
+                return false;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public String listAlarms() {
+            Log.d(TAG, "JavaScript调用AlarmSchedulerBridge.listAlarms");
+
+            try {
+                if (alarmScheduler != null) {
+                    return alarmScheduler.listAlarms();
+                } else {
+                    Log.e(TAG, "alarmScheduler 未初始化");
+                    return "[]";
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "获取闹钟列表时发生异常: " + e.getMessage(), e);
+                return "[]";
+            }
+        }
+
         @android.webkit.JavascriptInterface
         public boolean testVibration() {
             Log.d(TAG, "JavaScript调用AlarmSchedulerBridge.testVibration");
@@ -833,6 +1096,23 @@ public class MainActivity extends AppCompatActivity {
             }
         }
 
+        @android.webkit.JavascriptInterface
+        public boolean scheduleTimer(int delayInSeconds, boolean enableAlarm, boolean enableVibration, int timerDuration, boolean useAlarmClock) {
+            Log.d(TAG, "JavaScript调用TimerSchedulerBridge.scheduleTimer，延迟: " + delayInSeconds + "秒, 时长: " + timerDuration + "分钟, 使用setAlarmClock: " + useAlarmClock);
+
+            try {
+                if (timerScheduler != null) {
+                    return timerScheduler.scheduleTimer(delayInSeconds, enableAlarm, enableVibration, timerDuration, useAlarmClock);
+                } else {
+                    Log.e(TAG, "timerScheduler 未初始化");
+                    return false;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "设置定时器时发生异常: " + e.getMessage(), e);
+                return false;
+            }
+        }
+
         @android.webkit.JavascriptInterface
         public boolean cancelTimer() {
             Log.d(TAG, "JavaScript调用TimerSchedulerBridge.cancelTimer");
@@ -866,6 +1146,224 @@ public class MainActivity extends AppCompatActivity {
                 return false;
             }
         }
+
+        @android.webkit.JavascriptInterface
+        public long getRemainingMillis() {
+            Log.d(TAG, "JavaScript调用TimerSchedulerBridge.getRemainingMillis");
+
+            try {
+                if (timerScheduler != null) {
+                    return timerScheduler.getRemainingMillis();
+                } else {
+                    Log.e(TAG, "timerScheduler 未初始化");
+                    return -1;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "获取定时器剩余时间时发生异常: " + e.getMessage(), e);
+                return -1;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public boolean pause() {
+            Log.d(TAG, "JavaScript调用TimerSchedulerBridge.pause");
+
+            try {
+                if (timerScheduler != null) {
+                    return timerScheduler.pause();
+                } else {
+                    Log.e(TAG, "timerScheduler 未初始化");
+                    return false;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "暂停定时器时发生异常: " + e.getMessage(), e);
+                return false;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public boolean resume() {
+            Log.d(TAG, "JavaScript调用TimerSchedulerBridge.resume");
+
+            try {
+                if (timerScheduler != null) {
+                    return timerScheduler.resume();
+                } else {
+                    Log.e(TAG, "timerScheduler 未初始化");
+                    return false;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "恢复定时器时发生异常: " + e.getMessage(), e);
+                return false;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public boolean extend(int seconds) {
+            Log.d(TAG, "JavaScript调用TimerSchedulerBridge.extend，秒数: " + seconds);
+
+            try {
+                if (timerScheduler != null) {
+                    return timerScheduler.extend(seconds);
+                } else {
+                    Log.e(TAG, "timerScheduler 未初始化");
+                    return false;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "延长定时器时发生异常: " + e.getMessage(), e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 网页存储迁移接口：file://源的导出页交回数据，https源的页面在渲染前取回并导入
+     */
+    private class StorageMigrationInterface {
+
+        @android.webkit.JavascriptInterface
+        public boolean onExported(String json) {
+            try {
+                boolean saved = storageMigration.saveExport(json);
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (exportingStorage && webView != null) {
+                            loadAppPage();
+                        }
+                    }
+                });
+                return saved;
+            } catch (Exception e) {
+                Log.e(TAG, "保存导出的网页存储时发生异常", e);
+                return false;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public String takeExport() {
+            try {
+                return storageMigration.takeExport();
+            } catch (Exception e) {
+                Log.e(TAG, "读取待导入的网页存储时发生异常", e);
+                return "";
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public boolean complete() {
+            try {
+                storageMigration.completeImport();
+                return true;
+            } catch (Exception e) {
+                Log.e(TAG, "完成网页存储迁移时发生异常", e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * JavaScript接口类，用于网页与原生层之间的应用级通知
+     */
+    private class AppInterface {
+
+        @android.webkit.JavascriptInterface
+        public boolean notifyFirstRender() {
+            Log.d(TAG, "JavaScript调用AppBridge.notifyFirstRender");
+
+            try {
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        mainHandler.removeCallbacks(firstPaintTimeout);
+                        StartupTracer.markAndPersist(MainActivity.this, StartupTracer.FIRST_RENDER);
+                        startupOrchestrator.onFirstPaint("web");
+                    }
+                });
+                return true;
+            } catch (Exception e) {
+                Log.e(TAG, "处理首次渲染通知时发生异常: " + e.getMessage(), e);
+                return false;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public String getStartupTimings() {
+            try {
+                return startupOrchestrator.getPhaseTimings();
+            } catch (Exception e) {
+                Log.e(TAG, "获取启动耗时时发生异常", e);
+                return "";
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public String getMetricsSnapshot() {
+            Log.d(TAG, "JavaScript调用AppBridge.getMetricsSnapshot");
+
+            try {
+                return BridgeMetrics.getInstance().getSnapshot();
+            } catch (Exception e) {
+                Log.e(TAG, "获取桥接指标时发生异常", e);
+                return "{}";
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public String getAlarmLatencyStats() {
+            Log.d(TAG, "JavaScript调用AppBridge.getAlarmLatencyStats");
+
+            try {
+                return AlarmLatencyStats.getSnapshot(MainActivity.this);
+            } catch (Exception e) {
+                Log.e(TAG, "获取闹钟延迟统计时发生异常", e);
+                return "{}";
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public String getHibernationStats() {
+            Log.d(TAG, "JavaScript调用AppBridge.getHibernationStats");
+
+            try {
+                return webViewHibernator != null ? webViewHibernator.getStats() : "{}";
+            } catch (Exception e) {
+                Log.e(TAG, "获取休眠统计时发生异常", e);
+                return "{}";
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public boolean setHibernationEnabled(final boolean enabled) {
+            Log.d(TAG, "JavaScript调用AppBridge.setHibernationEnabled: " + enabled);
+
+            try {
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (webViewHibernator != null) {
+                            webViewHibernator.setEnabled(enabled);
+                        }
+                    }
+                });
+                return true;
+            } catch (Exception e) {
+                Log.e(TAG, "设置WebView休眠时发生异常", e);
+                return false;
+            }
+        }
+
+        @android.webkit.JavascriptInterface
+        public String getStartupTraces() {
+            Log.d(TAG, "JavaScript调用AppBridge.getStartupTraces");
+
+            try {
+                return StartupTracer.getTraces(MainActivity.this);
+            } catch (Exception e) {
+                Log.e(TAG, "获取启动记录时发生异常", e);
+                return "[]";
+            }
+        }
     }
 
     /**
@@ -884,24 +1382,43 @@ public class MainActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
 
+        // 取消尚未执行的启动阶段
+        mainHandler.removeCallbacks(firstPaintTimeout);
+        mainHandler.removeCallbacks(storageExportTimeout);
+        if (startupOrchestrator != null) {
+            startupOrchestrator.cancel();
+        }
+
         try {
-            // 停止闹钟
-            if (alarmAudioPlayer != null) {
-                alarmAudioPlayer.stopAlarm();
+            if (PlaybackService.isSessionActive()) {
+                // 睡眠会话由前台播放服务继续保持，只释放WebView
+                Log.d(TAG, "播放服务保持播放，Activity销毁后音频继续");
+            } else {
+                // 停止闹钟和普通音频
+                getAudioEngine().stopAll();
+            }
+            if (playbackServiceBound) {
+                unbindService(playbackConnection);
+                playbackServiceBound = false;
+                playbackService = null;
             }
 
-            // 停止普通音频
-            if (regularAudioPlayer != null) {
-                regularAudioPlayer.stopAudio();
+            // 停止监听屏幕开关，休眠中时恢复JS计时器
+            if (webViewHibernator != null) {
+                webViewHibernator.unregister();
             }
 
-            // 清除TimerReceiver的WebView引用
-            TimerReceiver.clearWebView();
+            // 关闭事件通道
+            NativeEvents.getInstance().unbind();
+
+            // 停止异步桥接线程
+            if (asyncBridge != null) {
+                asyncBridge.shutdown();
+            }
 
-            // 清理WebView
+            // 清理WebView（保留HTTP缓存，下次启动可直接复用）
             if (webView != null) {
                 webView.clearHistory();
-                webView.clearCache(true);
                 webView.loadUrl("about:blank");
                 webView.onPause();
                 webView.removeAllViews();
@@ -914,18 +1431,25 @@ public class MainActivity extends AppCompatActivity {
             Log.e(TAG, "MainActivity销毁过程中发生异常", e);
             // 即使发生异常，也要确保音频停止
             try {
-                if (regularAudioPlayer != null) {
-                    regularAudioPlayer.stopAudio();
-                }
-                if (alarmAudioPlayer != null) {
-                    alarmAudioPlayer.stopAlarm();
-                }
+                getAudioEngine().stopAll();
             } catch (Exception ex) {
                 Log.e(TAG, "强制停止音频时发生异常", ex);
             }
         }
     }
     
+    @Override
+    protected void onStart() {
+        super.onStart();
+        PlaybackService.setClientVisible(true);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        PlaybackService.setClientVisible(false);
+    }
+
     @Override
     protected void onPause() {
         super.onPause();
@@ -935,7 +1459,12 @@ public class MainActivity extends AppCompatActivity {
             webView.onPause();
         }
         
-        Log.d(TAG, "MainActivity已暂停");
+        Log.d(TAG, "MainActivity已暂停，资源缓存统计: " + WebAssetInterceptor.getCacheStats());
+        // 只读取已创建的引擎，没有播放过音频时不为了日志在主线程创建引擎
+        String poolStats = AudioEngine.getPoolStatsIfCreated();
+        if (poolStats != null) {
+            Log.d(TAG, "播放器池统计: " + poolStats);
+        }
     }
     
     @Override
@@ -0,0 +1,64 @@
+package com.sleepmeditation;
+
+import android.content.Context;
+import android.media.AudioManager;
+import android.util.Log;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 媒体音频焦点
+ * 普通音频和环境音混音器共用同一个焦点请求：第一个使用者开始播放时请求，最后一个停止时放弃，
+ * 避免一方停止时把另一方仍在使用的焦点一起放弃
+ *
+ * 只在AudioEngine线程使用
+ */
+final class MediaAudioFocus {
+    private static final String TAG = "MediaAudioFocus";
+
+    private final AudioManager audioManager;
+    private final Set<String> holders = new HashSet<>();
+
+    MediaAudioFocus(Context context) {
+        this.audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+    }
+
+    /**
+     * 登记使用者，没有其他使用者时请求音频焦点
+     * @return 焦点请求结果，已由其他使用者持有时返回AUDIOFOCUS_REQUEST_GRANTED
+     */
+    int acquire(String holder) {
+        if (audioManager == null) {
+            Log.w(TAG, "AudioManager为空，无法请求音频焦点");
+            return AudioManager.AUDIOFOCUS_REQUEST_FAILED;
+        }
+        if (!holders.isEmpty()) {
+            holders.add(holder);
+            return AudioManager.AUDIOFOCUS_REQUEST_GRANTED;
+        }
+        int result = audioManager.requestAudioFocus(
+            null,
+            AudioManager.STREAM_MUSIC,
+            AudioManager.AUDIOFOCUS_GAIN
+        );
+        if (result == AudioManager.AUDIOFOCUS_REQUEST_GRANTED) {
+            holders.add(holder);
+        }
+        Log.d(TAG, "请求音频焦点: " + holder + ", 结果: " + result);
+        return result;
+    }
+
+    /**
+     * 注销使用者，最后一个使用者注销时放弃音频焦点
+     */
+    void release(String holder) {
+        if (!holders.remove(holder) || !holders.isEmpty()) {
+            return;
+        }
+        if (audioManager != null) {
+            audioManager.abandonAudioFocus(null);
+            Log.d(TAG, "已放弃音频焦点: " + holder);
+        }
+    }
+}
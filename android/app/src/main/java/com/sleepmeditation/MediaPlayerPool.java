@@ -0,0 +1,142 @@
+package com.sleepmeditation;
+
+import android.media.AudioAttributes;
+import android.media.MediaPlayer;
+import android.os.Handler;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+
+/**
+ * MediaPlayer对象池
+ * 每次new MediaPlayer()都要在mediaserver中创建原生播放器，耗时几十毫秒；
+ * 播放结束的播放器通过reset()回到初始状态后放回池中，下次播放直接复用
+ *
+ * 每个池对应一种用途（媒体或闹钟），池内播放器的AudioAttributes固定不变
+ * 空闲超过一定时间或内存紧张时释放池内的播放器
+ * 非线程安全，只能在AudioEngine线程上使用
+ */
+public class MediaPlayerPool {
+    private static final String TAG = "MediaPlayerPool";
+    // 每个池最多保留的空闲播放器数量
+    private static final int MAX_IDLE = 2;
+
+    private final String name;
+    private final AudioAttributes attributes;
+    private final Handler handler;
+    private final long idleTimeoutMs;
+    private final ArrayDeque<MediaPlayer> idlePlayers = new ArrayDeque<>();
+
+    // 统计只在引擎线程写入，其他线程读取
+    private volatile long created = 0;
+    private volatile long reused = 0;
+    private volatile long released = 0;
+    private volatile int idleCount = 0;
+
+    private final Runnable releaseIdleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!idlePlayers.isEmpty()) {
+                Log.d(TAG, name + "池空闲超时，释放" + idlePlayers.size() + "个播放器");
+                releaseIdle();
+            }
+        }
+    };
+
+    /**
+     * @param name 池名称，用于日志和统计
+     * @param attributes 池内播放器统一使用的音频属性
+     * @param handler 引擎线程的Handler，用于空闲超时释放
+     * @param idleTimeoutMs 空闲多久后释放池内播放器
+     */
+    public MediaPlayerPool(String name, AudioAttributes attributes, Handler handler, long idleTimeoutMs) {
+        this.name = name;
+        this.attributes = attributes;
+        this.handler = handler;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    /**
+     * 取出一个处于Idle状态且已设置音频属性的播放器
+     */
+    public MediaPlayer acquire() {
+        handler.removeCallbacks(releaseIdleRunnable);
+
+        MediaPlayer player = idlePlayers.pollFirst();
+        if (player != null) {
+            reused++;
+        } else {
+            player = new MediaPlayer();
+            created++;
+        }
+        idleCount = idlePlayers.size();
+        // reset()会清除音频属性，每次取出时重新设置
+        player.setAudioAttributes(attributes);
+        return player;
+    }
+
+    /**
+     * 归还播放器，reset()后放回池中；池已满或reset失败时直接释放
+     */
+    public void recycle(MediaPlayer player) {
+        if (player == null) {
+            return;
+        }
+
+        try {
+            player.setOnCompletionListener(null);
+            player.setOnErrorListener(null);
+            player.setOnPreparedListener(null);
+            player.reset();
+        } catch (Exception e) {
+            Log.w(TAG, name + "池重置播放器失败，直接释放: " + e.getMessage());
+            release(player);
+            return;
+        }
+
+        if (idlePlayers.size() >= MAX_IDLE) {
+            release(player);
+        } else {
+            idlePlayers.addFirst(player);
+            idleCount = idlePlayers.size();
+        }
+
+        handler.removeCallbacks(releaseIdleRunnable);
+        handler.postDelayed(releaseIdleRunnable, idleTimeoutMs);
+    }
+
+    /**
+     * 释放所有空闲播放器，内存紧张时调用
+     */
+    public void releaseIdle() {
+        handler.removeCallbacks(releaseIdleRunnable);
+        while (!idlePlayers.isEmpty()) {
+            release(idlePlayers.pollFirst());
+        }
+        idleCount = 0;
+    }
+
+    private void release(MediaPlayer player) {
+        try {
+            player.release();
+        } catch (Exception e) {
+            Log.w(TAG, name + "池释放播放器失败: " + e.getMessage());
+        }
+        released++;
+    }
+
+    /**
+     * 池内播放器使用的音频属性，AudioTrack等其他播放方式也使用相同的属性
+     */
+    public AudioAttributes getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * 获取统计信息，reused即为节省的播放器创建次数，可在任意线程调用
+     */
+    public String getStats() {
+        return name + ": created=" + created + ", reused=" + reused
+                + ", released=" + released + ", idle=" + idleCount;
+    }
+}
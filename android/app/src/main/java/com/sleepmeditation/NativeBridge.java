@@ -0,0 +1,203 @@
+package com.sleepmeditation;
+
+import android.os.SystemClock;
+import android.util.Log;
+import android.webkit.JavascriptInterface;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 原生模块注册表与批量调用入口
+ * 每个@JavascriptInterface调用都是一次跨线程的反射调用，网页连续调用多个方法时开销叠加
+ * dispatch()接收按顺序排列的一组调用，在一次跨线程调用内依次执行并一次性返回全部结果
+ *
+ * 新的原生模块只需register()到注册表即可被dispatch()和AsyncBridge调用，无需再addJavascriptInterface
+ * 出于安全考虑，只允许调用模块上带有@JavascriptInterface注解的方法
+ * 每次调用的耗时和结果记录到BridgeMetrics
+ *
+ * 批量调用格式：[{"bridge": "RegularAudioBridge", "method": "stopRegularAudio", "args": []}, ...]
+ * 返回格式：[{"ok": true, "result": ...}, ...]，顺序与调用一致，单个调用失败不影响后续调用
+ */
+public class NativeBridge {
+    private static final String TAG = "NativeBridge";
+
+    private final Map<String, Object> modules = new ConcurrentHashMap<>();
+    // 反射查找结果缓存，键为 "模块名.方法名/参数个数"
+    private final Map<String, Method> methodCache = new ConcurrentHashMap<>();
+
+    // 批量调用耗时统计
+    private long batchCount = 0;
+    private long callCount = 0;
+    private long totalBatchNanos = 0;
+    private long maxBatchNanos = 0;
+
+    /**
+     * 注册原生模块，名称即网页端调用时使用的模块名
+     */
+    public void register(String name, Object module) {
+        modules.put(name, module);
+        Log.d(TAG, "已注册原生模块: " + name);
+    }
+
+    /**
+     * 在当前线程上按顺序执行一批调用
+     * @param batchJson JSON数组形式的调用列表
+     * @return JSON数组形式的调用结果
+     */
+    @JavascriptInterface
+    public String dispatch(String batchJson) {
+        try {
+            return dispatchBatch(new JSONArray(batchJson)).toString();
+        } catch (JSONException e) {
+            Log.e(TAG, "解析批量调用失败: " + batchJson, e);
+            return "[]";
+        }
+    }
+
+    /**
+     * 获取批量调用耗时统计，节省的跨线程调用次数 = 调用总数 - 批次数
+     */
+    @JavascriptInterface
+    public synchronized String getBatchStats() {
+        try {
+            JSONObject stats = new JSONObject();
+            stats.put("batches", batchCount);
+            stats.put("calls", callCount);
+            stats.put("savedHops", callCount - batchCount);
+            stats.put("totalMs", totalBatchNanos / 1000000.0);
+            stats.put("avgMs", batchCount > 0 ? totalBatchNanos / 1000000.0 / batchCount : 0);
+            stats.put("maxMs", maxBatchNanos / 1000000.0);
+            return stats.toString();
+        } catch (JSONException e) {
+            Log.e(TAG, "序列化批量调用统计失败", e);
+            return "{}";
+        }
+    }
+
+    JSONArray dispatchBatch(JSONArray batch) throws JSONException {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        JSONArray results = new JSONArray();
+
+        for (int i = 0; i < batch.length(); i++) {
+            JSONObject call = batch.getJSONObject(i);
+            String bridge = call.optString("bridge");
+            String method = call.optString("method");
+            JSONObject result = new JSONObject();
+            try {
+                result.put("ok", true);
+                result.put("result", JSONObject.wrap(invoke(bridge, method, call.optJSONArray("args"))));
+            } catch (Exception e) {
+                Log.e(TAG, "批量调用失败: " + bridge + "." + method, e);
+                result.put("ok", false);
+                result.put("result", e.getMessage() != null ? e.getMessage() : e.toString());
+            }
+            results.put(result);
+        }
+
+        long elapsedNanos = SystemClock.elapsedRealtimeNanos() - startNanos;
+        recordBatch(batch.length(), elapsedNanos);
+        Log.d(TAG, "批量调用完成: " + batch.length() + "个调用, 耗时" + (elapsedNanos / 1000000.0) + "ms");
+        return results;
+    }
+
+    private synchronized void recordBatch(int calls, long elapsedNanos) {
+        batchCount++;
+        callCount += calls;
+        totalBatchNanos += elapsedNanos;
+        maxBatchNanos = Math.max(maxBatchNanos, elapsedNanos);
+    }
+
+    /**
+     * 调用已注册模块的方法
+     */
+    Object invoke(String bridge, String methodName, JSONArray args) throws Exception {
+        Object module = modules.get(bridge);
+        if (module == null) {
+            throw new IllegalArgumentException("未注册的模块: " + bridge);
+        }
+
+        if (args == null) {
+            args = new JSONArray();
+        }
+        Method method = findMethod(bridge, module, methodName, args.length());
+        Class<?>[] types = method.getParameterTypes();
+        Object[] values = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            values[i] = convert(args.get(i), types[i]);
+        }
+
+        // 所有经由注册表的调用（同步批量、异步、异步批量）都自动计入调用指标
+        try (BridgeMetrics.Scope scope = BridgeMetrics.getInstance().start(bridge + "." + methodName)) {
+            try {
+                return method.invoke(module, values);
+            } catch (InvocationTargetException e) {
+                scope.markFailed();
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+    }
+
+    /**
+     * 查找带有@JavascriptInterface注解的同名方法，只允许调用已暴露给JS的方法
+     */
+    private Method findMethod(String bridge, Object module, String name, int argCount) throws NoSuchMethodException {
+        String key = bridge + "." + name + "/" + argCount;
+        Method cached = methodCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        for (Method method : module.getClass().getMethods()) {
+            if (method.getName().equals(name)
+                    && method.getParameterTypes().length == argCount
+                    && method.isAnnotationPresent(JavascriptInterface.class)) {
+                // 模块是MainActivity的私有内部类，需要放开访问检查
+                method.setAccessible(true);
+                methodCache.put(key, method);
+                return method;
+            }
+        }
+        throw new NoSuchMethodException(bridge + "." + name + "(" + argCount + "个参数)");
+    }
+
+    /**
+     * 把JSON参数转换为方法参数类型
+     */
+    private static Object convert(Object value, Class<?> type) throws JSONException {
+        if (value == JSONObject.NULL) {
+            if (type.isPrimitive()) {
+                throw new JSONException("参数不能为null: " + type.getName());
+            }
+            return null;
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            if (value instanceof Boolean) {
+                return value;
+            }
+            return Boolean.parseBoolean(value.toString());
+        }
+
+        Number number = value instanceof Number ? (Number) value : Double.valueOf(value.toString());
+        if (type == int.class || type == Integer.class) {
+            return number.intValue();
+        } else if (type == long.class || type == Long.class) {
+            return number.longValue();
+        } else if (type == float.class || type == Float.class) {
+            return number.floatValue();
+        } else if (type == double.class || type == Double.class) {
+            return number.doubleValue();
+        }
+        throw new JSONException("不支持的参数类型: " + type.getName());
+    }
+}
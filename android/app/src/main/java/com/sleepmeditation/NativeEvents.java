@@ -0,0 +1,224 @@
+package com.sleepmeditation;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.View;
+import android.webkit.WebMessage;
+import android.webkit.WebMessagePort;
+import android.webkit.WebView;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 原生→JS事件通道
+ * 页面加载完成后创建一对WebMessagePort，把其中一端通过postWebMessage交给网页，
+ * 之后原生层的通知（audioCompleted、timerFired、alarmState等）以JSON事件的形式经由该端口发送，
+ * 不再为每个事件拼接并编译一段JS代码
+ *
+ * 事件经主线程Handler发送，同一轮消息循环内产生的事件合并为一条消息；
+ * 页面可见时再借助Choreographer等到下一帧，把同一帧内的事件合并，并以超时兜底。
+ * 熄屏或Activity停止后没有帧回调，此时直接发送，定时结束、音频完成等事件不会积压到亮屏
+ */
+public final class NativeEvents {
+    private static final String TAG = "NativeEvents";
+    private static final String INIT_MESSAGE = "nativeEvents:init";
+    // 页面就绪前最多缓存的事件数
+    private static final int MAX_PENDING_EVENTS = 64;
+    // 等待帧回调的最长时间，超时后不再等待直接发送
+    private static final long FRAME_WAIT_TIMEOUT_MS = 50;
+
+    public static final String AUDIO_COMPLETED = "audioCompleted";
+    public static final String TIMER_FIRED = "timerFired";
+    public static final String ALARM_STATE = "alarmState";
+    public static final String BRIDGE_RESULT = "bridgeResult";
+    public static final String HIBERNATION = "hibernation";
+    public static final String SESSION_SNAPSHOT = "sessionSnapshot";
+
+    private static final NativeEvents instance = new NativeEvents();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<JSONObject> pendingEvents = new ArrayList<>();
+    private WebView webView;
+    private WebMessagePort nativePort;
+    private boolean flushScheduled = false;
+
+    private NativeEvents() {
+    }
+
+    public static NativeEvents getInstance() {
+        return instance;
+    }
+
+    /**
+     * 绑定WebView，此后产生的事件先缓存，等页面加载完成后发送
+     * 需要在主线程调用
+     */
+    public synchronized void bind(WebView webView) {
+        this.webView = webView;
+        pendingEvents.clear();
+    }
+
+    /**
+     * 页面加载完成时创建消息通道并把网页端的端口交给页面
+     * 页面重新加载时旧的端口随旧页面失效，这里重新创建
+     * 需要在主线程调用
+     */
+    public synchronized void onPageReady(WebView view) {
+        if (view != webView) {
+            return;
+        }
+        closePort();
+
+        WebMessagePort[] ports = webView.createWebMessageChannel();
+        nativePort = ports[0];
+        webView.postWebMessage(new WebMessage(INIT_MESSAGE, new WebMessagePort[]{ports[1]}),
+                Uri.parse(WebAssetInterceptor.APP_ORIGIN));
+        Log.d(TAG, "事件通道已建立，待发送事件: " + pendingEvents.size());
+
+        if (!pendingEvents.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * 解除绑定，Activity销毁时调用；之后的事件会被丢弃
+     */
+    public synchronized void unbind() {
+        closePort();
+        webView = null;
+        pendingEvents.clear();
+    }
+
+    /**
+     * 发送事件，可以在任意线程调用
+     * @param type 事件类型
+     * @param payload 事件数据，可以为null
+     */
+    public void emit(String type, JSONObject payload) {
+        JSONObject event = new JSONObject();
+        try {
+            event.put("type", type);
+            event.put("payload", payload != null ? payload : new JSONObject());
+            event.put("time", SystemClock.elapsedRealtime());
+        } catch (JSONException e) {
+            Log.e(TAG, "构造事件失败: " + type, e);
+            return;
+        }
+
+        synchronized (this) {
+            if (webView == null) {
+                Log.w(TAG, "WebView未绑定，丢弃事件: " + type);
+                return;
+            }
+            if (pendingEvents.size() >= MAX_PENDING_EVENTS) {
+                Log.w(TAG, "待发送事件过多，丢弃最早的事件: " + pendingEvents.remove(0).optString("type"));
+            }
+            pendingEvents.add(event);
+            if (nativePort != null) {
+                scheduleFlush();
+            }
+        }
+    }
+
+    /**
+     * 安排在主线程发送，已安排时不重复安排，调用方需持有锁
+     */
+    private void scheduleFlush() {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        mainHandler.post(dispatchFlush);
+    }
+
+    /**
+     * 页面可见时等待下一帧再发送，否则立即发送
+     */
+    private final Runnable dispatchFlush = new Runnable() {
+        @Override
+        public void run() {
+            if (isFramePending()) {
+                Choreographer.getInstance().postFrameCallback(flushCallback);
+                mainHandler.postDelayed(flushTimeout, FRAME_WAIT_TIMEOUT_MS);
+            } else {
+                flush();
+            }
+        }
+    };
+
+    private final Choreographer.FrameCallback flushCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            flush();
+        }
+    };
+
+    private final Runnable flushTimeout = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    /**
+     * WebView所在窗口可见时才会有帧回调，熄屏或Activity停止后窗口不可见
+     */
+    private synchronized boolean isFramePending() {
+        return webView != null && webView.getWindowVisibility() == View.VISIBLE && webView.isShown();
+    }
+
+    private synchronized void flush() {
+        // 帧回调和超时只需要其中一个生效
+        mainHandler.removeCallbacks(flushTimeout);
+        Choreographer.getInstance().removeFrameCallback(flushCallback);
+        flushScheduled = false;
+        if (nativePort == null || pendingEvents.isEmpty()) {
+            return;
+        }
+
+        JSONArray batch = new JSONArray();
+        for (JSONObject event : pendingEvents) {
+            batch.put(event);
+        }
+        pendingEvents.clear();
+
+        try {
+            nativePort.postMessage(new WebMessage(batch.toString()));
+        } catch (Exception e) {
+            Log.e(TAG, "发送事件失败", e);
+        }
+    }
+
+    private void closePort() {
+        if (nativePort != null) {
+            try {
+                nativePort.close();
+            } catch (Exception e) {
+                Log.w(TAG, "关闭事件端口失败: " + e.getMessage());
+            }
+            nativePort = null;
+        }
+    }
+
+    /**
+     * 便捷方法：构造只有一个字段的事件数据
+     */
+    public static JSONObject payload(String key, Object value) {
+        JSONObject payload = new JSONObject();
+        try {
+            payload.put(key, value);
+        } catch (JSONException e) {
+            Log.e(TAG, "构造事件数据失败: " + key, e);
+        }
+        return payload;
+    }
+}
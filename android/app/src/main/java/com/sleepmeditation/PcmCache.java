@@ -0,0 +1,261 @@
+package com.sleepmeditation;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 解码后PCM的磁盘缓存
+ * 以资源内容哈希加输出格式为键，在getCacheDir()/pcm下每个音频保存一个文件，播放时直接内存映射，
+ * 启动无缝循环或闹钟时不再需要从APK中重新解码mp3
+ *
+ * 文件由后台线程写入临时文件后重命名，读取方只会看到完整的文件；
+ * 命中时更新文件修改时间，总大小超过上限时按修改时间淘汰最久未使用的文件
+ */
+public class PcmCache {
+    private static final String TAG = "PcmCache";
+    private static final String DIR_NAME = "pcm";
+    private static final String SUFFIX = ".pcm";
+    // 输出格式和解码规则（去除编码器延迟和填充）变化时修改，旧文件自动失效
+    private static final String FORMAT = "s16le-trimmed-v1";
+    private static final int MAGIC = 0x314D4350; // "PCM1"
+    private static final int HEADER_BYTES = 16;
+    private static final long DEFAULT_MAX_BYTES = 96L * 1024 * 1024;
+
+    private static PcmCache instance;
+
+    private final File directory;
+    private final long maxBytes;
+    private final ExecutorService writer;
+
+    private volatile long hits = 0;
+    private volatile long misses = 0;
+    private volatile long writes = 0;
+
+    PcmCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "PcmCache");
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    public static synchronized PcmCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new PcmCache(new File(context.getCacheDir(), DIR_NAME), DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * 根据音频来源标识（如资源哈希）和输出格式生成缓存键
+     */
+    public static String key(String sourceId) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest((sourceId + "|" + FORMAT).getBytes("UTF-8"));
+            StringBuilder builder = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                builder.append(String.format("%02x", b & 0xFF));
+            }
+            return builder.toString();
+        } catch (Exception e) {
+            // SHA-1在所有设备上都可用，这里只是兜底
+            return Integer.toHexString((sourceId + "|" + FORMAT).hashCode());
+        }
+    }
+
+    /**
+     * 内存映射已缓存的PCM
+     * @return 未缓存或文件损坏时返回null
+     */
+    public PcmDecoder.Pcm get(String key) {
+        File file = new File(directory, key + SUFFIX);
+        if (!file.isFile()) {
+            misses++;
+            return null;
+        }
+
+        long startedAt = System.nanoTime();
+        try (FileInputStream input = new FileInputStream(file)) {
+            FileChannel channel = input.getChannel();
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            int magic = mapped.getInt(0);
+            int sampleRate = mapped.getInt(4);
+            int channelCount = mapped.getInt(8);
+            int dataBytes = mapped.getInt(12);
+            if (magic != MAGIC || dataBytes != mapped.capacity() - HEADER_BYTES) {
+                Log.w(TAG, "缓存文件损坏，删除: " + file.getName());
+                file.delete();
+                misses++;
+                return null;
+            }
+
+            mapped.position(HEADER_BYTES);
+            ByteBuffer data = mapped.slice().order(ByteOrder.LITTLE_ENDIAN);
+            // 更新修改时间用于LRU淘汰
+            file.setLastModified(System.currentTimeMillis());
+            hits++;
+            PcmDecoder.Pcm pcm = new PcmDecoder.Pcm(data, sampleRate, channelCount);
+            Log.d(TAG, "命中PCM缓存: " + key + ", " + pcm.getDurationMs() + "ms, 映射耗时"
+                    + (System.nanoTime() - startedAt) / 1000000.0 + "ms");
+            return pcm;
+        } catch (IOException e) {
+            Log.w(TAG, "映射缓存文件失败: " + file.getName() + ", " + e.getMessage());
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * 在后台线程写入缓存，已存在时跳过
+     */
+    public void putAsync(final String key, final PcmDecoder.Pcm pcm) {
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                write(key, pcm);
+            }
+        });
+    }
+
+    /**
+     * 在后台线程解码并写入缓存，已缓存时跳过；用于在真正播放前预热
+     */
+    public void prefetch(final String key, final AudioAssets assets, final String audioFileName) {
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (new File(directory, key + SUFFIX).isFile()) {
+                    return;
+                }
+                PcmDecoder.Pcm pcm = assets.decodeUncached(audioFileName);
+                if (pcm != null) {
+                    write(key, pcm);
+                }
+            }
+        });
+    }
+
+    private void write(String key, PcmDecoder.Pcm pcm) {
+        File file = new File(directory, key + SUFFIX);
+        if (file.isFile()) {
+            return;
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.w(TAG, "无法创建缓存目录: " + directory);
+            return;
+        }
+
+        File temp = new File(directory, key + ".tmp");
+        ByteBuffer data = pcm.data.duplicate();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(pcm.sampleRate).putInt(pcm.channelCount).putInt(data.remaining());
+        header.flip();
+
+        try (FileOutputStream output = new FileOutputStream(temp)) {
+            FileChannel channel = output.getChannel();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "写入PCM缓存失败: " + key + ", " + e.getMessage());
+            temp.delete();
+            return;
+        }
+
+        if (!temp.renameTo(file)) {
+            Log.w(TAG, "重命名PCM缓存文件失败: " + key);
+            temp.delete();
+            return;
+        }
+        writes++;
+        Log.d(TAG, "已写入PCM缓存: " + key + ", " + file.length() + "字节");
+        trimToSize();
+    }
+
+    /**
+     * 总大小超过上限时删除最久未使用的文件
+     */
+    private void trimToSize() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (File file : files) {
+            if (total <= maxBytes) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+                Log.d(TAG, "淘汰PCM缓存: " + file.getName());
+            }
+        }
+    }
+
+    /**
+     * 清空缓存，内存紧张时调用
+     * 已映射的文件在删除后仍可继续读取，正在播放的音频不受影响
+     */
+    public void purge() {
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                File[] files = directory.listFiles();
+                if (files == null) {
+                    return;
+                }
+                for (File file : files) {
+                    file.delete();
+                }
+                Log.d(TAG, "已清空PCM缓存: " + files.length + "个文件");
+            }
+        });
+    }
+
+    /**
+     * 获取统计信息，可在任意线程调用
+     */
+    public String getStats() {
+        return "pcmCache: hits=" + hits + ", misses=" + misses + ", writes=" + writes;
+    }
+}
@@ -0,0 +1,200 @@
+package com.sleepmeditation;
+
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.util.Log;
+
+import java.io.FileDescriptor;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 把压缩音频（如mp3）一次性解码为16位PCM
+ * 使用MediaExtractor读取压缩帧、MediaCodec解码，并按照容器中记录的encoder-delay和encoder-padding
+ * 去掉编码器在开头和结尾补的静音，使解码结果可以首尾相接无缝循环
+ */
+public final class PcmDecoder {
+    private static final String TAG = "PcmDecoder";
+    private static final long TIMEOUT_US = 10000;
+    private static final int BYTES_PER_SAMPLE = 2;
+    // 解码结果的最大字节数（约4.5分钟的44.1kHz立体声），更长的音频仍然使用MediaPlayer
+    static final int MAX_PCM_BYTES = 48 * 1024 * 1024;
+
+    private PcmDecoder() {
+    }
+
+    /**
+     * 解码后的PCM数据，按帧交错存储的16位小端样本
+     */
+    public static final class Pcm {
+        public final ByteBuffer data;
+        public final int sampleRate;
+        public final int channelCount;
+
+        Pcm(ByteBuffer data, int sampleRate, int channelCount) {
+            this.data = data;
+            this.sampleRate = sampleRate;
+            this.channelCount = channelCount;
+        }
+
+        public int getFrameCount() {
+            return data.remaining() / (channelCount * BYTES_PER_SAMPLE);
+        }
+
+        public long getDurationMs() {
+            return getFrameCount() * 1000L / sampleRate;
+        }
+    }
+
+    /**
+     * 解码文件中的一段数据（例如assets中未压缩存储的音频）
+     * @return 解码结果，格式不支持、超出大小限制或解码失败时返回null
+     */
+    public static Pcm decode(FileDescriptor fd, long offset, long length) {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec codec = null;
+        long startedAt = System.nanoTime();
+
+        try {
+            extractor.setDataSource(fd, offset, length);
+
+            MediaFormat format = null;
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                MediaFormat trackFormat = extractor.getTrackFormat(i);
+                String mime = trackFormat.getString(MediaFormat.KEY_MIME);
+                if (mime != null && mime.startsWith("audio/")) {
+                    extractor.selectTrack(i);
+                    format = trackFormat;
+                    break;
+                }
+            }
+            if (format == null) {
+                Log.w(TAG, "找不到音频轨道");
+                return null;
+            }
+
+            int sampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+            int channelCount = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+            int encoderDelay = getInteger(format, "encoder-delay");
+            int encoderPadding = getInteger(format, "encoder-padding");
+
+            ByteBuffer output = ByteBuffer.allocateDirect(estimateBytes(format, sampleRate, channelCount))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+
+            codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            codec.configure(format, null, null, 0);
+            codec.start();
+
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            boolean inputDone = false;
+            boolean outputDone = false;
+
+            while (!outputDone) {
+                if (!inputDone) {
+                    int inputIndex = codec.dequeueInputBuffer(TIMEOUT_US);
+                    if (inputIndex >= 0) {
+                        ByteBuffer inputBuffer = codec.getInputBuffer(inputIndex);
+                        int size = extractor.readSampleData(inputBuffer, 0);
+                        if (size < 0) {
+                            codec.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            codec.queueInputBuffer(inputIndex, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+
+                int outputIndex = codec.dequeueOutputBuffer(info, TIMEOUT_US);
+                if (outputIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    MediaFormat outputFormat = codec.getOutputFormat();
+                    sampleRate = outputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+                    channelCount = outputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                } else if (outputIndex >= 0) {
+                    if (info.size > 0) {
+                        ByteBuffer outputBuffer = codec.getOutputBuffer(outputIndex);
+                        outputBuffer.position(info.offset);
+                        outputBuffer.limit(info.offset + info.size);
+                        output = ensureCapacity(output, info.size);
+                        if (output == null) {
+                            Log.w(TAG, "解码结果超过" + MAX_PCM_BYTES + "字节，放弃解码");
+                            return null;
+                        }
+                        output.put(outputBuffer);
+                    }
+                    codec.releaseOutputBuffer(outputIndex, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                        outputDone = true;
+                    }
+                }
+            }
+
+            if (channelCount < 1 || channelCount > 2) {
+                Log.w(TAG, "不支持的声道数: " + channelCount);
+                return null;
+            }
+
+            // 去掉编码器补的开头和结尾静音
+            int frameBytes = channelCount * BYTES_PER_SAMPLE;
+            int totalBytes = output.position();
+            int start = Math.min(totalBytes, encoderDelay * frameBytes);
+            int end = Math.max(start, totalBytes - encoderPadding * frameBytes);
+            end -= (end - start) % frameBytes;
+
+            output.position(start);
+            output.limit(end);
+            Pcm pcm = new Pcm(output.slice().order(ByteOrder.LITTLE_ENDIAN), sampleRate, channelCount);
+
+            Log.d(TAG, "解码完成: " + pcm.getDurationMs() + "ms, " + sampleRate + "Hz, " + channelCount
+                    + "声道, 去除开头" + encoderDelay + "帧/结尾" + encoderPadding + "帧, 耗时"
+                    + (System.nanoTime() - startedAt) / 1000000 + "ms");
+            return pcm;
+        } catch (Exception e) {
+            Log.e(TAG, "解码音频失败", e);
+            return null;
+        } finally {
+            if (codec != null) {
+                try {
+                    codec.stop();
+                } catch (Exception e) {
+                    Log.w(TAG, "停止解码器失败: " + e.getMessage());
+                }
+                codec.release();
+            }
+            extractor.release();
+        }
+    }
+
+    private static int getInteger(MediaFormat format, String key) {
+        return format.containsKey(key) ? format.getInteger(key) : 0;
+    }
+
+    /**
+     * 根据时长预估解码后的大小，避免解码过程中反复扩容
+     */
+    private static int estimateBytes(MediaFormat format, int sampleRate, int channelCount) {
+        if (!format.containsKey(MediaFormat.KEY_DURATION)) {
+            return 1024 * 1024;
+        }
+        long durationUs = format.getLong(MediaFormat.KEY_DURATION);
+        long bytes = durationUs * sampleRate / 1000000L * channelCount * BYTES_PER_SAMPLE;
+        // 多留一点余量给解码器输出的额外帧
+        return (int) Math.min(MAX_PCM_BYTES, bytes + 64 * 1024);
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int extra) {
+        if (buffer.remaining() >= extra) {
+            return buffer;
+        }
+        long required = (long) buffer.position() + extra;
+        if (required > MAX_PCM_BYTES) {
+            return null;
+        }
+        int capacity = (int) Math.min(MAX_PCM_BYTES, Math.max(required, buffer.capacity() * 3L / 2));
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+}
@@ -0,0 +1,142 @@
+package com.sleepmeditation;
+
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioTrack;
+import android.os.Process;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 无缝循环播放器
+ * 把PcmDecoder解码得到的整段PCM用流模式的AudioTrack首尾相接地反复写入，
+ * 循环点之间没有seek，也不需要重复解码，适合睡眠期间连续播放数小时的背景音乐
+ *
+ * 写入在独立线程上进行，write()在缓冲区满时阻塞，CPU占用只有内存拷贝
+ */
+public class PcmLoopPlayer {
+    private static final String TAG = "PcmLoopPlayer";
+    // 每次写入的最大字节数
+    private static final int CHUNK_BYTES = 16 * 1024;
+
+    private final PcmDecoder.Pcm pcm;
+    private final AudioTrack audioTrack;
+    private volatile boolean running = false;
+    private volatile boolean paused = false;
+    private Thread writerThread;
+    private long loopCount = 0;
+
+    public PcmLoopPlayer(PcmDecoder.Pcm pcm, AudioAttributes attributes, float volume) {
+        this.pcm = pcm;
+
+        int channelMask = pcm.channelCount == 1 ? AudioFormat.CHANNEL_OUT_MONO : AudioFormat.CHANNEL_OUT_STEREO;
+        int minBufferSize = AudioTrack.getMinBufferSize(pcm.sampleRate, channelMask, AudioFormat.ENCODING_PCM_16BIT);
+        this.audioTrack = new AudioTrack.Builder()
+                .setAudioAttributes(attributes)
+                .setAudioFormat(new AudioFormat.Builder()
+                        .setSampleRate(pcm.sampleRate)
+                        .setChannelMask(channelMask)
+                        .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+                        .build())
+                .setBufferSizeInBytes(Math.max(minBufferSize * 4, CHUNK_BYTES * 2))
+                .setTransferMode(AudioTrack.MODE_STREAM)
+                .build();
+        this.audioTrack.setVolume(volume);
+    }
+
+    /**
+     * 开始循环播放
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        audioTrack.play();
+
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                // Thread.setPriority只影响Java层的优先级，音频线程需要设置Linux nice值
+                Process.setThreadPriority(Process.THREAD_PRIORITY_AUDIO);
+                writeLoop();
+            }
+        }, "PcmLoopPlayer");
+        writerThread.start();
+        Log.d(TAG, "开始无缝循环播放: " + pcm.getDurationMs() + "ms/次");
+    }
+
+    private void writeLoop() {
+        // 整个循环复用同一个视图，只移动position和limit，写入时不分配对象
+        ByteBuffer chunk = pcm.data.duplicate();
+        int length = chunk.limit();
+        int position = 0;
+        while (running) {
+            if (position >= length) {
+                // 回到开头继续写，样本首尾相接
+                position = 0;
+                loopCount++;
+            }
+
+            int size = Math.min(CHUNK_BYTES, length - position);
+            chunk.limit(position + size);
+            chunk.position(position);
+            int written = audioTrack.write(chunk, size, AudioTrack.WRITE_BLOCKING);
+            if (written < 0) {
+                Log.e(TAG, "写入AudioTrack失败: " + written);
+                break;
+            }
+            position += written;
+        }
+        Log.d(TAG, "写入线程结束，共循环" + loopCount + "次");
+    }
+
+    public void pause() {
+        if (running && !paused) {
+            paused = true;
+            audioTrack.pause();
+        }
+    }
+
+    public void resume() {
+        if (running && paused) {
+            paused = false;
+            audioTrack.play();
+        }
+    }
+
+    public void setVolume(float volume) {
+        audioTrack.setVolume(volume);
+    }
+
+    public boolean isPlaying() {
+        return running && !paused;
+    }
+
+    /**
+     * 停止播放并释放AudioTrack
+     */
+    public void release() {
+        running = false;
+        try {
+            // stop()会让阻塞中的write()返回
+            audioTrack.pause();
+            audioTrack.flush();
+            audioTrack.stop();
+        } catch (IllegalStateException e) {
+            Log.w(TAG, "停止AudioTrack失败: " + e.getMessage());
+        }
+
+        if (writerThread != null) {
+            try {
+                writerThread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writerThread = null;
+        }
+        audioTrack.release();
+        Log.d(TAG, "无缝循环播放已停止");
+    }
+}
@@ -0,0 +1,90 @@
+package com.sleepmeditation;
+
+/**
+ * 定长的16位PCM环形缓冲区
+ * 单生产者单消费者：一个线程只调用write，另一个线程只调用read，无需加锁
+ * 读写位置单调递增，volatile保证另一端能看到已写入的样本；读写都不分配内存
+ */
+public class PcmRingBuffer {
+    private final short[] samples;
+    private final int mask;
+    // 已写入和已读取的样本总数
+    private volatile long writePosition = 0;
+    private volatile long readPosition = 0;
+
+    /**
+     * @param capacity 容量（样本数），向上取整为2的幂
+     */
+    public PcmRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.samples = new short[size];
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return samples.length;
+    }
+
+    /**
+     * 可读的样本数
+     */
+    public int available() {
+        return (int) (writePosition - readPosition);
+    }
+
+    /**
+     * 可写的样本数
+     */
+    public int free() {
+        return samples.length - available();
+    }
+
+    /**
+     * 写入尽可能多的样本，缓冲区满时只写入一部分
+     * @return 实际写入的样本数
+     */
+    public int write(short[] source, int offset, int length) {
+        long position = writePosition;
+        int count = Math.min(length, samples.length - (int) (position - readPosition));
+        for (int i = 0; i < count; i++) {
+            samples[(int) (position + i) & mask] = source[offset + i];
+        }
+        writePosition = position + count;
+        return count;
+    }
+
+    /**
+     * 写入单个样本
+     * @return 缓冲区已满时返回false
+     */
+    public boolean put(short sample) {
+        long position = writePosition;
+        if (position - readPosition >= samples.length) {
+            return false;
+        }
+        samples[(int) position & mask] = sample;
+        writePosition = position + 1;
+        return true;
+    }
+
+    /**
+     * 读取尽可能多的样本，缓冲区中样本不足时只读取一部分
+     * @return 实际读取的样本数
+     */
+    public int read(short[] target, int offset, int length) {
+        long position = readPosition;
+        int count = Math.min(length, (int) (writePosition - position));
+        for (int i = 0; i < count; i++) {
+            target[offset + i] = samples[(int) (position + i) & mask];
+        }
+        readPosition = position + count;
+        return count;
+    }
+
+    /**
+     * 丢弃所有未读样本，只能在消费者线程调用
+     */
+    public void clear() {
+        readPosition = writePosition;
+    }
+}
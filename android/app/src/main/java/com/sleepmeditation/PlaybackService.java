@@ -0,0 +1,319 @@
+package com.sleepmeditation;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.Intent;
+import android.content.pm.ServiceInfo;
+import android.media.MediaMetadata;
+import android.media.session.MediaSession;
+import android.media.session.PlaybackState;
+import android.os.Binder;
+import android.os.Build;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.util.Log;
+
+/**
+ * 睡眠播放服务
+ * 前台服务（mediaPlayback类型），持有音频引擎和MediaSession；MainActivity只作为客户端绑定
+ * 睡眠会话期间即使Activity和WebView被回收，背景音乐和环境音仍由本服务保持播放
+ *
+ * 服务在绑定时创建，音频开始播放后转为前台服务并显示媒体通知，会话结束后退出前台并停止
+ * Android 12起后台不能启动前台服务，只在界面可见时开始的播放才转为前台；界面不可见时开始的播放
+ * 无法保持，暂停普通音频、停止环境音
+ */
+public class PlaybackService extends Service {
+    private static final String TAG = "PlaybackService";
+    private static final String CHANNEL_ID = "PlaybackChannel";
+    private static final int NOTIFICATION_ID = 2;
+    private static final String ACTION_START = "com.sleepmeditation.PLAYBACK_START";
+    private static final String ACTION_STOP = "com.sleepmeditation.PLAYBACK_STOP";
+
+    // 进程内是否存在前台播放会话，Activity销毁时据此决定是否停止音频
+    private static volatile boolean sessionActive = false;
+    // 界面是否对用户可见，由MainActivity在onStart/onStop时设置
+    private static volatile boolean clientVisible = false;
+
+    private final IBinder binder = new LocalBinder();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private AudioEngine audioEngine;
+    private MediaSession mediaSession;
+    private boolean foreground = false;
+
+    /**
+     * 绑定到服务的客户端通过该Binder获取音频引擎
+     */
+    public class LocalBinder extends Binder {
+        public PlaybackService getService() {
+            return PlaybackService.this;
+        }
+    }
+
+    public static boolean isSessionActive() {
+        return sessionActive;
+    }
+
+    /**
+     * 设置界面是否可见，只有界面可见时开始的播放才转为前台服务
+     */
+    public static void setClientVisible(boolean visible) {
+        clientVisible = visible;
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        Log.d(TAG, "PlaybackService创建");
+
+        createNotificationChannel();
+        audioEngine = AudioEngine.getInstance(this);
+
+        mediaSession = new MediaSession(this, TAG);
+        mediaSession.setCallback(new MediaSession.Callback() {
+            @Override
+            public void onPlay() {
+                audioEngine.resumeRegular();
+            }
+
+            @Override
+            public void onPause() {
+                audioEngine.pauseRegular();
+            }
+
+            @Override
+            public void onStop() {
+                stopSession();
+            }
+        });
+
+        audioEngine.setStateListener(new AudioEngine.StateListener() {
+            @Override
+            public void onStateChanged(final AudioEngine.State state) {
+                // 引擎线程回调，切到主线程处理前台状态和MediaSession
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onEngineStateChanged(state);
+                    }
+                });
+            }
+        });
+    }
+
+    public AudioEngine getAudioEngine() {
+        return audioEngine;
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        Log.d(TAG, "客户端已绑定");
+        return binder;
+    }
+
+    @Override
+    public boolean onUnbind(Intent intent) {
+        Log.d(TAG, "客户端已解绑，前台播放: " + foreground);
+        return false;
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        String action = intent != null ? intent.getAction() : null;
+        Log.d(TAG, "PlaybackService启动: " + action);
+
+        if (ACTION_STOP.equals(action)) {
+            stopSession();
+            return START_NOT_STICKY;
+        }
+
+        // startForegroundService之后必须尽快调用startForeground
+        enterForeground(audioEngine.getState());
+        return START_NOT_STICKY;
+    }
+
+    private void onEngineStateChanged(AudioEngine.State state) {
+        updateMediaSession(state);
+
+        if (state.hasSession() && !foreground && (state.regularPlaying || state.ambientPlaying)) {
+            // 暂停中的会话不需要转为前台，也避免暂停后再次请求
+            if (!requestForeground()) {
+                pauseSession();
+            }
+        } else if (!state.hasSession() && foreground) {
+            exitForeground();
+        } else if (foreground) {
+            NotificationManager notificationManager = getSystemService(NotificationManager.class);
+            if (notificationManager != null) {
+                notificationManager.notify(NOTIFICATION_ID, createNotification(state));
+            }
+        }
+    }
+
+    /**
+     * 请求转为前台服务
+     * @return 界面不可见（Android 12起）或系统不允许从后台启动前台服务时返回false
+     */
+    private boolean requestForeground() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && !clientVisible) {
+            Log.w(TAG, "界面不可见，不能从后台转为前台播放");
+            return false;
+        }
+        Intent intent = new Intent(this, PlaybackService.class).setAction(ACTION_START);
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                startForegroundService(intent);
+            } else {
+                startService(intent);
+            }
+            return true;
+        } catch (IllegalStateException e) {
+            // Android 12起为ForegroundServiceStartNotAllowedException，更早版本为后台启动服务的限制
+            Log.w(TAG, "无法启动前台播放服务: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 不能转为前台时不保持播放：普通音频暂停，环境音停止
+     */
+    private void pauseSession() {
+        Log.d(TAG, "未能转为前台播放，暂停睡眠播放会话");
+        audioEngine.pauseRegular();
+        audioEngine.stopAmbient();
+    }
+
+    private void enterForeground(AudioEngine.State state) {
+        Notification notification = createNotification(state);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            startForeground(NOTIFICATION_ID, notification, ServiceInfo.FOREGROUND_SERVICE_TYPE_MEDIA_PLAYBACK);
+        } else {
+            startForeground(NOTIFICATION_ID, notification);
+        }
+        foreground = true;
+        sessionActive = true;
+        mediaSession.setActive(true);
+        updateMediaSession(state);
+        Log.d(TAG, "进入前台播放");
+
+        if (!state.hasSession()) {
+            // 启动请求发出后会话已经结束
+            exitForeground();
+        }
+    }
+
+    private void exitForeground() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            stopForeground(STOP_FOREGROUND_REMOVE);
+        } else {
+            stopForeground(true);
+        }
+        foreground = false;
+        sessionActive = false;
+        mediaSession.setActive(false);
+        // 仍有客户端绑定时服务继续存在，否则随之销毁
+        stopSelf();
+        Log.d(TAG, "退出前台播放");
+    }
+
+    /**
+     * 结束睡眠会话：停止普通音频和环境音，闹钟由AlarmService负责
+     */
+    private void stopSession() {
+        Log.d(TAG, "停止睡眠播放会话");
+        audioEngine.stopRegular();
+        audioEngine.stopAmbient();
+    }
+
+    private void updateMediaSession(AudioEngine.State state) {
+        int playbackState;
+        if (state.regularPlaying || state.ambientPlaying) {
+            playbackState = PlaybackState.STATE_PLAYING;
+        } else if (state.regularFile != null) {
+            playbackState = PlaybackState.STATE_PAUSED;
+        } else {
+            playbackState = PlaybackState.STATE_STOPPED;
+        }
+
+        mediaSession.setPlaybackState(new PlaybackState.Builder()
+                .setActions(PlaybackState.ACTION_PLAY | PlaybackState.ACTION_PAUSE
+                        | PlaybackState.ACTION_PLAY_PAUSE | PlaybackState.ACTION_STOP)
+                .setState(playbackState, PlaybackState.PLAYBACK_POSITION_UNKNOWN, 1f)
+                .build());
+        mediaSession.setMetadata(new MediaMetadata.Builder()
+                .putString(MediaMetadata.METADATA_KEY_TITLE, getString(R.string.app_name))
+                .putString(MediaMetadata.METADATA_KEY_ARTIST, state.regularFile != null ? state.regularFile : "环境音")
+                .build());
+    }
+
+    /**
+     * 创建通知渠道
+     */
+    private void createNotificationChannel() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(
+                CHANNEL_ID,
+                "睡眠播放",
+                NotificationManager.IMPORTANCE_LOW
+            );
+            channel.setDescription("睡眠冥想背景音乐播放");
+            channel.setSound(null, null);
+
+            NotificationManager notificationManager = getSystemService(NotificationManager.class);
+            if (notificationManager != null) {
+                notificationManager.createNotificationChannel(channel);
+            }
+        }
+    }
+
+    /**
+     * 创建媒体通知
+     */
+    private Notification createNotification(AudioEngine.State state) {
+        Intent notificationIntent = new Intent(this, MainActivity.class);
+        notificationIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        PendingIntent contentIntent = PendingIntent.getActivity(
+            this,
+            0,
+            notificationIntent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        Intent stopIntent = new Intent(this, PlaybackService.class).setAction(ACTION_STOP);
+        PendingIntent stopPendingIntent = PendingIntent.getService(
+            this,
+            0,
+            stopIntent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        Notification.Builder builder = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                ? new Notification.Builder(this, CHANNEL_ID)
+                : new Notification.Builder(this);
+        return builder
+            .setContentTitle(getString(R.string.app_name))
+            .setContentText(state.regularPlaying || state.ambientPlaying ? "正在播放" : "已暂停")
+            .setSmallIcon(android.R.drawable.ic_media_play)
+            .setContentIntent(contentIntent)
+            .setOngoing(true)
+            .setVisibility(Notification.VISIBILITY_PUBLIC)
+            .addAction(new Notification.Action.Builder(android.R.drawable.ic_delete, "停止", stopPendingIntent).build())
+            .setStyle(new Notification.MediaStyle()
+                .setMediaSession(mediaSession.getSessionToken())
+                .setShowActionsInCompactView(0))
+            .build();
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        Log.d(TAG, "PlaybackService销毁");
+        audioEngine.setStateListener(null);
+        mainHandler.removeCallbacksAndMessages(null);
+        sessionActive = false;
+        mediaSession.release();
+    }
+}
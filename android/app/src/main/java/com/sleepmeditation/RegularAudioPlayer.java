@@ -1,9 +1,11 @@
 package com.sleepmeditation;
 
 import android.content.Context;
-import android.media.AudioAttributes;
+import android.content.res.AssetFileDescriptor;
 import android.media.AudioManager;
 import android.media.MediaPlayer;
+import android.os.Handler;
+import android.os.SystemClock;
 import android.util.Log;
 
 import java.io.IOException;
@@ -11,15 +13,58 @@ import java.io.IOException;
 /**
  * 普通音频播放器
  * 负责播放应用内的音频文件（如1.mp3, 2.mp3等）
+ * 非线程安全，只能在AudioEngine线程上使用
  */
 public class RegularAudioPlayer {
     private static final String TAG = "RegularAudioPlayer";
     
     private Context context;
     private MediaPlayer mediaPlayer;
-    private AudioManager audioManager;
-    private boolean isPlaying = false;
+    // 无缝循环模式下代替mediaPlayer播放
+    private PcmLoopPlayer pcmLoopPlayer;
+    // 与环境音混音器共用的音频焦点
+    private final MediaAudioFocus audioFocus;
     private OnAudioCompletionListener completionListener;
+    private Runnable stateChangedListener;
+    private final AudioAssets audioAssets;
+    private final MediaPlayerPool playerPool;
+    private final Handler handler;
+    private String currentFile;
+    private float currentVolume;
+
+    // 预加载的下一首
+    private MediaPlayer nextPlayer;
+    private String nextFile;
+    private boolean nextLoop;
+    private boolean nextPrepared = false;
+    // 下一首使用无缝循环模式时预先解码好的PCM
+    private PcmDecoder.Pcm nextPcm;
+    private float nextVolume;
+    // 当前音频已结束但下一首还未准备完成
+    private boolean waitingForNext = false;
+    // 当前播放器是由预加载切换而来，还未被playAudio确认
+    private boolean handedOff = false;
+    // 上一首结束的时间，用于统计切换间隔
+    private long lastCompletionAt = 0;
+
+    // 交叉淡化时长，0表示不淡化，直接无缝切换
+    private long crossfadeMs = 0;
+    // 已安排或正在进行的交叉淡化
+    private Crossfader crossfader;
+    private boolean crossfading = false;
+    // 交叉淡化时淡入的无缝循环播放器
+    private PcmLoopPlayer nextPcmPlayer;
+
+    // 无缝循环的PCM未缓存时先用MediaPlayer循环播放，后台解码完成后在当前一遍结束时切换到AudioTrack
+    private PcmDecoder.Pcm loopPcm;
+    // 当前播放器和预加载的下一首各自的标记，后台解码结果只交给发起时的播放器；
+    // 下一首开始播放时标记随之转给当前播放器，播放器被回收后到达的结果被丢弃
+    private Object playToken = new Object();
+    private Object nextToken = new Object();
+
+    // 切换间隔记录到BridgeMetrics，与桥接方法指标一起在getMetricsSnapshot中查看
+    static final String PREFETCHED_GAP_METRIC = "RegularAudioPlayer.transitionGap.prefetched";
+    static final String COLD_GAP_METRIC = "RegularAudioPlayer.transitionGap.cold";
     
     /**
      * 音频播放完成回调接口
@@ -35,9 +80,23 @@ public class RegularAudioPlayer {
         this.completionListener = listener;
     }
 
-    public RegularAudioPlayer(Context context) {
+    /**
+     * 设置播放器在命令之外发生切换时的回调（例如预加载的下一首开始播放）
+     */
+    public void setOnStateChangedListener(Runnable listener) {
+        this.stateChangedListener = listener;
+    }
+
+    /**
+     * @param handler 引擎线程的Handler，交叉淡化的开始和结束回到该线程处理
+     */
+    public RegularAudioPlayer(Context context, MediaPlayerPool playerPool, Handler handler,
+                              MediaAudioFocus audioFocus) {
         this.context = context;
-        this.audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+        this.playerPool = playerPool;
+        this.handler = handler;
+        this.audioFocus = audioFocus;
+        this.audioAssets = new AudioAssets(context);
         Log.d(TAG, "RegularAudioPlayer已初始化");
     }
     
@@ -49,8 +108,53 @@ public class RegularAudioPlayer {
      * @return 播放是否成功
      */
     public boolean playAudio(final String audioFileName, float volume, boolean loop) {
+        return playAudio(audioFileName, volume, loop, false);
+    }
+
+    /**
+     * 播放音频文件
+     * @param pcmLoop 循环播放时是否使用无缝循环模式（解码为PCM后由AudioTrack首尾相接播放）；
+     *                PCM未缓存时先用MediaPlayer循环播放，后台解码完成后在当前一遍结束时切换，
+     *                解码失败时继续使用MediaPlayer
+     */
+    public boolean playAudio(final String audioFileName, float volume, boolean loop, boolean pcmLoop) {
         try {
-            Log.d(TAG, "开始播放音频: " + audioFileName + ", 音量: " + volume + ", 循环: " + loop);
+            Log.d(TAG, "开始播放音频: " + audioFileName + ", 音量: " + volume + ", 循环: " + loop
+                    + (pcmLoop ? ", 无缝循环" : ""));
+
+            // 预加载的下一首已经无缝接上时，只更新音量和循环设置
+            if (handedOff && audioFileName.equals(currentFile) && pcmLoopPlayer != null) {
+                pcmLoopPlayer.setVolume(volume);
+                currentVolume = volume;
+                handedOff = false;
+                Log.d(TAG, "音频已通过预加载接续无缝循环播放: " + audioFileName);
+                return true;
+            }
+            if (handedOff && audioFileName.equals(currentFile) && mediaPlayer != null && mediaPlayer.isPlaying()) {
+                mediaPlayer.setVolume(volume, volume);
+                if (!loop) {
+                    loopPcm = null;
+                }
+                // 已解码好无缝循环的PCM时保持关闭循环，本遍结束后切换
+                mediaPlayer.setLooping(loop && loopPcm == null);
+                currentVolume = volume;
+                handedOff = false;
+                Log.d(TAG, "音频已通过预加载接续播放: " + audioFileName);
+                return true;
+            }
+            if (waitingForNext && audioFileName.equals(nextFile)) {
+                // 下一首正在准备，准备完成后会立即开始播放
+                nextPlayer.setVolume(volume, volume);
+                nextPlayer.setLooping(loop);
+                nextLoop = loop;
+                nextVolume = volume;
+                Log.d(TAG, "音频正在预加载，准备完成后开始播放: " + audioFileName);
+                return true;
+            }
+
+            // 上一首结束后才开始加载的情况，记录从结束到再次开始播放的间隔
+            long completedAt = lastCompletionAt;
+            lastCompletionAt = 0;
 
             // 停止当前播放
             stopAudio();
@@ -63,69 +167,27 @@ public class RegularAudioPlayer {
                 Log.d(TAG, "音频焦点请求成功");
             }
 
-            // 创建MediaPlayer
-            mediaPlayer = new MediaPlayer();
-
-            // 设置音频属性为媒体类型
-            AudioAttributes attributes = new AudioAttributes.Builder()
-                    .setUsage(AudioAttributes.USAGE_MEDIA)
-                    .setContentType(AudioAttributes.CONTENT_TYPE_MUSIC)
-                    .setLegacyStreamType(AudioManager.STREAM_MUSIC)
-                    .build();
-
-            mediaPlayer.setAudioAttributes(attributes);
-
-            // 尝试多个可能的路径
-            String[] possiblePaths = {
-                "public/sounds/" + audioFileName,
-                "sounds/" + audioFileName,
-                audioFileName
-            };
-
-            boolean loaded = false;
-            boolean usedCreate = false;  // 标记是否使用了MediaPlayer.create()
-
-            for (String assetPath : possiblePaths) {
-                try {
-                    Log.d(TAG, "尝试从assets加载: " + assetPath);
-                    android.content.res.AssetFileDescriptor afd = context.getAssets().openFd(assetPath);
-                    mediaPlayer.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
-                    afd.close();
-                    Log.d(TAG, "成功从assets加载音频文件: " + assetPath);
-                    loaded = true;
-                    break;
-                } catch (IOException e) {
-                    Log.d(TAG, "路径不存在: " + assetPath);
+            if (loop && pcmLoop) {
+                // 只使用已缓存的PCM（内存映射），未缓存时不在引擎线程上解码
+                PcmDecoder.Pcm pcm = audioAssets.getCached(audioFileName);
+                if (pcm != null) {
+                    startPcmLoop(pcm, audioFileName, volume);
+                    currentVolume = volume;
+                    if (completedAt > 0) {
+                        recordTransitionGap(COLD_GAP_METRIC, SystemClock.elapsedRealtimeNanos() - completedAt);
+                    }
+                    return true;
                 }
+                Log.d(TAG, "无缝循环PCM未缓存，先用MediaPlayer循环播放并在后台解码: " + audioFileName);
             }
 
-            if (!loaded) {
-                Log.w(TAG, "无法从assets加载音频文件，尝试从res/raw加载");
-
-                // 尝试从res/raw加载
-                int resId = getRawResourceId(audioFileName);
-                if (resId != 0) {
-                    // 释放之前的mediaPlayer
-                    if (mediaPlayer != null) {
-                        mediaPlayer.release();
-                    }
+            // 从媒体播放器池中取出播放器（已设置媒体类型的音频属性）
+            mediaPlayer = playerPool.acquire();
 
-                    mediaPlayer = MediaPlayer.create(context, resId);
-                    if (mediaPlayer != null) {
-                        mediaPlayer.setAudioAttributes(attributes);
-                        Log.d(TAG, "从res/raw加载音频文件: " + audioFileName);
-                        loaded = true;
-                        usedCreate = true;  // 标记使用了create方法
-                    } else {
-                        Log.e(TAG, "无法创建MediaPlayer");
-                        abandonAudioFocus();
-                        return false;
-                    }
-                } else {
-                    Log.e(TAG, "无法找到音频文件资源: " + audioFileName);
-                    abandonAudioFocus();
-                    return false;
-                }
+            if (!loadDataSource(mediaPlayer, audioFileName)) {
+                recyclePlayer();
+                abandonAudioFocus();
+                return false;
             }
 
             // 设置音量
@@ -136,90 +198,546 @@ public class RegularAudioPlayer {
             mediaPlayer.setLooping(loop);
             Log.d(TAG, "设置循环播放: " + loop);
 
-            // 设置完成监听器
-            mediaPlayer.setOnCompletionListener(new MediaPlayer.OnCompletionListener() {
-                @Override
-                public void onCompletion(MediaPlayer mp) {
-                    Log.d(TAG, "音频播放完成: " + audioFileName);
-                    if (!loop) {
-                        abandonAudioFocus();
-                    }
-                    
-                    // 调用回调方法
-                    if (completionListener != null) {
-                        completionListener.onAudioCompletion(audioFileName);
-                    }
-                }
-            });
-
-            // 设置错误监听器
-            mediaPlayer.setOnErrorListener(new MediaPlayer.OnErrorListener() {
-                @Override
-                public boolean onError(MediaPlayer mp, int what, int extra) {
-                    Log.e(TAG, "MediaPlayer错误: what=" + what + ", extra=" + extra);
-                    abandonAudioFocus();
-                    return false;
-                }
-            });
+            attachListeners(mediaPlayer, audioFileName, loop);
 
             // 准备并开始播放
             try {
-                if (!loaded || mediaPlayer == null) {
-                    Log.e(TAG, "MediaPlayer未正确加载");
-                    abandonAudioFocus();
-                    return false;
-                }
-
-                // 如果使用MediaPlayer.create()创建的，已经prepared了
-                // 否则需要手动prepare
-                if (!usedCreate) {
-                    mediaPlayer.prepare();
-                    Log.d(TAG, "MediaPlayer准备完成");
-                }
+                mediaPlayer.prepare();
+                Log.d(TAG, "MediaPlayer准备完成");
 
                 mediaPlayer.start();
+                currentFile = audioFileName;
+                currentVolume = volume;
                 Log.d(TAG, "MediaPlayer开始播放");
 
-                isPlaying = true;
+                if (completedAt > 0) {
+                    recordTransitionGap(COLD_GAP_METRIC, SystemClock.elapsedRealtimeNanos() - completedAt);
+                }
+                if (loop && pcmLoop) {
+                    decodeLoopPcm(audioFileName);
+                }
                 Log.d(TAG, "音频开始播放成功: " + audioFileName + ", 当前播放状态: " + mediaPlayer.isPlaying());
 
                 return true;
             } catch (Exception e) {
                 Log.e(TAG, "准备或开始播放时发生异常", e);
+                recyclePlayer();
                 abandonAudioFocus();
                 return false;
             }
         } catch (Exception e) {
             Log.e(TAG, "播放音频时发生异常: " + audioFileName, e);
+            recyclePlayer();
             abandonAudioFocus();
             return false;
         }
     }
 
     /**
-     * 请求音频焦点
+     * 预加载下一首音频
+     * 在第二个播放器上异步准备，准备完成后通过setNextMediaPlayer挂到当前播放器之后，
+     * 当前音频结束时由系统直接切换；若结束时还未准备好，则在准备完成后立即开始播放
+     * @return 是否开始预加载
      */
-    private int requestAudioFocus() {
-        if (audioManager == null) {
-            Log.w(TAG, "AudioManager为空，无法请求音频焦点");
-            return AudioManager.AUDIOFOCUS_REQUEST_FAILED;
+    public boolean prepareNext(final String audioFileName, float volume, final boolean loop) {
+        return prepareNext(audioFileName, volume, loop, false);
+    }
+
+    /**
+     * 预加载下一首音频
+     * @param pcmLoop 下一首是否使用无缝循环模式，是则在当前音频播放期间于后台解码为PCM，
+     *                结束时直接启动AudioTrack；解码完成前先用MediaPlayer预加载，解码失败时保持MediaPlayer
+     */
+    public boolean prepareNext(final String audioFileName, float volume, final boolean loop, boolean pcmLoop) {
+        if (mediaPlayer == null) {
+            Log.w(TAG, "当前没有播放中的音频，忽略预加载: " + audioFileName);
+            return false;
+        }
+
+        releaseNext();
+        if (loop && pcmLoop) {
+            PcmDecoder.Pcm pcm = audioAssets.getCached(audioFileName);
+            if (pcm != null) {
+                nextPcm = pcm;
+                nextFile = audioFileName;
+                nextLoop = true;
+                nextVolume = volume;
+                Log.d(TAG, "下一首PCM已缓存，结束时无缝循环播放: " + audioFileName);
+                scheduleCrossfade();
+                return true;
+            }
+        }
+
+        try {
+            final MediaPlayer player = playerPool.acquire();
+            if (!loadDataSource(player, audioFileName)) {
+                playerPool.recycle(player);
+                return false;
+            }
+            player.setVolume(volume, volume);
+            player.setLooping(loop);
+            player.setOnPreparedListener(new MediaPlayer.OnPreparedListener() {
+                @Override
+                public void onPrepared(MediaPlayer mp) {
+                    if (mp != nextPlayer) {
+                        return;
+                    }
+                    nextPrepared = true;
+                    Log.d(TAG, "下一首已准备完成: " + audioFileName);
+
+                    if (waitingForNext) {
+                        // 当前音频已经结束，立即开始播放
+                        waitingForNext = false;
+                        mp.start();
+                        promoteNext();
+                        recordTransitionGap(PREFETCHED_GAP_METRIC, SystemClock.elapsedRealtimeNanos() - lastCompletionAt);
+                        lastCompletionAt = 0;
+                        if (stateChangedListener != null) {
+                            stateChangedListener.run();
+                        }
+                    } else if (scheduleCrossfade()) {
+                        Log.d(TAG, "已安排交叉淡化到: " + audioFileName);
+                    } else if (mediaPlayer != null && !mediaPlayer.isLooping() && loopPcm == null) {
+                        try {
+                            mediaPlayer.setNextMediaPlayer(mp);
+                        } catch (Exception e) {
+                            Log.w(TAG, "设置下一首播放器失败，结束时再手动开始: " + e.getMessage());
+                        }
+                    }
+                }
+            });
+
+            nextPlayer = player;
+            nextFile = audioFileName;
+            nextLoop = loop;
+            nextVolume = volume;
+            nextPrepared = false;
+            player.prepareAsync();
+            Log.d(TAG, "开始预加载下一首: " + audioFileName);
+            if (loop && pcmLoop) {
+                decodeNextPcm(audioFileName);
+            }
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "预加载下一首时发生异常: " + audioFileName, e);
+            releaseNext();
+            return false;
+        }
+    }
+
+    /**
+     * 在后台解码当前循环播放的音频，完成后关闭MediaPlayer的循环，当前一遍结束时切换到无缝循环
+     */
+    private void decodeLoopPcm(final String audioFileName) {
+        final Object token = playToken;
+        audioAssets.decodeAsync(audioFileName, handler, new AudioAssets.DecodeCallback() {
+            @Override
+            public void onDecoded(PcmDecoder.Pcm pcm) {
+                if (token != playToken) {
+                    return;
+                }
+                if (pcm == null) {
+                    Log.w(TAG, "无缝循环解码失败，继续使用MediaPlayer循环: " + audioFileName);
+                    return;
+                }
+                adoptLoopPcm(pcm);
+            }
+        });
+    }
+
+    /**
+     * 在后台解码预加载的下一首，完成时下一首还未开始则替换掉MediaPlayer预加载，
+     * 已经开始则按当前循环播放的音频处理
+     */
+    private void decodeNextPcm(final String audioFileName) {
+        final Object token = nextToken;
+        audioAssets.decodeAsync(audioFileName, handler, new AudioAssets.DecodeCallback() {
+            @Override
+            public void onDecoded(PcmDecoder.Pcm pcm) {
+                if (pcm == null) {
+                    Log.w(TAG, "下一首解码失败，继续使用MediaPlayer预加载: " + audioFileName);
+                    return;
+                }
+                if (token == nextToken && nextPlayer != null && !waitingForNext) {
+                    if (mediaPlayer != null) {
+                        try {
+                            mediaPlayer.setNextMediaPlayer(null);
+                        } catch (Exception e) {
+                            Log.w(TAG, "清除下一首播放器失败: " + e.getMessage());
+                        }
+                    }
+                    cancelCrossfade();
+                    playerPool.recycle(nextPlayer);
+                    nextPlayer = null;
+                    nextPrepared = false;
+                    nextPcm = pcm;
+                    Log.d(TAG, "下一首已解码完成，结束时无缝循环播放: " + audioFileName);
+                    scheduleCrossfade();
+                } else if (token == playToken) {
+                    // 下一首已通过MediaPlayer开始循环播放
+                    adoptLoopPcm(pcm);
+                }
+            }
+        });
+    }
+
+    private void adoptLoopPcm(PcmDecoder.Pcm pcm) {
+        if (mediaPlayer == null || !mediaPlayer.isLooping()) {
+            return;
+        }
+        loopPcm = pcm;
+        mediaPlayer.setLooping(false);
+        Log.d(TAG, "无缝循环解码完成，本遍结束后切换: " + currentFile);
+    }
+
+    /**
+     * MediaPlayer播放完一遍后接着用AudioTrack无缝循环，不通知播放完成
+     */
+    private void switchToPcmLoop() {
+        PcmDecoder.Pcm pcm = loopPcm;
+        MediaPlayer previous = mediaPlayer;
+        loopPcm = null;
+        mediaPlayer = null;
+        startPcmLoop(pcm, currentFile, currentVolume);
+        playerPool.recycle(previous);
+        if (stateChangedListener != null) {
+            stateChangedListener.run();
+        }
+    }
+
+    /**
+     * 从assets或res/raw加载音频数据源
+     */
+    private boolean loadDataSource(MediaPlayer player, String audioFileName) throws IOException {
+        AssetFileDescriptor afd = audioAssets.openFd(audioFileName);
+        if (afd == null) {
+            return false;
+        }
+        try {
+            // 复用同一个播放器，不再通过MediaPlayer.create()新建
+            player.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+        } finally {
+            afd.close();
+        }
+        return true;
+    }
+
+    /**
+     * 用AudioTrack无缝循环播放已解码的PCM
+     */
+    private void startPcmLoop(PcmDecoder.Pcm pcm, String audioFileName, float volume) {
+        pcmLoopPlayer = new PcmLoopPlayer(pcm, playerPool.getAttributes(), volume);
+        pcmLoopPlayer.start();
+        currentFile = audioFileName;
+        Log.d(TAG, "音频开始无缝循环播放: " + audioFileName);
+    }
+
+    private void attachListeners(MediaPlayer player, final String audioFileName, final boolean loop) {
+        // 设置完成监听器
+        player.setOnCompletionListener(new MediaPlayer.OnCompletionListener() {
+            @Override
+            public void onCompletion(MediaPlayer mp) {
+                if (mp != mediaPlayer) {
+                    return;
+                }
+                if (loopPcm != null) {
+                    switchToPcmLoop();
+                    return;
+                }
+                Log.d(TAG, "音频播放完成: " + audioFileName);
+                lastCompletionAt = SystemClock.elapsedRealtimeNanos();
+                onTrackCompleted(loop);
+
+                // 调用回调方法
+                if (completionListener != null) {
+                    completionListener.onAudioCompletion(audioFileName);
+                }
+            }
+        });
+
+        // 设置错误监听器
+        player.setOnErrorListener(new MediaPlayer.OnErrorListener() {
+            @Override
+            public boolean onError(MediaPlayer mp, int what, int extra) {
+                Log.e(TAG, "MediaPlayer错误: what=" + what + ", extra=" + extra);
+                abandonAudioFocus();
+                return false;
+            }
+        });
+    }
+
+    /**
+     * 当前音频结束时切换到预加载的下一首
+     */
+    private void onTrackCompleted(boolean loop) {
+        if (crossfading) {
+            // 交叉淡化结束时统一切换
+            return;
+        }
+        if (crossfader != null) {
+            // 音频比预计提前结束，取消淡化直接切换
+            Log.w(TAG, "交叉淡化开始前音频已结束，直接切换");
+            cancelCrossfade();
+        }
+        if (nextPcm != null) {
+            PcmDecoder.Pcm pcm = nextPcm;
+            String file = nextFile;
+            nextPcm = null;
+            nextFile = null;
+            startPcmLoop(pcm, file, nextVolume);
+            handedOff = true;
+            recordTransitionGap(PREFETCHED_GAP_METRIC, SystemClock.elapsedRealtimeNanos() - lastCompletionAt);
+            lastCompletionAt = 0;
+            // 旧播放器不再需要，currentFile已指向新的音频
+            if (mediaPlayer != null) {
+                playerPool.recycle(mediaPlayer);
+                mediaPlayer = null;
+            }
+            return;
+        }
+        if (nextPlayer == null) {
+            if (!loop) {
+                abandonAudioFocus();
+            }
+            return;
         }
 
-        return audioManager.requestAudioFocus(
-            null,
-            AudioManager.STREAM_MUSIC,
-            AudioManager.AUDIOFOCUS_GAIN
-        );
+        if (!nextPrepared) {
+            // 下一首还在准备，准备完成后立即开始
+            Log.d(TAG, "下一首尚未准备完成，等待后开始: " + nextFile);
+            waitingForNext = true;
+            return;
+        }
+
+        MediaPlayer next = nextPlayer;
+        if (!next.isPlaying()) {
+            // setNextMediaPlayer未生效时手动开始
+            next.start();
+        }
+        promoteNext();
+        recordTransitionGap(PREFETCHED_GAP_METRIC, SystemClock.elapsedRealtimeNanos() - lastCompletionAt);
+        lastCompletionAt = 0;
+    }
+
+    /**
+     * 预加载的播放器成为当前播放器，旧播放器归还到池中
+     */
+    private void promoteNext() {
+        MediaPlayer previous = mediaPlayer;
+        mediaPlayer = nextPlayer;
+        currentFile = nextFile;
+        attachListeners(mediaPlayer, nextFile, nextLoop);
+        nextPlayer = null;
+        nextFile = null;
+        nextPrepared = false;
+        handedOff = true;
+        // 下一首的后台解码结果此后交给当前播放器
+        playToken = nextToken;
+        nextToken = new Object();
+        if (previous != null) {
+            playerPool.recycle(previous);
+        }
+        Log.d(TAG, "已切换到预加载的音频: " + currentFile);
+    }
+
+    private void releaseNext() {
+        cancelCrossfade();
+        if (nextPlayer != null) {
+            if (mediaPlayer != null) {
+                try {
+                    mediaPlayer.setNextMediaPlayer(null);
+                } catch (Exception e) {
+                    Log.w(TAG, "清除下一首播放器失败: " + e.getMessage());
+                }
+            }
+            playerPool.recycle(nextPlayer);
+        }
+        nextPlayer = null;
+        nextFile = null;
+        nextPrepared = false;
+        nextPcm = null;
+        waitingForNext = false;
+        nextToken = new Object();
+    }
+
+    /**
+     * 设置交叉淡化时长，对之后预加载的下一首生效
+     * @param durationMs 淡化时长，0表示不淡化
+     */
+    public void setCrossfadeDuration(long durationMs) {
+        crossfadeMs = Math.max(0, durationMs);
+        Log.d(TAG, "交叉淡化时长: " + crossfadeMs + "ms");
+    }
+
+    /**
+     * 在当前音频结束前crossfadeMs开始交叉淡化到已准备好的下一首
+     * @return 是否已安排淡化；未开启淡化、当前音频循环或未在播放时返回false
+     */
+    private boolean scheduleCrossfade() {
+        cancelCrossfade();
+        if (crossfadeMs <= 0 || mediaPlayer == null || mediaPlayer.isLooping() || loopPcm != null
+                || !mediaPlayer.isPlaying()) {
+            return false;
+        }
+        if (nextPcm == null && !nextPrepared) {
+            return false;
+        }
+
+        long remainingMs = mediaPlayer.getDuration() - mediaPlayer.getCurrentPosition();
+        if (remainingMs <= 0) {
+            return false;
+        }
+        long durationMs = Math.min(crossfadeMs, remainingMs);
+
+        final MediaPlayer outgoing = mediaPlayer;
+        Crossfader.Channel fadeOut = new Crossfader.Channel() {
+            @Override
+            public void setGain(float gain) {
+                outgoing.setVolume(gain, gain);
+            }
+        };
+        Crossfader.Channel fadeIn;
+        if (nextPcm != null) {
+            // AudioTrack在淡化开始时才创建，安排淡化时不占用
+            fadeIn = new Crossfader.Channel() {
+                @Override
+                public void setGain(float gain) {
+                    if (nextPcmPlayer != null) {
+                        nextPcmPlayer.setVolume(gain);
+                    }
+                }
+            };
+        } else {
+            final MediaPlayer incoming = nextPlayer;
+            fadeIn = new Crossfader.Channel() {
+                @Override
+                public void setGain(float gain) {
+                    incoming.setVolume(gain, gain);
+                }
+            };
+        }
+
+        crossfader = new Crossfader(fadeOut, currentVolume, fadeIn, nextVolume, durationMs, handler,
+                new Crossfader.Listener() {
+                    @Override
+                    public void onCrossfadeStart() {
+                        startCrossfade();
+                    }
+
+                    @Override
+                    public void onCrossfadeFinished() {
+                        finishCrossfade();
+                    }
+                });
+        crossfader.start(remainingMs - durationMs);
+        return true;
+    }
+
+    private void startCrossfade() {
+        crossfading = true;
+        // 淡化期间旧音频自然结束不再触发切换，完成事件在淡化结束时发出
+        mediaPlayer.setOnCompletionListener(null);
+        if (nextPcm != null) {
+            nextPcmPlayer = new PcmLoopPlayer(nextPcm, playerPool.getAttributes(), 0f);
+            nextPcmPlayer.start();
+        } else {
+            nextPlayer.start();
+        }
+        Log.d(TAG, "开始交叉淡化: " + currentFile + " -> " + nextFile);
+    }
+
+    /**
+     * 淡化结束（或被暂停打断）时切换到淡入的音频
+     */
+    private void finishCrossfade() {
+        String finishedFile = currentFile;
+        crossfader.cancel();
+        crossfader = null;
+        crossfading = false;
+
+        if (nextPcmPlayer != null) {
+            nextPcmPlayer.setVolume(nextVolume);
+            MediaPlayer previous = mediaPlayer;
+            pcmLoopPlayer = nextPcmPlayer;
+            currentFile = nextFile;
+            mediaPlayer = null;
+            nextPcmPlayer = null;
+            nextPcm = null;
+            nextFile = null;
+            handedOff = true;
+            playerPool.recycle(previous);
+        } else {
+            nextPlayer.setVolume(nextVolume, nextVolume);
+            promoteNext();
+        }
+        currentVolume = nextVolume;
+        Log.d(TAG, "交叉淡化完成: " + finishedFile + " -> " + currentFile);
+
+        if (stateChangedListener != null) {
+            stateChangedListener.run();
+        }
+        if (completionListener != null) {
+            completionListener.onAudioCompletion(finishedFile);
+        }
+    }
+
+    /**
+     * 取消尚未完成的交叉淡化，释放淡入用的无缝循环播放器
+     */
+    private void cancelCrossfade() {
+        if (crossfader != null) {
+            crossfader.cancel();
+            crossfader = null;
+        }
+        crossfading = false;
+        if (nextPcmPlayer != null) {
+            nextPcmPlayer.release();
+            nextPcmPlayer = null;
+        }
+    }
+
+    private static void recordTransitionGap(String metric, long gapNanos) {
+        BridgeMetrics.getInstance().record(metric, gapNanos, false);
+        Log.d(TAG, "音频切换间隔(" + metric + "): " + (gapNanos / 1000000.0) + "ms");
+    }
+
+    /**
+     * 获取当前播放的音频文件名
+     */
+    public String getCurrentFile() {
+        return currentFile;
+    }
+
+    /**
+     * 把当前播放器归还到池中
+     */
+    private void recyclePlayer() {
+        if (mediaPlayer != null) {
+            playerPool.recycle(mediaPlayer);
+            mediaPlayer = null;
+        }
+        if (pcmLoopPlayer != null) {
+            pcmLoopPlayer.release();
+            pcmLoopPlayer = null;
+        }
+        currentFile = null;
+        handedOff = false;
+        loopPcm = null;
+        playToken = new Object();
+    }
+
+    /**
+     * 请求音频焦点
+     */
+    private int requestAudioFocus() {
+        return audioFocus.acquire(TAG);
     }
 
     /**
      * 放弃音频焦点
      */
     private void abandonAudioFocus() {
-        if (audioManager != null) {
-            audioManager.abandonAudioFocus(null);
-            Log.d(TAG, "已放弃音频焦点");
-        }
+        audioFocus.release(TAG);
     }
     
     /**
@@ -227,18 +745,20 @@ public class RegularAudioPlayer {
      */
     public void stopAudio() {
         try {
+            // 取消预加载的下一首
+            releaseNext();
+
             if (mediaPlayer != null) {
                 if (mediaPlayer.isPlaying()) {
                     mediaPlayer.stop();
                 }
-                mediaPlayer.release();
-                mediaPlayer = null;
             }
+            // 重置后放回池中，下次播放复用
+            recyclePlayer();
 
             // 放弃音频焦点
             abandonAudioFocus();
 
-            isPlaying = false;
             Log.d(TAG, "音频已停止");
         } catch (Exception e) {
             Log.e(TAG, "停止音频时发生异常", e);
@@ -250,10 +770,21 @@ public class RegularAudioPlayer {
      */
     public void pauseAudio() {
         try {
+            if (crossfading) {
+                // 淡化中暂停时直接切换到淡入的音频
+                finishCrossfade();
+            } else if (crossfader != null) {
+                // 恢复播放时根据剩余时长重新安排
+                cancelCrossfade();
+            }
             if (mediaPlayer != null && mediaPlayer.isPlaying()) {
                 mediaPlayer.pause();
                 Log.d(TAG, "音频已暂停");
             }
+            if (pcmLoopPlayer != null && pcmLoopPlayer.isPlaying()) {
+                pcmLoopPlayer.pause();
+                Log.d(TAG, "无缝循环音频已暂停");
+            }
         } catch (Exception e) {
             Log.e(TAG, "暂停音频时发生异常", e);
         }
@@ -267,6 +798,11 @@ public class RegularAudioPlayer {
             if (mediaPlayer != null && !mediaPlayer.isPlaying()) {
                 mediaPlayer.start();
                 Log.d(TAG, "音频已恢复");
+                scheduleCrossfade();
+            }
+            if (pcmLoopPlayer != null && !pcmLoopPlayer.isPlaying()) {
+                pcmLoopPlayer.resume();
+                Log.d(TAG, "无缝循环音频已恢复");
             }
         } catch (Exception e) {
             Log.e(TAG, "恢复音频时发生异常", e);
@@ -279,30 +815,13 @@ public class RegularAudioPlayer {
      */
     public boolean isPlaying() {
         try {
+            if (pcmLoopPlayer != null) {
+                return pcmLoopPlayer.isPlaying();
+            }
             return mediaPlayer != null && mediaPlayer.isPlaying();
         } catch (Exception e) {
             Log.e(TAG, "检查播放状态时发生异常", e);
             return false;
         }
     }
-    
-    /**
-     * 获取原始资源ID
-     * @param fileName 文件名
-     * @return 资源ID，如果找不到返回0
-     */
-    private int getRawResourceId(String fileName) {
-        try {
-            // 移除文件扩展名
-            String resourceName = fileName.contains(".") ? 
-                fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
-            
-            // 获取资源ID
-            return context.getResources().getIdentifier(
-                resourceName, "raw", context.getPackageName());
-        } catch (Exception e) {
-            Log.e(TAG, "获取资源ID时发生异常: " + fileName, e);
-            return 0;
-        }
-    }
-}
\ No newline at end of file
+}
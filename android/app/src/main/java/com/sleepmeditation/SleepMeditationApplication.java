@@ -0,0 +1,36 @@
+package com.sleepmeditation;
+
+import android.app.Application;
+import android.util.Log;
+
+/**
+ * 应用入口
+ * 在进程创建后最先执行，用于记录冷启动的起点
+ */
+public class SleepMeditationApplication extends Application {
+    private static final String TAG = "SleepMeditationApp";
+
+    @Override
+    public void onCreate() {
+        StartupTracer.markProcessStart();
+        super.onCreate();
+        StartupTracer.mark(StartupTracer.APPLICATION_CREATE);
+        Log.d(TAG, "应用进程已创建");
+    }
+
+    /**
+     * 内存紧张时释放进程内的资源缓存和空闲播放器，下次使用时重新读取
+     * 界面隐藏（TRIM_MEMORY_UI_HIDDEN）时睡眠音频通常仍在后台播放，回到前台还要用到这些缓存，不释放；
+     * 只在运行中内存严重不足或进程已进入后台缓存列表时释放
+     * 缓存属于进程而不是Activity，放在这里使只剩播放服务时也能释放
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level == TRIM_MEMORY_RUNNING_CRITICAL || level >= TRIM_MEMORY_BACKGROUND) {
+            Log.d(TAG, "内存紧张(level=" + level + ")，释放资源缓存");
+            WebAssetInterceptor.trimMemory();
+            AudioEngine.trimMemoryIfCreated();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.sleepmeditation;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 启动流程编排
+ * 把MainActivity启动时的初始化工作分为三个阶段：
+ * CRITICAL在WebView加载前同步执行，AFTER_FIRST_PAINT在网页首次渲染后执行，
+ * IDLE在主线程消息队列空闲时执行；每个阶段和任务的耗时都会记录下来
+ *
+ * 除getPhaseTimings外，所有方法都需要在主线程调用
+ */
+public class StartupOrchestrator {
+    private static final String TAG = "StartupOrchestrator";
+
+    public enum Phase {
+        CRITICAL("critical-before-webview"),
+        AFTER_FIRST_PAINT("after-first-paint"),
+        IDLE("idle");
+
+        public final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final class Task {
+        final String name;
+        final Runnable runnable;
+
+        Task(String name, Runnable runnable) {
+            this.name = name;
+            this.runnable = runnable;
+        }
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<Phase, List<Task>> tasks = new EnumMap<>(Phase.class);
+    // 各阶段耗时（毫秒），按完成顺序排列
+    private final Map<String, Long> phaseTimings = new LinkedHashMap<>();
+    private final long createdAt = SystemClock.elapsedRealtime();
+    private volatile boolean firstPaintReached = false;
+    private boolean cancelled = false;
+
+    public StartupOrchestrator() {
+        for (Phase phase : Phase.values()) {
+            tasks.put(phase, new ArrayList<Task>());
+        }
+    }
+
+    /**
+     * 添加启动任务，同一阶段内按添加顺序执行
+     */
+    public StartupOrchestrator add(Phase phase, String name, Runnable runnable) {
+        tasks.get(phase).add(new Task(name, runnable));
+        return this;
+    }
+
+    /**
+     * 同步执行CRITICAL阶段
+     */
+    public void runCritical() {
+        runPhase(Phase.CRITICAL);
+    }
+
+    /**
+     * 网页首次渲染完成（或等待超时）时调用，只有第一次调用有效
+     * AFTER_FIRST_PAINT阶段在下一个消息中执行，避免阻塞当前帧；随后在主线程空闲时执行IDLE阶段
+     */
+    public void onFirstPaint(String reason) {
+        if (firstPaintReached || cancelled) {
+            return;
+        }
+        firstPaintReached = true;
+        Log.d(TAG, "首次渲染(" + reason + ")，距启动" + (SystemClock.elapsedRealtime() - createdAt) + "ms");
+
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (cancelled) {
+                    return;
+                }
+                runPhase(Phase.AFTER_FIRST_PAINT);
+                Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                    @Override
+                    public boolean queueIdle() {
+                        if (!cancelled) {
+                            runPhase(Phase.IDLE);
+                        }
+                        return false;
+                    }
+                });
+            }
+        });
+    }
+
+    public boolean isFirstPaintReached() {
+        return firstPaintReached;
+    }
+
+    /**
+     * Activity销毁时取消尚未执行的阶段
+     */
+    public void cancel() {
+        cancelled = true;
+        mainHandler.removeCallbacksAndMessages(null);
+    }
+
+    private void runPhase(Phase phase) {
+        long phaseStart = SystemClock.elapsedRealtime();
+        for (Task task : tasks.get(phase)) {
+            long taskStart = SystemClock.elapsedRealtime();
+            try {
+                task.runnable.run();
+            } catch (Exception e) {
+                Log.e(TAG, "启动任务执行失败: " + phase.label + "/" + task.name, e);
+            }
+            Log.d(TAG, phase.label + "/" + task.name + " 耗时" + (SystemClock.elapsedRealtime() - taskStart) + "ms");
+        }
+        tasks.get(phase).clear();
+
+        long elapsed = SystemClock.elapsedRealtime() - phaseStart;
+        synchronized (phaseTimings) {
+            phaseTimings.put(phase.label, elapsed);
+        }
+        Log.d(TAG, "启动阶段 " + phase.label + " 完成，耗时" + elapsed + "ms");
+    }
+
+    /**
+     * 获取各阶段耗时，格式如 "critical-before-webview=85ms, after-first-paint=12ms"
+     */
+    public String getPhaseTimings() {
+        StringBuilder builder = new StringBuilder();
+        synchronized (phaseTimings) {
+            for (Map.Entry<String, Long> entry : phaseTimings.entrySet()) {
+                if (builder.length() > 0) {
+                    builder.append(", ");
+                }
+                builder.append(entry.getKey()).append('=').append(entry.getValue()).append("ms");
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package com.sleepmeditation;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 冷启动耗时追踪
+ * 以SystemClock.elapsedRealtime()记录启动过程中各个节点的单调时间戳，
+ * 换算为相对进程启动的毫秒数后保存最近几次启动的记录，供LogViewer查看启动耗时是否退化
+ *
+ * 每个节点在一个进程内只记录第一次
+ */
+public final class StartupTracer {
+    private static final String TAG = "StartupTracer";
+
+    public static final String PROCESS_START = "processStart";
+    public static final String APPLICATION_CREATE = "applicationCreate";
+    public static final String ACTIVITY_CREATE = "activityCreate";
+    public static final String CONTENT_VIEW = "setContentView";
+    public static final String SETUP_WEBVIEW = "setupWebView";
+    public static final String LOAD_URL = "loadUrl";
+    public static final String PAGE_FINISHED = "pageFinished";
+    public static final String FIRST_RENDER = "firstRender";
+    public static final String FIRST_ALARM_BRIDGE = "firstAlarmBridge";
+    public static final String FIRST_REGULAR_BRIDGE = "firstRegularBridge";
+    public static final String FIRST_AUDIO = "firstAudio";
+
+    private static final String PREFERENCES_NAME = "StartupTraces";
+    private static final String KEY_TRACES = "traces";
+    // 保留的启动记录条数
+    private static final int MAX_TRACES = 10;
+
+    private static final Map<String, Long> marks = new LinkedHashMap<>();
+    // 本次启动的墙钟时间，用于区分不同的启动记录
+    private static final long launchWallTime = System.currentTimeMillis();
+    private static long processStart = -1;
+
+    private StartupTracer() {
+    }
+
+    /**
+     * 记录进程启动时间，在Application.onCreate中最先调用
+     * Android 7.0以下无法获取进程启动时间，以调用时刻代替
+     */
+    public static synchronized void markProcessStart() {
+        if (processStart >= 0) {
+            return;
+        }
+        processStart = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                ? Process.getStartElapsedRealtime()
+                : SystemClock.elapsedRealtime();
+        marks.put(PROCESS_START, processStart);
+    }
+
+    /**
+     * 记录启动节点
+     * @return 是否为该节点的第一次记录
+     */
+    public static synchronized boolean mark(String name) {
+        if (marks.containsKey(name)) {
+            return false;
+        }
+        if (processStart < 0) {
+            markProcessStart();
+        }
+        long now = SystemClock.elapsedRealtime();
+        marks.put(name, now);
+        Log.d(TAG, name + ": +" + (now - processStart) + "ms");
+        return true;
+    }
+
+    /**
+     * 记录启动节点，并保存本次启动的记录
+     */
+    public static void markAndPersist(Context context, String name) {
+        if (mark(name)) {
+            persist(context);
+        }
+    }
+
+    /**
+     * 本次启动的记录，各节点为相对进程启动的毫秒数
+     */
+    private static synchronized JSONObject currentTrace() throws Exception {
+        JSONObject trace = new JSONObject();
+        trace.put("launchedAt", launchWallTime);
+        trace.put("sdk", Build.VERSION.SDK_INT);
+        JSONObject offsets = new JSONObject();
+        for (Map.Entry<String, Long> mark : marks.entrySet()) {
+            offsets.put(mark.getKey(), mark.getValue() - processStart);
+        }
+        trace.put("marks", offsets);
+        return trace;
+    }
+
+    /**
+     * 保存本次启动的记录，同一次启动的记录会被覆盖更新
+     */
+    public static void persist(Context context) {
+        try {
+            JSONObject trace = currentTrace();
+            SharedPreferences preferences = context.getApplicationContext()
+                    .getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+            synchronized (StartupTracer.class) {
+                JSONArray previous = new JSONArray(preferences.getString(KEY_TRACES, "[]"));
+                JSONArray traces = new JSONArray();
+                for (int i = 0; i < previous.length(); i++) {
+                    JSONObject item = previous.getJSONObject(i);
+                    if (item.optLong("launchedAt") != launchWallTime) {
+                        traces.put(item);
+                    }
+                }
+                traces.put(trace);
+
+                // 只保留最近MAX_TRACES次启动
+                JSONArray trimmed = new JSONArray();
+                for (int i = Math.max(0, traces.length() - MAX_TRACES); i < traces.length(); i++) {
+                    trimmed.put(traces.get(i));
+                }
+                preferences.edit().putString(KEY_TRACES, trimmed.toString()).apply();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "保存启动记录失败", e);
+        }
+    }
+
+    /**
+     * 获取最近几次启动的记录（JSON数组，按时间从旧到新）
+     */
+    public static String getTraces(Context context) {
+        SharedPreferences preferences = context.getApplicationContext()
+                .getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        return preferences.getString(KEY_TRACES, "[]");
+    }
+}
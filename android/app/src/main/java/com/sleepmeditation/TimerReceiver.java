@@ -5,7 +5,9 @@ import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
 import android.util.Log;
-import android.webkit.WebView;
+
+import org.json.JSONException;
+import org.json.JSONObject;
 
 /**
  * 定时器广播接收器
@@ -13,23 +15,6 @@ import android.webkit.WebView;
  */
 public class TimerReceiver extends BroadcastReceiver {
     private static final String TAG = "TimerReceiver";
-    private static WebView webView = null;
-
-    /**
-     * 设置 WebView 引用，用于回调 JavaScript
-     */
-    public static void setWebView(WebView webView) {
-        TimerReceiver.webView = webView;
-        Log.d(TAG, "WebView 引用已设置");
-    }
-
-    /**
-     * 清除 WebView 引用
-     */
-    public static void clearWebView() {
-        TimerReceiver.webView = null;
-        Log.d(TAG, "WebView 引用已清除");
-    }
 
     @Override
     public void onReceive(Context context, Intent intent) {
@@ -41,33 +26,24 @@ public class TimerReceiver extends BroadcastReceiver {
             final int timerDuration = intent.getIntExtra("timerDuration", 0);
 
             Log.d(TAG, "定时时间到，启用闹钟: " + enableAlarm + ", 启用震动: " + enableVibration + ", 时长: " + timerDuration);
-
-            // 通知 JavaScript 停止播放
-            if (webView != null) {
-                final String jsCode = "javascript:(function(){" +
-                    "if(window.onTimerComplete){" +
-                        "window.onTimerComplete(" + enableAlarm + "," + timerDuration + ");" +
-                    "}else{" +
-                        "console.warn('window.onTimerComplete 方法不存在');" +
-                    "}" +
-                "})()";
-
-                Log.d(TAG, "调用 JavaScript: " + jsCode);
-
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-                    webView.evaluateJavascript(jsCode, new android.webkit.ValueCallback<String>() {
-                        @Override
-                        public void onReceiveValue(String value) {
-                            Log.d(TAG, "JavaScript 回调结果: " + value);
-                        }
-                    });
-                } else {
-                    webView.loadUrl(jsCode);
-                }
-            } else {
-                Log.w(TAG, "WebView 为空，无法通知 JavaScript");
+            TimerScheduler.clearSession(context);
+            AlarmLatencyStats.recordFromIntent(context, "timer", intent);
+
+            // 通过事件通道通知 JavaScript 停止播放
+            try {
+                JSONObject payload = new JSONObject();
+                payload.put("enableAlarm", enableAlarm);
+                payload.put("timerDuration", timerDuration);
+                NativeEvents.getInstance().emit(NativeEvents.TIMER_FIRED, payload);
+            } catch (JSONException e) {
+                Log.e(TAG, "构造定时器事件失败", e);
             }
 
+            // 网页可能已随Activity被回收，由原生层直接结束睡眠播放会话；网页存在时重复停止无副作用
+            AudioEngine engine = AudioEngine.getInstance(context);
+            engine.stopRegular();
+            engine.stopAmbient();
+
             // 如果启用了闹钟，启动闹钟服务
             if (enableAlarm) {
                 Log.d(TAG, "启动闹钟服务");
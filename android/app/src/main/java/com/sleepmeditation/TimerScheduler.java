@@ -4,17 +4,35 @@ import android.app.AlarmManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.os.Build;
+import android.os.SystemClock;
+import android.provider.Settings;
 import android.util.Log;
 
 /**
  * 定时器调度器
  * 使用AlarmManager在指定时间触发定时结束事件
  * 解决应用后台/锁屏时JavaScript计时器失效的问题
+ *
+ * 定时会话（开始时间、时长、暂停区间、闹钟和震动设置）保存在SharedPreferences中，
+ * 剩余时间以原生层为准；暂停、恢复和延长时重新设置AlarmManager中唯一的定时器
+ * 定时器基于elapsedRealtime调度，实际触发延迟由TimerReceiver记录
+ * 会话随开机次数一起保存，重启后elapsedRealtime归零、定时器失效，会话据此丢弃；开机广播也会清除会话
  */
 public class TimerScheduler {
     private static final String TAG = "TimerScheduler";
     private static final int TIMER_REQUEST_CODE = 2001;
+    private static final String PREFS_NAME = "timer_scheduler";
+    private static final String KEY_STARTED_AT = "startedAt";
+    private static final String KEY_DURATION_MS = "durationMs";
+    private static final String KEY_PAUSED_MS = "pausedMs";
+    private static final String KEY_PAUSED_AT = "pausedAt";
+    private static final String KEY_ENABLE_ALARM = "enableAlarm";
+    private static final String KEY_ENABLE_VIBRATION = "enableVibration";
+    private static final String KEY_TIMER_DURATION = "timerDuration";
+    private static final String KEY_USE_ALARM_CLOCK = "useAlarmClock";
+    private static final String KEY_BOOT_COUNT = "bootCount";
 
     private Context context;
     private AlarmManager alarmManager;
@@ -26,7 +44,7 @@ public class TimerScheduler {
     }
 
     /**
-     * 设置定时器
+     * 设置定时器，开始新的定时会话
      * @param delayInSeconds 延迟秒数
      * @param enableAlarm 是否启用闹钟
      * @param enableVibration 是否启用震动
@@ -34,57 +52,30 @@ public class TimerScheduler {
      * @return 是否设置成功
      */
     public boolean scheduleTimer(int delayInSeconds, boolean enableAlarm, boolean enableVibration, int timerDuration) {
+        return scheduleTimer(delayInSeconds, enableAlarm, enableVibration, timerDuration, false);
+    }
+
+    /**
+     * 设置定时器，开始新的定时会话
+     * @param delayInSeconds 延迟秒数
+     * @param enableAlarm 是否启用闹钟
+     * @param enableVibration 是否启用震动
+     * @param timerDuration 定时时长（分钟）
+     * @param useAlarmClock 是否使用setAlarmClock（保证准时，状态栏显示闹钟图标）
+     * @return 是否设置成功
+     */
+    public synchronized boolean scheduleTimer(int delayInSeconds, boolean enableAlarm, boolean enableVibration,
+                                              int timerDuration, boolean useAlarmClock) {
         try {
             // 取消之前的定时器
             cancelTimer();
 
-            // 计算触发时间
-            long triggerAtMillis = System.currentTimeMillis() + (delayInSeconds * 1000L);
-
             Log.d(TAG, "设置定时器，延迟: " + delayInSeconds + "秒, 启用闹钟: " + enableAlarm + ", 启用震动: " + enableVibration + ", 时长: " + timerDuration + "分钟");
-            Log.d(TAG, "触发时间: " + new java.util.Date(triggerAtMillis));
-
-            // 创建Intent
-            Intent intent = new Intent(context, TimerReceiver.class);
-            intent.putExtra("enableAlarm", enableAlarm);
-            intent.putExtra("enableVibration", enableVibration);
-            intent.putExtra("timerDuration", timerDuration);
-            intent.setAction("com.sleepmeditation.TIMER_TRIGGER");
-
-            // 创建PendingIntent
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                context,
-                TIMER_REQUEST_CODE,
-                intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-            );
-
-            // 设置精确闹钟
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                // Android 6.0及以上，使用setExactAndAllowWhileIdle确保在低电量模式下也能触发
-                alarmManager.setExactAndAllowWhileIdle(
-                    AlarmManager.RTC_WAKEUP,
-                    triggerAtMillis,
-                    pendingIntent
-                );
-                Log.d(TAG, "使用 setExactAndAllowWhileIdle");
-            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-                // Android 4.4及以上
-                alarmManager.setExact(
-                    AlarmManager.RTC_WAKEUP,
-                    triggerAtMillis,
-                    pendingIntent
-                );
-                Log.d(TAG, "使用 setExact");
-            } else {
-                // 旧版本Android
-                alarmManager.set(
-                    AlarmManager.RTC_WAKEUP,
-                    triggerAtMillis,
-                    pendingIntent
-                );
-                Log.d(TAG, "使用 set");
-            }
+
+            TimerSession session = new TimerSession(SystemClock.elapsedRealtime(), delayInSeconds * 1000L,
+                    0, 0, enableAlarm, enableVibration, timerDuration, useAlarmClock);
+            saveSession(session);
+            arm(session);
 
             Log.d(TAG, "定时器设置成功，将在 " + delayInSeconds + " 秒后触发");
             return true;
@@ -95,33 +86,105 @@ public class TimerScheduler {
     }
 
     /**
-     * 取消定时器
+     * 取消定时器并结束定时会话
      * @return 是否取消成功
      */
-    public boolean cancelTimer() {
+    public synchronized boolean cancelTimer() {
         try {
-            Intent intent = new Intent(context, TimerReceiver.class);
-            intent.setAction("com.sleepmeditation.TIMER_TRIGGER");
-
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                context,
-                TIMER_REQUEST_CODE,
-                intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-            );
-
-            if (alarmManager != null) {
-                alarmManager.cancel(pendingIntent);
-                Log.d(TAG, "定时器已取消");
+            disarm();
+            clearSession(context);
+            Log.d(TAG, "定时器已取消");
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "取消定时器失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 暂停计时：取消AlarmManager中的定时器，剩余时间保持不变
+     * @return 没有进行中的会话或已经暂停时返回false
+     */
+    public synchronized boolean pause() {
+        try {
+            TimerSession session = loadSession();
+            if (session == null || !session.pause(SystemClock.elapsedRealtime())) {
+                Log.w(TAG, "没有计时中的定时会话，无法暂停");
+                return false;
             }
+            disarm();
+            saveSession(session);
+            Log.d(TAG, "定时器已暂停，剩余: " + session.remainingAt(SystemClock.elapsedRealtime()) + "ms");
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "暂停定时器失败", e);
+            return false;
+        }
+    }
 
+    /**
+     * 恢复计时：按剩余时间重新设置定时器
+     * @return 没有已暂停的会话时返回false
+     */
+    public synchronized boolean resume() {
+        try {
+            TimerSession session = loadSession();
+            if (session == null || !session.resume(SystemClock.elapsedRealtime())) {
+                Log.w(TAG, "没有已暂停的定时会话，无法恢复");
+                return false;
+            }
+            saveSession(session);
+            arm(session);
+            Log.d(TAG, "定时器已恢复，剩余: " + session.remainingAt(SystemClock.elapsedRealtime()) + "ms");
             return true;
         } catch (Exception e) {
-            Log.e(TAG, "取消定时器失败", e);
+            Log.e(TAG, "恢复定时器失败", e);
             return false;
         }
     }
 
+    /**
+     * 延长定时时长，传入负数时缩短；计时中时重新设置定时器
+     * @param seconds 延长的秒数
+     * @return 没有定时会话时返回false
+     */
+    public synchronized boolean extend(int seconds) {
+        try {
+            TimerSession session = loadSession();
+            if (session == null) {
+                Log.w(TAG, "没有定时会话，无法延长");
+                return false;
+            }
+            session.extend(SystemClock.elapsedRealtime(), seconds * 1000L);
+            saveSession(session);
+            if (!session.isPaused()) {
+                arm(session);
+            }
+            Log.d(TAG, "定时器已延长" + seconds + "秒，剩余: " + session.remainingAt(SystemClock.elapsedRealtime()) + "ms");
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "延长定时器失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 获取定时器剩余时间，暂停期间保持不变
+     * @return 剩余毫秒数，已到期时返回0，没有定时会话时返回-1
+     */
+    public synchronized long getRemainingMillis() {
+        TimerSession session = loadSession();
+        return session != null ? session.remainingAt(SystemClock.elapsedRealtime()) : -1;
+    }
+
+    /**
+     * 定时会话是否处于暂停状态
+     */
+    public synchronized boolean isPaused() {
+        TimerSession session = loadSession();
+        return session != null && session.isPaused();
+    }
+
     /**
      * 检查定时器是否已设置
      * @return 是否已设置
@@ -139,4 +202,110 @@ public class TimerScheduler {
 
         return pendingIntent != null;
     }
+
+    /**
+     * 按会话的剩余时间设置AlarmManager中唯一的定时器，已有的定时器被替换
+     */
+    private void arm(TimerSession session) {
+        long remainingMs = session.remainingAt(SystemClock.elapsedRealtime());
+
+        // 创建Intent
+        Intent intent = new Intent(context, TimerReceiver.class);
+        intent.putExtra("enableAlarm", session.enableAlarm);
+        intent.putExtra("enableVibration", session.enableVibration);
+        intent.putExtra("timerDuration", session.timerDuration);
+        intent.setAction("com.sleepmeditation.TIMER_TRIGGER");
+
+        // 基于elapsedRealtime设置，不受系统时间调整影响
+        ExactAlarms.schedule(context, alarmManager, intent, TIMER_REQUEST_CODE, remainingMs, session.useAlarmClock);
+    }
+
+    /**
+     * 取消AlarmManager中的定时器，不影响保存的会话
+     */
+    private void disarm() {
+        Intent intent = new Intent(context, TimerReceiver.class);
+        intent.setAction("com.sleepmeditation.TIMER_TRIGGER");
+
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(
+            context,
+            TIMER_REQUEST_CODE,
+            intent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        if (alarmManager != null) {
+            alarmManager.cancel(pendingIntent);
+        }
+        pendingIntent.cancel();
+    }
+
+    /**
+     * 读取保存的定时会话
+     * @return 没有会话，或设备重启后会话已失效时返回null
+     */
+    private TimerSession loadSession() {
+        SharedPreferences preferences = getPreferences(context);
+        long startedAt = preferences.getLong(KEY_STARTED_AT, -1);
+        if (startedAt < 0) {
+            return null;
+        }
+        int savedBootCount = preferences.getInt(KEY_BOOT_COUNT, -1);
+        int bootCount = getBootCount(context);
+        boolean rebooted = savedBootCount >= 0 && bootCount >= 0
+                ? savedBootCount != bootCount
+                // 无法读取开机次数时只能发现重启后elapsedRealtime还没超过开始时间的情况
+                : startedAt > SystemClock.elapsedRealtime();
+        if (rebooted) {
+            // elapsedRealtime在重启后归零，重启前的会话及其定时器都已失效
+            Log.w(TAG, "设备已重启，丢弃之前的定时会话");
+            clearSession(context);
+            return null;
+        }
+        return new TimerSession(
+            startedAt,
+            preferences.getLong(KEY_DURATION_MS, 0),
+            preferences.getLong(KEY_PAUSED_MS, 0),
+            preferences.getLong(KEY_PAUSED_AT, 0),
+            preferences.getBoolean(KEY_ENABLE_ALARM, false),
+            preferences.getBoolean(KEY_ENABLE_VIBRATION, true),
+            preferences.getInt(KEY_TIMER_DURATION, 0),
+            preferences.getBoolean(KEY_USE_ALARM_CLOCK, false)
+        );
+    }
+
+    private void saveSession(TimerSession session) {
+        getPreferences(context).edit()
+            .putLong(KEY_STARTED_AT, session.startedAt)
+            .putLong(KEY_DURATION_MS, session.durationMs)
+            .putLong(KEY_PAUSED_MS, session.pausedMs)
+            .putLong(KEY_PAUSED_AT, session.pausedAt)
+            .putBoolean(KEY_ENABLE_ALARM, session.enableAlarm)
+            .putBoolean(KEY_ENABLE_VIBRATION, session.enableVibration)
+            .putInt(KEY_TIMER_DURATION, session.timerDuration)
+            .putBoolean(KEY_USE_ALARM_CLOCK, session.useAlarmClock)
+            .putInt(KEY_BOOT_COUNT, getBootCount(context))
+            .apply();
+    }
+
+    /**
+     * 清除保存的定时会话，定时器触发或取消后调用
+     */
+    static void clearSession(Context context) {
+        getPreferences(context).edit().clear().apply();
+    }
+
+    /**
+     * 开机次数，Android 7.0以下无法读取时返回-1
+     */
+    private static int getBootCount(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+            return -1;
+        }
+        return Settings.Global.getInt(context.getContentResolver(), Settings.Global.BOOT_COUNT, -1);
+    }
+
+    private static SharedPreferences getPreferences(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
 }
@@ -0,0 +1,83 @@
+package com.sleepmeditation;
+
+/**
+ * 定时会话的计时状态
+ * 所有时间都基于SystemClock.elapsedRealtime，不受系统时间调整影响；
+ * 只做计算，不涉及AlarmManager和持久化，由TimerScheduler负责
+ */
+final class TimerSession {
+    // 开始时间（elapsedRealtime）
+    final long startedAt;
+    // 总时长，延长时增加
+    long durationMs;
+    // 已结束的暂停区间累计时长
+    long pausedMs;
+    // 当前暂停的开始时间，0表示正在计时
+    long pausedAt;
+
+    final boolean enableAlarm;
+    final boolean enableVibration;
+    // 用户选择的定时时长（分钟），触发时原样传给TimerReceiver
+    final int timerDuration;
+    // 是否使用setAlarmClock调度，暂停恢复和延长时沿用
+    final boolean useAlarmClock;
+
+    TimerSession(long startedAt, long durationMs, long pausedMs, long pausedAt,
+                 boolean enableAlarm, boolean enableVibration, int timerDuration, boolean useAlarmClock) {
+        this.startedAt = startedAt;
+        this.durationMs = durationMs;
+        this.pausedMs = pausedMs;
+        this.pausedAt = pausedAt;
+        this.enableAlarm = enableAlarm;
+        this.enableVibration = enableVibration;
+        this.timerDuration = timerDuration;
+        this.useAlarmClock = useAlarmClock;
+    }
+
+    boolean isPaused() {
+        return pausedAt != 0;
+    }
+
+    /**
+     * 计算指定时刻的剩余时间，暂停期间保持不变
+     * @return 剩余毫秒数，不小于0
+     */
+    long remainingAt(long now) {
+        long paused = pausedMs + (isPaused() ? now - pausedAt : 0);
+        long elapsed = now - startedAt - paused;
+        return Math.max(0, durationMs - elapsed);
+    }
+
+    /**
+     * 暂停计时
+     * @return 已经暂停时返回false
+     */
+    boolean pause(long now) {
+        if (isPaused()) {
+            return false;
+        }
+        pausedAt = now;
+        return true;
+    }
+
+    /**
+     * 恢复计时，暂停区间计入pausedMs
+     * @return 没有暂停时返回false
+     */
+    boolean resume(long now) {
+        if (!isPaused()) {
+            return false;
+        }
+        pausedMs += now - pausedAt;
+        pausedAt = 0;
+        return true;
+    }
+
+    /**
+     * 延长（或在传入负数时缩短）定时时长，缩短后剩余时间最少为0
+     */
+    void extend(long now, long deltaMs) {
+        long remaining = remainingAt(now);
+        durationMs += Math.max(deltaMs, -remaining);
+    }
+}
@@ -0,0 +1,516 @@
+package com.sleepmeditation;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.util.Log;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * WebView资源拦截器
+ * 把WebView的资源请求映射到APK assets：网页资源优先从内存映射的web.pack切片返回，
+ * 不在资源包中的经由字节缓存返回，
+ * 音频等大文件直接从assets流式读取并支持HTTP Range分段请求
+ *
+ * 网页通过虚拟的 https://appassets.local/ 源加载，响应带有Cache-Control和
+ * 基于内容哈希的ETag/Last-Modified，使WebView的HTTP缓存和V8代码缓存可以跨启动复用
+ *
+ * 文本资源在构建时生成了一个.br或.gz预压缩版本：请求声明支持该编码时直接返回压缩字节并设置Content-Encoding，
+ * 否则返回原文件（资源包切片或assets），不在Java中解压
+ */
+public class WebAssetInterceptor {
+    private static final String TAG = "WebAssetInterceptor";
+
+    // 虚拟源，映射到assets/public目录
+    public static final String APP_ORIGIN = "https://appassets.local";
+    public static final String APP_START_URL = APP_ORIGIN + "/index.html";
+    private static final String APP_ORIGIN_PREFIX = APP_ORIGIN + "/";
+    private static final String WEB_ROOT = "public/";
+
+    private static final String ANDROID_ASSET_PREFIX = "file:///android_asset/";
+    private static final String FILE_PREFIX = "file:///";
+
+    // Vite构建产物的文件名带有内容哈希，可以长期缓存
+    private static final String CACHE_CONTROL_IMMUTABLE = "public, max-age=31536000, immutable";
+    // 入口页面等文件名固定的资源，每次使用前通过ETag校验
+    private static final String CACHE_CONTROL_REVALIDATE = "no-cache";
+
+    // 预压缩编码对应的文件后缀，与build.gradle中的assetEncodings一致
+    private static final Map<String, String> ENCODING_SUFFIXES = new HashMap<>();
+
+    static {
+        ENCODING_SUFFIXES.put("br", ".br");
+        ENCODING_SUFFIXES.put("gzip", ".gz");
+    }
+
+    // 网页资源字节缓存，进程内共享，Activity重建或渲染进程重启后仍可命中
+    private static final AssetCache assetCache = new AssetCache(4 * 1024 * 1024, 1024 * 1024);
+    // HTTP日期格式，非线程安全，使用时需同步
+    private static final SimpleDateFormat HTTP_DATE_FORMAT;
+    // 内存映射的网页资源包，进程内只映射一次；为null时退回逐个读取assets
+    private static WebBundle webBundle;
+    private static boolean webBundleLoaded = false;
+
+    static {
+        HTTP_DATE_FORMAT = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+        HTTP_DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("GMT"));
+    }
+
+    private final AssetManager assetManager;
+    private final AssetManifest assetManifest;
+
+    public WebAssetInterceptor(Context context) {
+        this.assetManager = context.getAssets();
+        this.assetManifest = AssetManifest.getInstance(context);
+        synchronized (WebAssetInterceptor.class) {
+            if (!webBundleLoaded) {
+                webBundle = WebBundle.load(context.getApplicationContext());
+                webBundleLoaded = true;
+            }
+        }
+    }
+
+    /**
+     * 拦截WebView资源请求
+     * @return 资源响应，不属于assets的请求返回null交给WebView默认处理
+     */
+    public WebResourceResponse intercept(WebResourceRequest request) {
+        String url = request.getUrl().toString();
+
+        // 通过资源清单一次查找得到实际路径
+        AssetManifest.Entry asset = null;
+        if (url.startsWith(APP_ORIGIN_PREFIX)) {
+            String path = AssetCache.normalizePath(url.substring(APP_ORIGIN_PREFIX.length()));
+            asset = assetManifest.resolve(WEB_ROOT + (path.isEmpty() ? "index.html" : path));
+        } else if (url.startsWith(ANDROID_ASSET_PREFIX)) {
+            asset = assetManifest.resolve(url.substring(ANDROID_ASSET_PREFIX.length()));
+        } else if (url.startsWith(FILE_PREFIX)) {
+            // 相对路径的资源请求，如 sounds/3.mp3、assets/index.js
+            asset = assetManifest.resolve(url.substring(FILE_PREFIX.length()));
+        }
+
+        if (asset == null) {
+            if (url.startsWith(APP_ORIGIN_PREFIX)) {
+                Log.w(TAG, "虚拟源下找不到资源: " + url);
+                return notFound();
+            }
+            return null;
+        }
+
+        boolean audio = asset.mimeType.startsWith("audio/");
+        String encoding = audio ? null : negotiateEncoding(asset, getHeader(request, "Accept-Encoding"));
+
+        // 内容未变化时直接返回304，WebView使用本地缓存
+        String etag = getETag(asset, encoding);
+        if (etag != null && etag.equals(getHeader(request, "If-None-Match"))) {
+            return notModified(asset, encoding);
+        }
+
+        try {
+            if (audio) {
+                return streamAsset(asset, getHeader(request, "Range"));
+            }
+
+            if (encoding != null) {
+                // 预压缩字节原样返回，由WebView解压
+                AssetCache.Entry entry = assetCache.get(asset.path + ENCODING_SUFFIXES.get(encoding), encodedAssetLoader);
+                return new WebResourceResponse(entry.mimeType, "UTF-8", 200, "OK", entry.headers,
+                        new ByteArrayInputStream(entry.data));
+            }
+
+            WebResourceResponse bundled = serveFromBundle(asset);
+            if (bundled != null) {
+                return bundled;
+            }
+
+            AssetCache.Entry entry = assetCache.get(asset.path, assetLoader);
+            return new WebResourceResponse(entry.mimeType, "UTF-8", 200, "OK", entry.headers,
+                    new ByteArrayInputStream(entry.data));
+        } catch (IOException e) {
+            Log.e(TAG, "无法加载资源: " + asset.path, e);
+            return null;
+        }
+    }
+
+    /**
+     * 从网页资源包返回资源，响应体直接读取映射区域，不打开文件也不复制到堆上
+     * @return 资源不在包中时返回null
+     */
+    private WebResourceResponse serveFromBundle(AssetManifest.Entry asset) {
+        WebBundle bundle;
+        synchronized (WebAssetInterceptor.class) {
+            bundle = webBundle;
+        }
+        if (bundle == null || !asset.path.startsWith(WEB_ROOT)) {
+            return null;
+        }
+
+        ByteBuffer slice = bundle.slice(asset.path.substring(WEB_ROOT.length()));
+        if (slice == null) {
+            return null;
+        }
+        Map<String, String> headers = buildHeaders(asset, null);
+        headers.put("Content-Length", String.valueOf(slice.remaining()));
+        return new WebResourceResponse(asset.mimeType, "UTF-8", 200, "OK", headers,
+                new WebBundle.ByteBufferInputStream(slice));
+    }
+
+    /**
+     * 流式返回资源，支持单区间的Range请求
+     * 媒体元素拖动进度或循环重播时只读取需要的字节，不必从头读取整个文件
+     */
+    private WebResourceResponse streamAsset(AssetManifest.Entry asset, String rangeHeader) throws IOException {
+        long size = asset.size >= 0 ? asset.size : querySize(asset);
+        Map<String, String> headers = buildHeaders(asset, null);
+        headers.put("Accept-Ranges", "bytes");
+
+        long[] range = size >= 0 ? parseRange(rangeHeader, size) : null;
+        if (range == null) {
+            if (size >= 0) {
+                headers.put("Content-Length", String.valueOf(size));
+            }
+            return new WebResourceResponse(asset.mimeType, null, 200, "OK", headers, openAt(asset, 0));
+        }
+
+        if (range.length == 0) {
+            // 请求区间超出文件范围
+            headers.put("Content-Range", "bytes */" + size);
+            return new WebResourceResponse(asset.mimeType, null, 416, "Range Not Satisfiable", headers,
+                    new ByteArrayInputStream(new byte[0]));
+        }
+
+        long start = range[0];
+        long end = range[1];
+        long length = end - start + 1;
+        headers.put("Content-Range", "bytes " + start + "-" + end + "/" + size);
+        headers.put("Content-Length", String.valueOf(length));
+        Log.d(TAG, "分段返回资源: " + asset.path + " [" + start + "-" + end + "/" + size + "]");
+
+        return new WebResourceResponse(asset.mimeType, null, 206, "Partial Content", headers,
+                new BoundedInputStream(openAt(asset, start), length));
+    }
+
+    /**
+     * 从指定偏移打开资源
+     * 未压缩的资源通过AssetFileDescriptor直接定位，压缩存储的资源只能顺序跳过
+     */
+    private InputStream openAt(AssetManifest.Entry asset, long offset) throws IOException {
+        InputStream inputStream;
+        if (asset.stored) {
+            AssetFileDescriptor afd = assetManager.openFd(asset.path);
+            // createInputStream返回的流自带起始偏移和长度限制，关闭时一并关闭描述符
+            inputStream = afd.createInputStream();
+        } else {
+            inputStream = assetManager.open(asset.path);
+        }
+
+        long remaining = offset;
+        while (remaining > 0) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0) {
+                inputStream.close();
+                throw new IOException("无法定位到偏移 " + offset + ": " + asset.path);
+            }
+            remaining -= skipped;
+        }
+        return inputStream;
+    }
+
+    /**
+     * 清单中没有大小信息时查询资源长度
+     */
+    private long querySize(AssetManifest.Entry asset) {
+        if (!asset.stored) {
+            return -1;
+        }
+        try (AssetFileDescriptor afd = assetManager.openFd(asset.path)) {
+            return afd.getLength();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 解析Range请求头
+     * @return null表示没有可用的Range（按完整资源返回），
+     *         空数组表示区间不可满足，否则为[start, end]闭区间
+     */
+    static long[] parseRange(String rangeHeader, long size) {
+        if (rangeHeader == null || !rangeHeader.startsWith("bytes=") || rangeHeader.indexOf(',') >= 0) {
+            // 不支持多区间请求，按完整资源返回
+            return null;
+        }
+
+        String spec = rangeHeader.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+
+            if (first.isEmpty()) {
+                // bytes=-N，表示最后N个字节
+                if (last.isEmpty()) {
+                    return null;
+                }
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new long[0];
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                if (!last.isEmpty() && Long.parseLong(last) < start) {
+                    // 结束位置小于起始位置的区间语法无效，按RFC 9110忽略Range返回完整资源
+                    return null;
+                }
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+
+            if (start >= size) {
+                return new long[0];
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 根据Accept-Encoding选择预压缩版本
+     * @return 编码名称，请求不接受任何可用编码时返回null
+     */
+    static String negotiateEncoding(AssetManifest.Entry asset, String acceptEncoding) {
+        if (acceptEncoding == null || asset.encodings.isEmpty()) {
+            return null;
+        }
+
+        // asset.encodings已按优先级排列，取第一个被接受的编码
+        for (String encoding : asset.encodings) {
+            for (String token : acceptEncoding.split(",")) {
+                String[] parts = token.trim().split(";");
+                if (!parts[0].trim().equalsIgnoreCase(encoding)) {
+                    continue;
+                }
+                boolean rejected = false;
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            rejected = Double.parseDouble(param.substring(2)) <= 0;
+                        } catch (NumberFormatException e) {
+                            rejected = true;
+                        }
+                    }
+                }
+                if (!rejected) {
+                    return encoding;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 构造资源的响应头：跨域、缓存策略、校验器和内容编码
+     * @param encoding 响应体的Content-Encoding，未压缩时为null
+     */
+    private static Map<String, String> buildHeaders(AssetManifest.Entry asset, String encoding) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Access-Control-Allow-Origin", "*");
+        if (encoding != null) {
+            headers.put("Content-Encoding", encoding);
+        }
+        if (!asset.encodings.isEmpty()) {
+            headers.put("Vary", "Accept-Encoding");
+        }
+
+        String etag = getETag(asset, encoding);
+        if (etag != null) {
+            boolean hashedName = asset.path.startsWith(WEB_ROOT + "assets/");
+            headers.put("Cache-Control", hashedName ? CACHE_CONTROL_IMMUTABLE : CACHE_CONTROL_REVALIDATE);
+            headers.put("ETag", etag);
+            if (asset.lastModified > 0) {
+                synchronized (HTTP_DATE_FORMAT) {
+                    headers.put("Last-Modified", HTTP_DATE_FORMAT.format(new Date(asset.lastModified)));
+                }
+            }
+        } else {
+            headers.put("Cache-Control", CACHE_CONTROL_REVALIDATE);
+        }
+        return headers;
+    }
+
+    /**
+     * 每种编码的表示使用不同的ETag
+     */
+    private static String getETag(AssetManifest.Entry asset, String encoding) {
+        if (asset.hash == null) {
+            return null;
+        }
+        return "\"" + asset.hash + (encoding != null ? "-" + encoding : "") + "\"";
+    }
+
+    private static WebResourceResponse notModified(AssetManifest.Entry asset, String encoding) {
+        Map<String, String> headers = buildHeaders(asset, encoding);
+        headers.remove("Content-Encoding");
+        return new WebResourceResponse(asset.mimeType, null, 304, "Not Modified", headers,
+                new ByteArrayInputStream(new byte[0]));
+    }
+
+    private static WebResourceResponse notFound() {
+        return new WebResourceResponse("text/plain", "UTF-8", 404, "Not Found",
+                Collections.singletonMap("Access-Control-Allow-Origin", "*"),
+                new ByteArrayInputStream(new byte[0]));
+    }
+
+    private static String getHeader(WebResourceRequest request, String name) {
+        Map<String, String> headers = request.getRequestHeaders();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 资源缓存未命中时从AssetManager读取原文件的完整字节
+     */
+    private final AssetCache.Loader assetLoader = new AssetCache.Loader() {
+        @Override
+        public AssetCache.Entry load(String path) throws IOException {
+            AssetManifest.Entry asset = assetManifest.resolve(path);
+            try (InputStream inputStream = assetManager.open(path)) {
+                byte[] data = readFully(inputStream, asset != null ? asset.size : -1);
+                Map<String, String> headers = asset != null
+                        ? Collections.unmodifiableMap(buildHeaders(asset, null))
+                        : Collections.singletonMap("Access-Control-Allow-Origin", "*");
+                return new AssetCache.Entry(data, assetManifest.getMimeType(path), headers);
+            }
+        }
+    };
+
+    /**
+     * 读取预压缩版本的原始字节，缓存键为带编码后缀的路径
+     */
+    private final AssetCache.Loader encodedAssetLoader = new AssetCache.Loader() {
+        @Override
+        public AssetCache.Entry load(String path) throws IOException {
+            for (Map.Entry<String, String> suffix : ENCODING_SUFFIXES.entrySet()) {
+                if (!path.endsWith(suffix.getValue())) {
+                    continue;
+                }
+                AssetManifest.Entry asset = assetManifest.resolve(path.substring(0, path.length() - suffix.getValue().length()));
+                if (asset == null) {
+                    break;
+                }
+                try (InputStream inputStream = assetManager.open(path)) {
+                    Map<String, String> headers = buildHeaders(asset, suffix.getKey());
+                    byte[] data = readFully(inputStream, -1);
+                    headers.put("Content-Length", String.valueOf(data.length));
+                    return new AssetCache.Entry(data, asset.mimeType, Collections.unmodifiableMap(headers));
+                }
+            }
+            throw new IOException("找不到预压缩资源: " + path);
+        }
+    };
+
+    private static byte[] readFully(InputStream inputStream, long expectedSize) throws IOException {
+        int initialSize = expectedSize > 0 ? (int) expectedSize : Math.max(inputStream.available(), 8192);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(initialSize);
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 内存紧张时释放资源缓存
+     */
+    public static void trimMemory() {
+        Log.d(TAG, "释放资源缓存: " + assetCache.getStats());
+        assetCache.clear();
+    }
+
+    /**
+     * 获取资源缓存统计信息
+     */
+    public static String getCacheStats() {
+        return assetCache.getStats();
+    }
+
+    /**
+     * 限制读取长度的输入流，用于返回Range区间
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = super.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.sleepmeditation;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 打包的网页资源
+ * 构建时把assets/public下的网页资源打包成一个未压缩的web.pack文件，
+ * 运行时只内存映射一次，每个资源以ByteBuffer切片返回，不再逐个打开文件也不复制到堆上
+ *
+ * 文件格式（大端序）：
+ * magic(4) version(4) count(4)，随后count个索引项：
+ * pathLength(2) path(UTF-8) offset(8) length(8)，索引之后为各资源数据，offset相对于文件开头
+ */
+public final class WebBundle {
+    private static final String TAG = "WebBundle";
+    public static final String BUNDLE_PATH = "web.pack";
+
+    static final int MAGIC = 0x534D5742; // "SMWB"
+    static final int VERSION = 1;
+
+    private final ByteBuffer mapped;
+    private final Map<String, int[]> index;
+
+    private WebBundle(ByteBuffer mapped, Map<String, int[]> index) {
+        this.mapped = mapped;
+        this.index = index;
+    }
+
+    /**
+     * 从assets内存映射打包文件
+     * @return 打包资源，文件不存在或被压缩存储时返回null
+     */
+    public static WebBundle load(Context context) {
+        long start = System.currentTimeMillis();
+        try (AssetFileDescriptor afd = context.getAssets().openFd(BUNDLE_PATH);
+             FileInputStream inputStream = afd.createInputStream()) {
+            WebBundle bundle = map(inputStream.getChannel(), afd.getStartOffset(), afd.getLength());
+            Log.d(TAG, "网页资源包已映射: " + bundle.size() + "个文件, " + afd.getLength() + "字节, 耗时"
+                    + (System.currentTimeMillis() - start) + "ms");
+            return bundle;
+        } catch (IOException e) {
+            Log.w(TAG, "无法映射网页资源包，改为逐个读取assets: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 映射文件中的一段区域并解析索引
+     * 映射在通道关闭后依然有效
+     */
+    static WebBundle map(FileChannel channel, long offset, long length) throws IOException {
+        return parse(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    static WebBundle parse(ByteBuffer buffer) throws IOException {
+        ByteBuffer header = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (header.remaining() < 12 || header.getInt() != MAGIC) {
+            throw new IOException("不是有效的网页资源包");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("不支持的资源包版本: " + version);
+        }
+
+        int count = header.getInt();
+        Map<String, int[]> index = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            byte[] pathBytes = new byte[header.getShort() & 0xFFFF];
+            header.get(pathBytes);
+            long entryOffset = header.getLong();
+            long entryLength = header.getLong();
+            if (entryOffset < 0 || entryLength < 0 || entryOffset + entryLength > buffer.capacity()) {
+                throw new IOException("资源包索引越界: " + new String(pathBytes, StandardCharsets.UTF_8));
+            }
+            index.put(new String(pathBytes, StandardCharsets.UTF_8), new int[]{(int) entryOffset, (int) entryLength});
+        }
+        return new WebBundle(buffer, index);
+    }
+
+    public boolean contains(String path) {
+        return index.containsKey(path);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 获取资源数据
+     * @param path 相对于public/的路径
+     * @return 指向映射区域的只读切片，资源不存在时返回null
+     */
+    public ByteBuffer slice(String path) {
+        int[] entry = index.get(path);
+        if (entry == null) {
+            return null;
+        }
+        // duplicate只复制位置信息，多个线程可以同时读取不同的切片
+        ByteBuffer view = mapped.duplicate();
+        view.position(entry[0]);
+        view.limit(entry[0] + entry[1]);
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * 以输入流形式读取资源
+     */
+    public InputStream openStream(String path) {
+        ByteBuffer slice = slice(path);
+        return slice != null ? new ByteBufferInputStream(slice) : null;
+    }
+
+    /**
+     * 基于ByteBuffer的输入流
+     */
+    static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
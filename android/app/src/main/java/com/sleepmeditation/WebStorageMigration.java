@@ -0,0 +1,135 @@
+package com.sleepmeditation;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 网页存储从file://源迁移到https虚拟源
+ * 旧版本从 file:///android_asset/public/index.html 加载，localStorage和IndexedDB属于file://源；
+ * 改为 https://appassets.local 后这些数据在新源下不可见。升级后第一次启动时先在file://源加载
+ * 导出页，把数据交给原生层保存为文件，再加载新源的页面，由网页在渲染前导入并通知完成
+ *
+ * 导出成功写入文件后不再导出；导出超时或写入失败时旧数据仍在file://源下，下次启动重试，
+ * 连续失败MAX_EXPORT_ATTEMPTS次后放弃，避免每次启动都先加载导出页
+ * 导入完成前文件一直保留，中途退出时下次启动继续导入
+ */
+final class WebStorageMigration {
+    private static final String TAG = "WebStorageMigration";
+    private static final String PREFS_NAME = "web_storage_migration";
+    private static final String KEY_EXPORTED = "fileOriginExported";
+    private static final String KEY_FAILED_ATTEMPTS = "exportFailedAttempts";
+    private static final int MAX_EXPORT_ATTEMPTS = 3;
+    private static final String EXPORT_FILE = "file_origin_storage.json";
+
+    // 导出页，必须位于file://源下才能读取旧数据
+    static final String EXPORT_URL = "file:///android_asset/storage_migration.html";
+
+    private final SharedPreferences preferences;
+    private final File exportFile;
+
+    /**
+     * 需要在WebView创建之前构造：全新安装时WebView数据目录还不存在，直接标记为无需导出
+     */
+    WebStorageMigration(Context context) {
+        this.preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.exportFile = new File(context.getFilesDir(), EXPORT_FILE);
+        if (!preferences.getBoolean(KEY_EXPORTED, false)
+                && !new File(context.getApplicationInfo().dataDir, "app_webview").isDirectory()) {
+            markExported();
+            Log.d(TAG, "没有旧的WebView数据，无需迁移");
+        }
+    }
+
+    /**
+     * 是否需要先加载导出页
+     */
+    boolean needsExport() {
+        return !preferences.getBoolean(KEY_EXPORTED, false);
+    }
+
+    /**
+     * 保存导出页交来的数据，写入成功后不再导出
+     * @param json 导出的localStorage和IndexedDB内容
+     * @return 是否写入成功，失败时下次启动重新导出
+     */
+    synchronized boolean saveExport(String json) {
+        try (FileOutputStream output = new FileOutputStream(exportFile)) {
+            output.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.e(TAG, "保存网页存储失败", e);
+            exportFile.delete();
+            recordFailedAttempt();
+            return false;
+        }
+        Log.d(TAG, "已保存file://源的网页存储: " + json.length() + "字符");
+        markExported();
+        return true;
+    }
+
+    /**
+     * 导出页没有按时响应，旧数据仍在file://源下，下次启动重试
+     */
+    void onExportTimeout() {
+        Log.w(TAG, "导出网页存储超时");
+        recordFailedAttempt();
+    }
+
+    /**
+     * 记录一次失败，达到上限后放弃迁移
+     */
+    private void recordFailedAttempt() {
+        int attempts = preferences.getInt(KEY_FAILED_ATTEMPTS, 0) + 1;
+        if (attempts >= MAX_EXPORT_ATTEMPTS) {
+            Log.w(TAG, "导出网页存储连续失败" + attempts + "次，放弃迁移");
+            markExported();
+            return;
+        }
+        preferences.edit().putInt(KEY_FAILED_ATTEMPTS, attempts).apply();
+        Log.w(TAG, "导出网页存储失败" + attempts + "次，下次启动重试");
+    }
+
+    /**
+     * 读取待导入的数据
+     * @return 没有待导入的数据时返回空字符串
+     */
+    synchronized String takeExport() {
+        if (!exportFile.isFile()) {
+            return "";
+        }
+        try (FileInputStream input = new FileInputStream(exportFile)) {
+            byte[] data = new byte[(int) exportFile.length()];
+            int offset = 0;
+            while (offset < data.length) {
+                int read = input.read(data, offset, data.length - offset);
+                if (read < 0) {
+                    break;
+                }
+                offset += read;
+            }
+            return new String(data, 0, offset, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Log.e(TAG, "读取待导入的网页存储失败", e);
+            return "";
+        }
+    }
+
+    /**
+     * 网页导入完成后删除文件
+     */
+    synchronized void completeImport() {
+        if (exportFile.delete()) {
+            Log.d(TAG, "网页存储迁移完成");
+        }
+    }
+
+    private void markExported() {
+        preferences.edit().putBoolean(KEY_EXPORTED, true).remove(KEY_FAILED_ATTEMPTS).apply();
+    }
+}
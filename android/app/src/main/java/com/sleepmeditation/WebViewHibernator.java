@@ -0,0 +1,272 @@
+package com.sleepmeditation;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.webkit.WebView;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * 睡眠会话期间的WebView休眠
+ * 会话中熄屏时通知网页停止界面刷新，随后调用pauseTimers暂停所有JS计时器，剩余时间改由TimerScheduler提供；
+ * 亮屏时恢复计时器，并推送一次会话快照，网页据此一次性更新界面
+ *
+ * 每次会话中的熄屏期间统计进程CPU时间和线程主动切换次数（近似唤醒次数），
+ * 按是否休眠分别累计，换算成每小时的数值用于对比
+ */
+public class WebViewHibernator {
+    private static final String TAG = "WebViewHibernator";
+    // 发出休眠事件后等待网页清除自己的定时器，再暂停JS计时器
+    private static final long PAUSE_TIMERS_DELAY_MS = 300;
+    private static final long HOUR_MS = 60L * 60 * 1000;
+
+    private final Context context;
+    private final WebView webView;
+    private final TimerScheduler timerScheduler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private boolean registered = false;
+    private volatile boolean enabled = true;
+    private boolean hibernating = false;
+    private boolean timersPaused = false;
+
+    // 当前熄屏期间的起点，screenOffAt为0表示不在统计中
+    private long screenOffAt = 0;
+    private long screenOffCpuMs = 0;
+    private long screenOffSwitches = 0;
+
+    private final Period hibernatedPeriods = new Period();
+    private final Period awakePeriods = new Period();
+
+    /**
+     * 熄屏期间的累计统计
+     */
+    private static final class Period {
+        int count = 0;
+        long wallMs = 0;
+        long cpuMs = 0;
+        long switches = 0;
+
+        void add(long wallMs, long cpuMs, long switches) {
+            count++;
+            this.wallMs += wallMs;
+            this.cpuMs += cpuMs;
+            this.switches += switches;
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONObject json = new JSONObject();
+            json.put("periods", count);
+            json.put("minutes", wallMs / 60000.0);
+            json.put("cpuMsPerHour", perHour(cpuMs, wallMs));
+            json.put("wakeupsPerHour", perHour(switches, wallMs));
+            return json;
+        }
+    }
+
+    public WebViewHibernator(Context context, WebView webView, TimerScheduler timerScheduler) {
+        this.context = context;
+        this.webView = webView;
+        this.timerScheduler = timerScheduler;
+    }
+
+    private final BroadcastReceiver screenReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (Intent.ACTION_SCREEN_OFF.equals(intent.getAction())) {
+                onScreenOff();
+            } else if (Intent.ACTION_SCREEN_ON.equals(intent.getAction())) {
+                onScreenOn();
+            }
+        }
+    };
+
+    private final Runnable pauseTimers = new Runnable() {
+        @Override
+        public void run() {
+            webView.pauseTimers();
+            timersPaused = true;
+            Log.d(TAG, "JS计时器已暂停");
+        }
+    };
+
+    /**
+     * 开始监听屏幕开关，需要在主线程调用
+     */
+    public void register() {
+        if (registered) {
+            return;
+        }
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_SCREEN_OFF);
+        filter.addAction(Intent.ACTION_SCREEN_ON);
+        // 屏幕广播只能动态注册，由系统发出
+        context.registerReceiver(screenReceiver, filter);
+        registered = true;
+    }
+
+    /**
+     * 停止监听并恢复JS计时器；pauseTimers作用于整个进程，Activity销毁前必须恢复
+     */
+    public void unregister() {
+        if (!registered) {
+            return;
+        }
+        context.unregisterReceiver(screenReceiver);
+        registered = false;
+        wake(false);
+        screenOffAt = 0;
+    }
+
+    /**
+     * 设置是否在熄屏时休眠，关闭后仍统计熄屏期间的CPU占用，用于对比
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        Log.d(TAG, "WebView休眠" + (enabled ? "已启用" : "已关闭"));
+    }
+
+    /**
+     * 是否处于睡眠会话：音频播放或暂停中，或者定时器尚未到期
+     */
+    private boolean isSessionActive() {
+        return AudioEngine.getStateIfCreated().hasSession()
+                || timerScheduler.getRemainingMillis() > 0;
+    }
+
+    private void onScreenOff() {
+        if (!isSessionActive()) {
+            Log.d(TAG, "熄屏，没有进行中的会话，不休眠");
+            return;
+        }
+
+        screenOffAt = SystemClock.elapsedRealtime();
+        screenOffCpuMs = Process.getElapsedCpuTime();
+        screenOffSwitches = readVoluntarySwitches();
+
+        if (!enabled) {
+            Log.d(TAG, "熄屏，休眠已关闭，网页继续运行");
+            return;
+        }
+
+        hibernating = true;
+        NativeEvents.getInstance().emit(NativeEvents.HIBERNATION,
+                NativeEvents.payload("hibernating", true));
+        mainHandler.postDelayed(pauseTimers, PAUSE_TIMERS_DELAY_MS);
+        Log.d(TAG, "熄屏，网页进入休眠，剩余时间: " + timerScheduler.getRemainingMillis() + "ms");
+    }
+
+    private void onScreenOn() {
+        if (screenOffAt != 0) {
+            recordPeriod();
+        }
+        wake(true);
+    }
+
+    /**
+     * 结束休眠：恢复JS计时器，需要时推送会话快照
+     */
+    private void wake(boolean sendSnapshot) {
+        if (!hibernating) {
+            return;
+        }
+        hibernating = false;
+        mainHandler.removeCallbacks(pauseTimers);
+        if (timersPaused) {
+            webView.resumeTimers();
+            timersPaused = false;
+        }
+        if (sendSnapshot) {
+            NativeEvents.getInstance().emit(NativeEvents.SESSION_SNAPSHOT, createSnapshot());
+        }
+        Log.d(TAG, "网页结束休眠");
+    }
+
+    private JSONObject createSnapshot() {
+        AudioEngine.State state = AudioEngine.getStateIfCreated();
+        JSONObject snapshot = new JSONObject();
+        try {
+            snapshot.put("remainingMs", timerScheduler.getRemainingMillis());
+            snapshot.put("timerSet", timerScheduler.isTimerSet());
+            snapshot.put("regularFile", state.regularFile != null ? state.regularFile : JSONObject.NULL);
+            snapshot.put("regularPlaying", state.regularPlaying);
+            snapshot.put("ambientPlaying", state.ambientPlaying);
+            snapshot.put("alarmPlaying", state.alarmPlaying);
+        } catch (JSONException e) {
+            Log.e(TAG, "构造会话快照失败", e);
+        }
+        return snapshot;
+    }
+
+    private synchronized void recordPeriod() {
+        long wallMs = SystemClock.elapsedRealtime() - screenOffAt;
+        long cpuMs = Process.getElapsedCpuTime() - screenOffCpuMs;
+        // 熄屏期间退出的线程不再计入，结果可能略小
+        long switches = Math.max(0, readVoluntarySwitches() - screenOffSwitches);
+        screenOffAt = 0;
+
+        Period period = hibernating ? hibernatedPeriods : awakePeriods;
+        period.add(wallMs, cpuMs, switches);
+        Log.d(TAG, "熄屏" + (hibernating ? "（休眠）" : "（未休眠）") + wallMs / 1000 + "秒, CPU "
+                + perHour(cpuMs, wallMs) + "ms/小时, 唤醒 " + perHour(switches, wallMs) + "次/小时");
+    }
+
+    /**
+     * 获取熄屏期间的统计，休眠与未休眠分开，可在任意线程调用
+     * @return JSON字符串，形如 {"hibernated": {...}, "awake": {...}}
+     */
+    public synchronized String getStats() {
+        try {
+            JSONObject stats = new JSONObject();
+            stats.put("enabled", enabled);
+            stats.put("hibernated", hibernatedPeriods.toJson());
+            stats.put("awake", awakePeriods.toJson());
+            return stats.toString();
+        } catch (JSONException e) {
+            Log.e(TAG, "构造休眠统计失败", e);
+            return "{}";
+        }
+    }
+
+    private static long perHour(long value, long wallMs) {
+        return wallMs > 0 ? value * HOUR_MS / wallMs : 0;
+    }
+
+    /**
+     * 进程内所有线程的主动上下文切换次数之和，每次主动切换对应线程的一次睡眠和唤醒
+     */
+    private static long readVoluntarySwitches() {
+        File[] tasks = new File("/proc/self/task").listFiles();
+        if (tasks == null) {
+            return 0;
+        }
+        long total = 0;
+        for (File task : tasks) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(new File(task, "status")))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("voluntary_ctxt_switches:")) {
+                        total += Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+                        break;
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // 线程已退出
+            }
+        }
+        return total;
+    }
+}
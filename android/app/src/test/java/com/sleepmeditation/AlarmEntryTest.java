@@ -0,0 +1,85 @@
+package com.sleepmeditation;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * 闹钟下一次触发时间的计算
+ */
+public class AlarmEntryTest {
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private static long at(int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance(UTC);
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+
+    private static AlarmEntry repeating(int hour, int minute, int weekdays) {
+        return new AlarmEntry(1, hour, minute, weekdays, AlarmEntry.KIND_WAKE, "", true, false, 0);
+    }
+
+    @Test
+    public void oneShot_firesTodayOrTomorrow() {
+        AlarmEntry entry = repeating(7, 30, 0);
+        // 2026-10-12是周一
+        assertEquals(at(2026, Calendar.OCTOBER, 12, 7, 30), entry.computeNext(at(2026, Calendar.OCTOBER, 12, 6, 0), UTC));
+        assertEquals(at(2026, Calendar.OCTOBER, 13, 7, 30), entry.computeNext(at(2026, Calendar.OCTOBER, 12, 7, 30), UTC));
+    }
+
+    @Test
+    public void weekdays_skipToNextSelectedDay() {
+        // 周一到周五
+        AlarmEntry entry = repeating(7, 0, 0x1F);
+        // 周五8点之后，下一次是周一
+        assertEquals(at(2026, Calendar.OCTOBER, 19, 7, 0), entry.computeNext(at(2026, Calendar.OCTOBER, 16, 8, 0), UTC));
+        // 周三6点，当天触发
+        assertEquals(at(2026, Calendar.OCTOBER, 14, 7, 0), entry.computeNext(at(2026, Calendar.OCTOBER, 14, 6, 0), UTC));
+    }
+
+    @Test
+    public void singleWeekday_waitsAFullWeekAfterFiring() {
+        // 只有周日
+        AlarmEntry entry = repeating(22, 0, 1 << 6);
+        assertEquals(at(2026, Calendar.OCTOBER, 25, 22, 0), entry.computeNext(at(2026, Calendar.OCTOBER, 18, 22, 0), UTC));
+    }
+
+    @Test
+    public void relative_keepsElapsedDeadlineWhenClockChanges() {
+        AlarmEntry entry = new AlarmEntry(0, -1, 0, 0, AlarmEntry.KIND_WAKE, "", true, false,
+                at(2026, Calendar.OCTOBER, 12, 23, 0));
+        entry.fireAtElapsed = 5000000;
+        // 系统时间往回调了一小时，截止时间仍是elapsedRealtime 5000000
+        long now = at(2026, Calendar.OCTOBER, 12, 21, 0);
+        entry.onClockChanged(now, 1400000, false, UTC);
+        assertEquals(5000000, entry.fireAtElapsed);
+        assertEquals(now + 3600000, entry.nextFireAt);
+        assertEquals(3600000, entry.delayUntilFire(now, 1400000));
+    }
+
+    @Test
+    public void relative_afterReboot_derivesDeadlineFromWallClock() {
+        AlarmEntry entry = new AlarmEntry(0, -1, 0, 0, AlarmEntry.KIND_WAKE, "", true, false,
+                at(2026, Calendar.OCTOBER, 12, 23, 0));
+        entry.fireAtElapsed = 90000000;
+        entry.onClockChanged(at(2026, Calendar.OCTOBER, 12, 22, 0), 20000, true, UTC);
+        assertEquals(20000 + 3600000, entry.fireAtElapsed);
+    }
+
+    @Test
+    public void oneShotTimeOfDay_recomputedWhenClockChanges() {
+        AlarmEntry entry = repeating(7, 30, 0);
+        entry.nextFireAt = at(2026, Calendar.OCTOBER, 13, 7, 30);
+        // 时区或时间变化后已经是13日6点，仍在13日7:30触发
+        entry.onClockChanged(at(2026, Calendar.OCTOBER, 13, 6, 0), 0, false, UTC);
+        assertEquals(at(2026, Calendar.OCTOBER, 13, 7, 30), entry.nextFireAt);
+        // 时间往回调到12日6点，改为12日7:30
+        entry.onClockChanged(at(2026, Calendar.OCTOBER, 12, 6, 0), 0, false, UTC);
+        assertEquals(at(2026, Calendar.OCTOBER, 12, 7, 30), entry.nextFireAt);
+    }
+}
@@ -0,0 +1,98 @@
+package com.sleepmeditation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 闹钟最小堆：按触发时间取出、按ID删除和替换
+ */
+public class AlarmHeapTest {
+
+    private static AlarmEntry alarm(long id, long fireAt) {
+        return new AlarmEntry(id, -1, 0, 0, AlarmEntry.KIND_WAKE, "", true, false, fireAt);
+    }
+
+    @Test
+    public void poll_returnsAlarmsInFireOrder() {
+        AlarmHeap heap = new AlarmHeap();
+        heap.add(alarm(1, 300));
+        heap.add(alarm(2, 100));
+        heap.add(alarm(3, 200));
+        // 触发时间相同时ID小的在前
+        heap.add(alarm(4, 100));
+
+        assertEquals(2, heap.poll().id);
+        assertEquals(4, heap.poll().id);
+        assertEquals(3, heap.poll().id);
+        assertEquals(1, heap.poll().id);
+        assertNull(heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void remove_deletesArbitraryAlarmAndKeepsOrder() {
+        AlarmHeap heap = new AlarmHeap();
+        for (long id = 1; id <= 7; id++) {
+            heap.add(alarm(id, id * 10));
+        }
+        assertEquals(3, heap.remove(3).id);
+        assertNull(heap.remove(3));
+        assertFalse(heap.contains(3));
+        assertEquals(1, heap.remove(1).id);
+
+        assertEquals(2, heap.peek().id);
+        long[] expected = {2, 4, 5, 6, 7};
+        for (long id : expected) {
+            assertEquals(id, heap.poll().id);
+        }
+    }
+
+    @Test
+    public void add_replacesAlarmWithSameId() {
+        AlarmHeap heap = new AlarmHeap();
+        heap.add(alarm(1, 100));
+        heap.add(alarm(2, 200));
+        heap.add(alarm(1, 300));
+
+        assertEquals(2, heap.size());
+        assertEquals(2, heap.poll().id);
+        assertEquals(300, heap.poll().nextFireAt);
+    }
+
+    @Test
+    public void randomOperations_matchSortedReference() {
+        Random random = new Random(42);
+        AlarmHeap heap = new AlarmHeap();
+        List<Long> reference = new ArrayList<>();
+        long nextId = 1;
+
+        for (int step = 0; step < 2000; step++) {
+            int op = random.nextInt(3);
+            if (op < 2 || reference.isEmpty()) {
+                // 触发时间即ID的倍数加随机偏移，便于用触发时间排序作为参照
+                long fireAt = random.nextInt(1000) * 10000L + nextId;
+                heap.add(alarm(nextId++, fireAt));
+                reference.add(fireAt);
+            } else {
+                long fireAt = reference.remove(random.nextInt(reference.size()));
+                assertEquals(fireAt, heap.remove(fireAt % 10000).nextFireAt);
+            }
+            assertEquals(reference.size(), heap.size());
+        }
+
+        Collections.sort(reference);
+        for (long fireAt : reference) {
+            assertEquals(fireAt, heap.poll().nextFireAt);
+        }
+        assertTrue(heap.isEmpty());
+    }
+}
@@ -0,0 +1,60 @@
+package com.sleepmeditation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 音频文件名别名
+ */
+public class AssetManifestTest {
+
+    @Test
+    public void bareNameAliases_mapsUniqueSoundNames() {
+        Set<String> ambiguous = new TreeSet<>();
+        Map<String, String> aliases = AssetManifest.bareNameAliases(Arrays.asList(
+                "public/sounds/1.mp3", "public/sounds/2.mp3", "public/assets/index.js"), ambiguous);
+
+        assertEquals(2, aliases.size());
+        assertEquals("public/sounds/1.mp3", aliases.get("1.mp3"));
+        assertEquals("public/sounds/2.mp3", aliases.get("2.mp3"));
+        assertFalse(aliases.containsKey("index.js"));
+        assertTrue(ambiguous.isEmpty());
+    }
+
+    @Test
+    public void bareNameAliases_skipsDuplicateNames() {
+        Set<String> ambiguous = new TreeSet<>();
+        Map<String, String> aliases = AssetManifest.bareNameAliases(Arrays.asList(
+                "public/sounds/rain.mp3", "public/sounds/night/rain.mp3", "public/sounds/sea/rain.mp3",
+                "public/sounds/3.mp3"), ambiguous);
+
+        assertFalse(aliases.containsKey("rain.mp3"));
+        assertEquals("public/sounds/3.mp3", aliases.get("3.mp3"));
+        assertEquals(Collections.singleton("rain.mp3"), ambiguous);
+    }
+
+    @Test
+    public void bareNameAliases_doNotDependOnOrder() {
+        List<String> paths = Arrays.asList(
+                "public/sounds/night/rain.mp3", "public/sounds/3.mp3", "public/sounds/rain.mp3");
+        Set<String> forwardAmbiguous = new TreeSet<>();
+        Map<String, String> forward = AssetManifest.bareNameAliases(paths, forwardAmbiguous);
+
+        List<String> reversed = Arrays.asList(paths.get(2), paths.get(1), paths.get(0));
+        Set<String> reversedAmbiguous = new TreeSet<>();
+        Map<String, String> backward = AssetManifest.bareNameAliases(reversed, reversedAmbiguous);
+
+        assertEquals(forward, backward);
+        assertEquals(forwardAmbiguous, reversedAmbiguous);
+    }
+}
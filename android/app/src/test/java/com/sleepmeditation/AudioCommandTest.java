@@ -0,0 +1,99 @@
+package com.sleepmeditation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 音频命令在等待方超时取消后的执行和撤销
+ */
+public class AudioCommandTest {
+    private int executed = 0;
+    private int rolledBack = 0;
+    private AudioCommand command;
+
+    private final Runnable rollback = new Runnable() {
+        @Override
+        public void run() {
+            rolledBack++;
+        }
+    };
+
+    private AudioCommand newCommand(final boolean cancelWhileRunning) {
+        return new AudioCommand(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                executed++;
+                if (cancelWhileRunning) {
+                    // 模拟命令执行期间等待方超时
+                    command.cancel(false);
+                }
+                return true;
+            }
+        }, rollback);
+    }
+
+    @Test
+    public void run_withoutCancelKeepsResult() throws Exception {
+        command = newCommand(false);
+
+        command.run();
+
+        assertEquals(1, executed);
+        assertEquals(0, rolledBack);
+        assertTrue(command.get());
+    }
+
+    @Test
+    public void cancel_beforeRunSkipsCommandAndRollback() {
+        command = newCommand(false);
+
+        assertTrue(command.cancel(false));
+        command.run();
+
+        assertEquals(0, executed);
+        assertEquals(0, rolledBack);
+    }
+
+    @Test
+    public void cancel_whileRunningRollsBackAfterCommand() {
+        command = newCommand(true);
+
+        command.run();
+
+        assertEquals(1, executed);
+        assertEquals(1, rolledBack);
+        assertTrue(command.isCancelled());
+    }
+
+    @Test
+    public void cancel_afterRunIsRejected() {
+        command = newCommand(false);
+
+        command.run();
+
+        assertFalse(command.cancel(false));
+        assertEquals(0, rolledBack);
+    }
+
+    @Test
+    public void cancel_whileRunningWithoutRollbackIsAllowed() {
+        command = new AudioCommand(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                executed++;
+                command.cancel(false);
+                return true;
+            }
+        }, null);
+
+        command.run();
+
+        assertEquals(1, executed);
+        assertTrue(command.isCancelled());
+    }
+}
@@ -0,0 +1,64 @@
+package com.sleepmeditation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * 桥接指标直方图的分桶与百分位估算
+ */
+public class BridgeMetricsTest {
+
+    @Test
+    public void bucketOf_usesLog2OfMicros() {
+        assertEquals(0, BridgeMetrics.MethodStats.bucketOf(0));
+        assertEquals(0, BridgeMetrics.MethodStats.bucketOf(1));
+        assertEquals(1, BridgeMetrics.MethodStats.bucketOf(2));
+        assertEquals(1, BridgeMetrics.MethodStats.bucketOf(3));
+        assertEquals(10, BridgeMetrics.MethodStats.bucketOf(1024));
+        assertEquals(BridgeMetrics.BUCKET_COUNT - 1, BridgeMetrics.MethodStats.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentile_returnsUpperBoundOfBucketWithinFactorOfTwo() {
+        BridgeMetrics.MethodStats stats = new BridgeMetrics.MethodStats();
+        // 90次约100微秒，9次约5毫秒，1次约50毫秒
+        for (int i = 0; i < 90; i++) {
+            stats.record(100_000L, false);
+        }
+        for (int i = 0; i < 9; i++) {
+            stats.record(5_000_000L, false);
+        }
+        stats.record(50_000_000L, true);
+
+        assertEquals(100, stats.getCount());
+        assertEquals(1, stats.getErrors());
+        assertEquals(50_000, stats.getMaxMicros());
+
+        long p50 = stats.percentileMicros(0.50);
+        long p95 = stats.percentileMicros(0.95);
+        long p99 = stats.percentileMicros(0.99);
+        assertTrue("p50=" + p50, p50 >= 100 && p50 <= 200);
+        assertTrue("p95=" + p95, p95 >= 5_000 && p95 <= 10_000);
+        assertTrue("p99=" + p99, p99 >= 5_000 && p99 <= 10_000);
+        assertEquals(50_000, stats.percentileMicros(1.0));
+    }
+
+    @Test
+    public void percentile_isZeroWithoutSamples() {
+        assertEquals(0, new BridgeMetrics.MethodStats().percentileMicros(0.99));
+    }
+
+    @Test
+    public void scope_recordsIntoNamedMethod() {
+        BridgeMetrics metrics = new BridgeMetrics();
+        BridgeMetrics.Scope scope = metrics.start("RegularAudioBridge.isRegularAudioPlaying");
+        scope.markFailed();
+        scope.close();
+        metrics.start("RegularAudioBridge.isRegularAudioPlaying").close();
+
+        assertEquals(2, metrics.stats("RegularAudioBridge.isRegularAudioPlaying").getCount());
+        assertEquals(1, metrics.stats("RegularAudioBridge.isRegularAudioPlaying").getErrors());
+    }
+}
@@ -0,0 +1,216 @@
+package com.sleepmeditation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 交叉淡化的等功率增益曲线，以及由Handler驱动的淡化过程
+ */
+public class CrossfaderTest {
+
+    /**
+     * 手动推进的时钟和延迟任务队列，代替引擎线程的Handler
+     */
+    private static class FakeLooper implements Crossfader.Scheduler, Crossfader.Clock {
+        private final List<long[]> dueTimes = new ArrayList<>();
+        private final List<Runnable> tasks = new ArrayList<>();
+        private long nowMs = 0;
+
+        @Override
+        public void postDelayed(Runnable task, long delayMs) {
+            dueTimes.add(new long[]{nowMs + delayMs});
+            tasks.add(task);
+        }
+
+        @Override
+        public void removeCallbacks(Runnable task) {
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                if (tasks.get(i) == task) {
+                    tasks.remove(i);
+                    dueTimes.remove(i);
+                }
+            }
+        }
+
+        @Override
+        public long nanoTime() {
+            return nowMs * 1000000L;
+        }
+
+        /**
+         * 推进时钟，依次执行到期的任务
+         */
+        void advance(long ms) {
+            long target = nowMs + ms;
+            while (true) {
+                int next = -1;
+                for (int i = 0; i < tasks.size(); i++) {
+                    if (dueTimes.get(i)[0] <= target && (next < 0 || dueTimes.get(i)[0] < dueTimes.get(next)[0])) {
+                        next = i;
+                    }
+                }
+                if (next < 0) {
+                    break;
+                }
+                nowMs = Math.max(nowMs, dueTimes.get(next)[0]);
+                dueTimes.remove(next);
+                tasks.remove(next).run();
+            }
+            nowMs = target;
+        }
+
+        boolean isIdle() {
+            return tasks.isEmpty();
+        }
+    }
+
+    private static class RecordingChannel implements Crossfader.Channel {
+        float gain = -1f;
+        int updates = 0;
+
+        @Override
+        public void setGain(float gain) {
+            this.gain = gain;
+            updates++;
+        }
+    }
+
+    private static class RecordingListener implements Crossfader.Listener {
+        int started = 0;
+        int finished = 0;
+
+        @Override
+        public void onCrossfadeStart() {
+            started++;
+        }
+
+        @Override
+        public void onCrossfadeFinished() {
+            finished++;
+        }
+    }
+
+    private final FakeLooper looper = new FakeLooper();
+    private final RecordingChannel fadeOut = new RecordingChannel();
+    private final RecordingChannel fadeIn = new RecordingChannel();
+    private final RecordingListener listener = new RecordingListener();
+
+    private Crossfader newCrossfader(long durationMs) {
+        return new Crossfader(fadeOut, 0.8f, fadeIn, 0.6f, durationMs, looper, looper, listener);
+    }
+
+    @Test
+    public void start_waitsForDelayBeforeTouchingGains() {
+        newCrossfader(1000).start(500);
+
+        looper.advance(499);
+
+        assertEquals(0, listener.started);
+        assertEquals(0, fadeOut.updates);
+        assertEquals(0, fadeIn.updates);
+    }
+
+    @Test
+    public void complete_reachesTargetVolumesAndFinishesOnce() {
+        newCrossfader(1000).start(500);
+
+        looper.advance(500);
+        assertEquals(1, listener.started);
+        assertEquals(0.8f, fadeOut.gain, 1e-6f);
+        assertEquals(0f, fadeIn.gain, 1e-6f);
+
+        looper.advance(500);
+        assertEquals(0.8f * Crossfader.fadeOutGain(0.5f), fadeOut.gain, 1e-6f);
+        assertEquals(0.6f * Crossfader.fadeInGain(0.5f), fadeIn.gain, 1e-6f);
+        assertEquals(0, listener.finished);
+
+        looper.advance(1000);
+        assertEquals(1, listener.started);
+        assertEquals(1, listener.finished);
+        assertEquals(0f, fadeOut.gain, 1e-6f);
+        assertEquals(0.6f, fadeIn.gain, 1e-6f);
+        assertTrue(looper.isIdle());
+    }
+
+    @Test
+    public void complete_withZeroDurationSwitchesImmediately() {
+        newCrossfader(0).start(0);
+
+        looper.advance(0);
+
+        assertEquals(1, listener.started);
+        assertEquals(1, listener.finished);
+        assertEquals(0f, fadeOut.gain, 1e-6f);
+        assertEquals(0.6f, fadeIn.gain, 1e-6f);
+    }
+
+    @Test
+    public void cancel_beforeStartSkipsCallbacks() {
+        Crossfader crossfader = newCrossfader(1000);
+        crossfader.start(500);
+
+        looper.advance(100);
+        crossfader.cancel();
+        looper.advance(5000);
+
+        assertEquals(0, listener.started);
+        assertEquals(0, listener.finished);
+        assertEquals(0, fadeOut.updates);
+        assertEquals(0, fadeIn.updates);
+        assertTrue(looper.isIdle());
+    }
+
+    @Test
+    public void cancel_midFadeStopsGainUpdates() {
+        Crossfader crossfader = newCrossfader(1000);
+        crossfader.start(0);
+
+        looper.advance(300);
+        crossfader.cancel();
+        int outUpdates = fadeOut.updates;
+        int inUpdates = fadeIn.updates;
+        float outGain = fadeOut.gain;
+        looper.advance(5000);
+
+        assertEquals(1, listener.started);
+        assertEquals(0, listener.finished);
+        assertEquals(outUpdates, fadeOut.updates);
+        assertEquals(inUpdates, fadeIn.updates);
+        assertEquals(outGain, fadeOut.gain, 0f);
+        assertFalse(outGain <= 0f);
+        assertTrue(looper.isIdle());
+    }
+
+    @Test
+    public void gains_startAndEndAtFullScale() {
+        assertEquals(0f, Crossfader.fadeInGain(0f), 1e-6f);
+        assertEquals(1f, Crossfader.fadeOutGain(0f), 1e-6f);
+        assertEquals(1f, Crossfader.fadeInGain(1f), 1e-6f);
+        assertEquals(0f, Crossfader.fadeOutGain(1f), 1e-6f);
+    }
+
+    @Test
+    public void gains_keepTotalPowerConstant() {
+        for (int i = 0; i <= 100; i++) {
+            float progress = i / 100f;
+            float in = Crossfader.fadeInGain(progress);
+            float out = Crossfader.fadeOutGain(progress);
+            assertEquals(1f, in * in + out * out, 1e-5f);
+        }
+        // 中点两路各约-3dB，而不是线性淡化的-6dB
+        assertEquals(Math.sqrt(0.5), Crossfader.fadeInGain(0.5f), 1e-5);
+    }
+
+    @Test
+    public void gains_clampProgressOutsideRange() {
+        assertEquals(0f, Crossfader.fadeInGain(-0.5f), 1e-6f);
+        assertEquals(1f, Crossfader.fadeInGain(1.5f), 1e-6f);
+        assertTrue(Crossfader.fadeOutGain(2f) <= 1e-6f);
+    }
+}
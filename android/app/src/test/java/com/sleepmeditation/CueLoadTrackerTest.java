@@ -0,0 +1,76 @@
+package com.sleepmeditation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * 提示音加载完成回调与load返回的两种先后顺序
+ */
+public class CueLoadTrackerTest {
+
+    @Test
+    public void completeAfterStart_marksLoaded() {
+        CueLoadTracker tracker = new CueLoadTracker();
+        assertFalse(tracker.onLoadStarted(1, "bell"));
+        assertNull(tracker.get("bell"));
+        assertEquals("bell", tracker.onLoadComplete(1, true));
+        assertEquals(Integer.valueOf(1), tracker.get("bell"));
+        assertEquals(0, tracker.getPendingCount());
+    }
+
+    @Test
+    public void completeBeforeStart_isReconciledWhenNameArrives() {
+        CueLoadTracker tracker = new CueLoadTracker();
+        // SoundPool线程在load返回前就回调了
+        assertNull(tracker.onLoadComplete(2, true));
+        assertNull(tracker.get("chime"));
+        assertTrue(tracker.onLoadStarted(2, "chime"));
+        assertEquals(Integer.valueOf(2), tracker.get("chime"));
+        assertEquals(0, tracker.getPendingCount());
+    }
+
+    @Test
+    public void failedLoad_isNotPlayableInEitherOrder() {
+        CueLoadTracker tracker = new CueLoadTracker();
+        tracker.onLoadStarted(3, "bell");
+        tracker.onLoadComplete(3, false);
+        assertNull(tracker.onLoadComplete(4, false));
+        assertFalse(tracker.onLoadStarted(4, "chime"));
+        assertNull(tracker.get("bell"));
+        assertNull(tracker.get("chime"));
+        assertEquals(0, tracker.getLoadedCount());
+        assertEquals(0, tracker.getPendingCount());
+    }
+
+    @Test
+    public void concurrentCallbacks_loadEveryCue() throws InterruptedException {
+        final CueLoadTracker tracker = new CueLoadTracker();
+        final int count = 2000;
+        Thread loader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int id = 1; id <= count; id++) {
+                    tracker.onLoadStarted(id, "cue" + id);
+                }
+            }
+        });
+        Thread callbacks = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int id = 1; id <= count; id++) {
+                    tracker.onLoadComplete(id, true);
+                }
+            }
+        });
+        loader.start();
+        callbacks.start();
+        loader.join();
+        callbacks.join();
+        assertEquals(count, tracker.getLoadedCount());
+        assertEquals(0, tracker.getPendingCount());
+    }
+}
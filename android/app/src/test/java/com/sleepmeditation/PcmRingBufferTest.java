@@ -0,0 +1,55 @@
+package com.sleepmeditation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * 环形缓冲区的容量、回绕和满/空边界
+ */
+public class PcmRingBufferTest {
+
+    @Test
+    public void capacity_roundsUpToPowerOfTwo() {
+        assertEquals(8, new PcmRingBuffer(5).capacity());
+        assertEquals(1024, new PcmRingBuffer(1024).capacity());
+    }
+
+    @Test
+    public void write_stopsWhenFull() {
+        PcmRingBuffer ring = new PcmRingBuffer(4);
+        short[] data = {1, 2, 3, 4, 5, 6};
+        assertEquals(4, ring.write(data, 0, data.length));
+        assertEquals(0, ring.free());
+        assertFalse(ring.put((short) 7));
+    }
+
+    @Test
+    public void read_preservesOrderAcrossWrapAround() {
+        PcmRingBuffer ring = new PcmRingBuffer(4);
+        short[] out = new short[4];
+        ring.write(new short[] {1, 2, 3}, 0, 3);
+        assertEquals(2, ring.read(out, 0, 2));
+        assertTrue(ring.put((short) 4));
+        assertTrue(ring.put((short) 5));
+        assertTrue(ring.put((short) 6));
+
+        assertEquals(4, ring.read(out, 0, 4));
+        assertEquals(3, out[0]);
+        assertEquals(4, out[1]);
+        assertEquals(5, out[2]);
+        assertEquals(6, out[3]);
+        assertEquals(0, ring.available());
+    }
+
+    @Test
+    public void read_returnsOnlyAvailableSamples() {
+        PcmRingBuffer ring = new PcmRingBuffer(8);
+        short[] out = new short[8];
+        ring.write(new short[] {9, 8}, 0, 2);
+        assertEquals(2, ring.read(out, 0, 8));
+        assertEquals(0, ring.read(out, 0, 8));
+    }
+}
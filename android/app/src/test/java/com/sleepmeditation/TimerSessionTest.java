@@ -0,0 +1,61 @@
+package com.sleepmeditation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * 定时会话的剩余时间计算：暂停、恢复和延长
+ */
+public class TimerSessionTest {
+
+    private static TimerSession start(long now, long durationMs) {
+        return new TimerSession(now, durationMs, 0, 0, false, true, 30, false);
+    }
+
+    @Test
+    public void remaining_countsDownAndStopsAtZero() {
+        TimerSession session = start(1000, 60000);
+        assertEquals(60000, session.remainingAt(1000));
+        assertEquals(45000, session.remainingAt(16000));
+        assertEquals(0, session.remainingAt(61000));
+        assertEquals(0, session.remainingAt(90000));
+    }
+
+    @Test
+    public void pause_freezesRemainingUntilResume() {
+        TimerSession session = start(0, 60000);
+        assertTrue(session.pause(10000));
+        assertFalse(session.pause(11000));
+        assertEquals(50000, session.remainingAt(10000));
+        assertEquals(50000, session.remainingAt(40000));
+
+        assertTrue(session.resume(40000));
+        assertFalse(session.resume(41000));
+        assertEquals(30000, session.pausedMs);
+        assertEquals(40000, session.remainingAt(50000));
+    }
+
+    @Test
+    public void extend_addsToRemainingWhileRunningOrPaused() {
+        TimerSession session = start(0, 60000);
+        session.extend(20000, 30000);
+        assertEquals(70000, session.remainingAt(20000));
+
+        session.pause(30000);
+        session.extend(35000, 10000);
+        assertEquals(70000, session.remainingAt(35000));
+    }
+
+    @Test
+    public void extend_negativeDeltaNeverGoesBelowZero() {
+        TimerSession session = start(0, 60000);
+        session.extend(50000, -30000);
+        assertEquals(0, session.remainingAt(50000));
+        // 缩短到0之后再延长，从当前时刻重新计算
+        session.extend(50000, 5000);
+        assertEquals(5000, session.remainingAt(50000));
+    }
+}
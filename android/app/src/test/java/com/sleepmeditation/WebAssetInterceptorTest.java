@@ -0,0 +1,62 @@
+package com.sleepmeditation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Range请求头解析
+ */
+public class WebAssetInterceptorTest {
+    private static final long SIZE = 1000;
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    @Test
+    public void parseRange_closedRange() {
+        assertArrayEquals(new long[]{0, 99}, WebAssetInterceptor.parseRange("bytes=0-99", SIZE));
+        assertArrayEquals(new long[]{200, 200}, WebAssetInterceptor.parseRange("bytes=200-200", SIZE));
+    }
+
+    @Test
+    public void parseRange_clampsEndToSize() {
+        assertArrayEquals(new long[]{900, 999}, WebAssetInterceptor.parseRange("bytes=900-5000", SIZE));
+    }
+
+    @Test
+    public void parseRange_openEnded() {
+        assertArrayEquals(new long[]{500, 999}, WebAssetInterceptor.parseRange("bytes=500-", SIZE));
+        assertArrayEquals(new long[]{0, 999}, WebAssetInterceptor.parseRange("bytes=0-", SIZE));
+    }
+
+    @Test
+    public void parseRange_suffix() {
+        assertArrayEquals(new long[]{900, 999}, WebAssetInterceptor.parseRange("bytes=-100", SIZE));
+        // 后缀长度超过文件大小时返回整个文件
+        assertArrayEquals(new long[]{0, 999}, WebAssetInterceptor.parseRange("bytes=-5000", SIZE));
+    }
+
+    @Test
+    public void parseRange_unsatisfiable() {
+        assertArrayEquals(UNSATISFIABLE, WebAssetInterceptor.parseRange("bytes=1000-", SIZE));
+        assertArrayEquals(UNSATISFIABLE, WebAssetInterceptor.parseRange("bytes=1500-2000", SIZE));
+        assertArrayEquals(UNSATISFIABLE, WebAssetInterceptor.parseRange("bytes=-0", SIZE));
+        assertArrayEquals(UNSATISFIABLE, WebAssetInterceptor.parseRange("bytes=0-", 0));
+    }
+
+    @Test
+    public void parseRange_multipleRangesFallBackToFullResponse() {
+        assertNull(WebAssetInterceptor.parseRange("bytes=0-99,200-299", SIZE));
+        assertNull(WebAssetInterceptor.parseRange("bytes=-100, 0-10", SIZE));
+    }
+
+    @Test
+    public void parseRange_ignoresMissingOrMalformedHeader() {
+        assertNull(WebAssetInterceptor.parseRange(null, SIZE));
+        assertNull(WebAssetInterceptor.parseRange("items=0-99", SIZE));
+        assertNull(WebAssetInterceptor.parseRange("bytes=abc-def", SIZE));
+        assertNull(WebAssetInterceptor.parseRange("bytes=100", SIZE));
+        assertNull(WebAssetInterceptor.parseRange("bytes=-", SIZE));
+        assertNull(WebAssetInterceptor.parseRange("bytes=500-100", SIZE));
+    }
+}
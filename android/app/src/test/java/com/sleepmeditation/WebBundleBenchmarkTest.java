@@ -0,0 +1,202 @@
+package com.sleepmeditation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * 网页资源包基准测试
+ * 对比逐个打开文件读取（对应getAssets().open()）与从内存映射的资源包切片读取
+ *
+ * 基准部分默认跳过，运行：./gradlew testDebugUnitTest --tests com.sleepmeditation.WebBundleBenchmarkTest -Pbenchmark
+ * 结果写入build/reports/benchmarks/WebBundleBenchmarkTest.txt
+ */
+public class WebBundleBenchmarkTest {
+    private static final int FILE_COUNT = 120;
+    private static final int ROUNDS = 30;
+
+    private File workDir;
+    private File packFile;
+    private final Map<String, byte[]> contents = new TreeMap<>();
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = File.createTempFile("webbundle", "");
+        workDir.delete();
+        workDir.mkdirs();
+
+        // 模拟Vite构建产物：大小在1KB到64KB之间的多个小文件
+        Random random = new Random(42);
+        for (int i = 0; i < FILE_COUNT; i++) {
+            String path = "assets/chunk-" + i + (i % 3 == 0 ? ".css" : ".js");
+            byte[] data = new byte[1024 + random.nextInt(63 * 1024)];
+            random.nextBytes(data);
+            contents.put(path, data);
+
+            File file = new File(workDir, path);
+            file.getParentFile().mkdirs();
+            try (FileOutputStream outputStream = new FileOutputStream(file)) {
+                outputStream.write(data);
+            }
+        }
+
+        packFile = new File(workDir, WebBundle.BUNDLE_PATH);
+        writePack(packFile, contents);
+    }
+
+    @After
+    public void tearDown() {
+        deleteRecursively(workDir);
+    }
+
+    @Test
+    public void bundle_returnsSameBytes() throws IOException {
+        WebBundle bundle = mapPack();
+        assertEquals(FILE_COUNT, bundle.size());
+        for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+            assertArrayEquals(entry.getValue(), readFully(bundle.openStream(entry.getKey())));
+        }
+        assertNull(bundle.slice("missing.js"));
+    }
+
+    @Test
+    public void benchmark_perFileOpenVsMappedSlice() throws IOException {
+        assumeTrue(Boolean.getBoolean("benchmark"));
+
+        // 运行时整个进程只映射一次，映射和解析索引的开销单独统计
+        long mapStart = System.nanoTime();
+        WebBundle bundle = mapPack();
+        long mapNanos = System.nanoTime() - mapStart;
+
+        // 预热
+        assertEquals(runPerFile(), runMapped(bundle));
+
+        long perFileNanos = 0;
+        long mappedNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            runPerFile();
+            perFileNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            runMapped(bundle);
+            mappedNanos += System.nanoTime() - start;
+        }
+
+        writeReport(String.format("逐个打开文件: %.3fms/轮, 资源包切片: %.3fms/轮, 映射: %.3fms (%d个文件)%n",
+                perFileNanos / 1e6 / ROUNDS, mappedNanos / 1e6 / ROUNDS, mapNanos / 1e6, FILE_COUNT));
+    }
+
+    private static void writeReport(String report) throws IOException {
+        File reportDir = new File(System.getProperty("benchmark.reportDir", "build/reports/benchmarks"));
+        reportDir.mkdirs();
+        File reportFile = new File(reportDir, WebBundleBenchmarkTest.class.getSimpleName() + ".txt");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(reportFile), StandardCharsets.UTF_8)) {
+            writer.write(report);
+        }
+    }
+
+    private long runPerFile() throws IOException {
+        long total = 0;
+        for (String path : contents.keySet()) {
+            try (InputStream inputStream = new FileInputStream(new File(workDir, path))) {
+                total += drain(inputStream);
+            }
+        }
+        return total;
+    }
+
+    private long runMapped(WebBundle bundle) throws IOException {
+        long total = 0;
+        for (String path : contents.keySet()) {
+            try (InputStream inputStream = bundle.openStream(path)) {
+                total += drain(inputStream);
+            }
+        }
+        return total;
+    }
+
+    private WebBundle mapPack() throws IOException {
+        try (FileInputStream inputStream = new FileInputStream(packFile)) {
+            FileChannel channel = inputStream.getChannel();
+            return WebBundle.map(channel, 0, channel.size());
+        }
+    }
+
+    /**
+     * 按build.gradle中packWebBundle任务的格式写出资源包
+     */
+    private static void writePack(File file, Map<String, byte[]> entries) throws IOException {
+        long offset = 12;
+        for (String path : entries.keySet()) {
+            offset += 2 + path.getBytes(StandardCharsets.UTF_8).length + 8 + 8;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(WebBundle.MAGIC);
+            out.writeInt(WebBundle.VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                byte[] pathBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(pathBytes.length);
+                out.write(pathBytes);
+                out.writeLong(offset);
+                out.writeLong(entry.getValue().length);
+                offset += entry.getValue().length;
+            }
+            for (byte[] data : entries.values()) {
+                out.write(data);
+            }
+        }
+    }
+
+    private static long drain(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+
+    private static byte[] readFully(InputStream inputStream) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(inputStream.available());
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = inputStream.read(chunk)) != -1) {
+            buffer.put(chunk, 0, read);
+        }
+        return buffer.array();
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -1,4 +1,4 @@
-import { useState, useEffect } from 'react'
+import { useState, useEffect, useRef } from 'react'
 import './App.css'
 import Timer from './components/Timer'
 import PlayControls from './components/PlayControls'
@@ -10,6 +10,8 @@ import LogViewer from './components/LogViewer'
 import StatisticsIcon from './assets/StatisticsIcon'
 import { initDatabase, savePlaybackRecord, getActiveTimerSession, saveTimerSession, updateTimerSession, getPlaybackHistory, getTotalPlays } from './utils/DatabaseManager'
 import './utils/LogManager' // 初始化日志管理器
+import { onNativeEvent } from './utils/NativeEvents'
+import { callNative } from './utils/NativeBridge'
 
 function App() {
   const [isPlaying, setIsPlaying] = useState(false)
@@ -27,6 +29,7 @@ function App() {
   const [showPlaybackHistory, setShowPlaybackHistory] = useState(false) // 控制播放记录模态框显示
   const [showAlarmModal, setShowAlarmModal] = useState(false) // 控制闹钟弹窗显示
   const [showLogViewer, setShowLogViewer] = useState(false) // 控制日志查看器显示
+  const [hibernating, setHibernating] = useState(false) // 熄屏休眠中，界面停止刷新，剩余时间由原生层维护
   
   // 初始化应用
   useEffect(() => {
@@ -83,6 +86,10 @@ function App() {
           setIsPlaying(true)
           setStartTime(new Date(activeSession.startTime).getTime())
           setInitialDuration(activeSession.duration * 60)
+          // 页面重建时原生定时会话仍在计时，剩余时间以原生层为准
+          nativeTimerActiveRef.current = true
+          timerDeadlineRef.current = Date.now() + activeSession.remainingTime * 1000
+          syncRemainingFromNative()
         }
         
         window.logManager.info('应用初始化完成')
@@ -94,15 +101,66 @@ function App() {
     initializeApp()
   }, [])
 
+  // 首次渲染完成后通知原生层：移除启动画面并继续执行延后的初始化
+  useEffect(() => {
+    requestAnimationFrame(() => {
+      if (window.AppBridge && typeof window.AppBridge.notifyFirstRender === 'function') {
+        window.AppBridge.notifyFirstRender()
+        window.logManager.info('已通知原生层首次渲染完成')
+      }
+    })
+  }, [])
+
   // 会话ID状态
   const [sessionId, setSessionId] = useState(null)
 
+  // 原生定时会话对应的结束时间（Date.now()），界面显示的剩余时间由它推算，不再逐秒累减
+  const timerDeadlineRef = useRef(null)
+  // 本页面是否启动过原生定时会话，暂停时只暂停自己启动的会话
+  const nativeTimerActiveRef = useRef(false)
+  // 本页面暂停的原生定时会话，再次播放时只有时长相同（同一会话）才恢复，否则开始新的会话
+  const pausedNativeSessionRef = useRef(null)
+
+  /**
+   * 以原生定时会话为准同步剩余时间
+   * @param {number} remainingMs - 原生层给出的剩余毫秒数，小于0表示没有定时会话
+   */
+  const applyNativeRemaining = (remainingMs) => {
+    if (typeof remainingMs !== 'number' || remainingMs < 0) {
+      return
+    }
+    timerDeadlineRef.current = Date.now() + remainingMs
+    setTimeRemaining(Math.ceil(remainingMs / 1000))
+  }
+
+  const syncRemainingFromNative = () => {
+    if (!window.TimerSchedulerBridge || !window.TimerSchedulerBridge.getRemainingMillis) {
+      return
+    }
+    callNative('TimerSchedulerBridge', 'getRemainingMillis')
+      .then((remainingMs) => {
+        window.logManager.debug('原生定时器剩余时间', { remainingMs })
+        applyNativeRemaining(remainingMs)
+      })
+      .catch((error) => window.logManager.error('获取原生定时器剩余时间失败', error))
+  }
+
+  // 结束原生定时会话：定时完成或重新选择时长时调用，之后的播放开始新的会话
+  const cancelNativeTimer = () => {
+    nativeTimerActiveRef.current = false
+    pausedNativeSessionRef.current = null
+    timerDeadlineRef.current = null
+    if (window.TimerSchedulerBridge && window.TimerSchedulerBridge.cancelTimer) {
+      callNative('TimerSchedulerBridge', 'cancelTimer')
+        .then((success) => window.logManager.info('Android原生定时器取消结果: ' + success))
+        .catch((error) => window.logManager.error('取消Android原生定时器失败', error))
+    }
+  }
+
   // 计时器逻辑 - 使用Android原生定时器确保后台/锁屏时也能准确触发
   useEffect(() => {
     window.logManager.debug('计时器效果更新', { isPlaying, timeRemaining, startTime, initialDuration, enableAlarm, enableVibration, sessionId })
-    let interval = null
-    let elapsedSeconds = 0
-    let remainingTime = timeRemaining
+    const remainingTime = timeRemaining
 
     if (isPlaying) {
       // 如果是首次播放或从暂停恢复，设置Android原生定时器
@@ -126,14 +184,30 @@ function App() {
         }
         createSession()
 
+        // 界面显示的剩余时间由结束时间推算，原生会话建立后以原生层为准校正
+        timerDeadlineRef.current = Date.now() + remainingTime * 1000
+
         // 设置Android原生定时器（确保后台/锁屏时也能准确触发）
+        // 本页面暂停的同一会话从暂停处继续，否则开始新的会话（scheduleTimer替换原生层已有的会话）
         if (window.TimerSchedulerBridge && window.TimerSchedulerBridge.scheduleTimer) {
-          try {
-            const success = window.TimerSchedulerBridge.scheduleTimer(remainingTime, enableAlarm, enableVibration, timerDuration)
-            window.logManager.info('Android原生定时器设置结果: ' + success + ', 启用闹钟: ' + enableAlarm + ', 启用震动: ' + enableVibration + ', 时长: ' + timerDuration + '分钟')
-          } catch (error) {
-            window.logManager.error('设置Android原生定时器失败', error)
-          }
+          const pausedSession = pausedNativeSessionRef.current
+          pausedNativeSessionRef.current = null
+          const sameSession = pausedSession !== null && pausedSession.timerDuration === timerDuration
+          nativeTimerActiveRef.current = true
+          const resume = sameSession ? callNative('TimerSchedulerBridge', 'resume') : Promise.resolve(false)
+          resume
+            .then((resumed) => {
+              if (resumed) {
+                window.logManager.info('Android原生定时器已恢复')
+                return true
+              }
+              return callNative('TimerSchedulerBridge', 'scheduleTimer', remainingTime, enableAlarm, enableVibration, timerDuration)
+            })
+            .then((success) => {
+              window.logManager.info('Android原生定时器设置结果: ' + success + ', 启用闹钟: ' + enableAlarm + ', 启用震动: ' + enableVibration + ', 时长: ' + timerDuration + '分钟')
+              syncRemainingFromNative()
+            })
+            .catch((error) => window.logManager.error('设置Android原生定时器失败', error))
         } else {
           window.logManager.warn('TimerSchedulerBridge 不可用，使用JavaScript计时器（不可靠）')
         }
@@ -142,46 +216,17 @@ function App() {
         setStartTime(Date.now())
         setInitialDuration(remainingTime)
       }
-
-      // 每秒更新一次剩余时间（仅用于UI显示，实际定时由Android原生定时器控制）
-      interval = setInterval(() => {
-        try {
-          elapsedSeconds++
-          remainingTime = Math.max(0, timeRemaining - elapsedSeconds)
-
-          window.logManager.debug('计时器更新', {
-            elapsedSeconds,
-            remainingTime,
-            initialTime: timeRemaining
-          })
-
-          setTimeRemaining(remainingTime)
-
-          // 更新数据库会话的剩余时间
-          if (sessionId) {
-            updateTimerSession(sessionId, { remainingTime })
-              .catch(error => window.logManager.error('更新数据库会话失败', error))
-          }
-
-          // 如果时间到了，停止播放（这个逻辑通常由Android原生定时器触发，但保留作为备份）
-          if (remainingTime <= 0) {
-            handleTimerComplete()
-          }
-        } catch (error) {
-          window.logManager.error('计时器执行过程中出错', error)
-        }
-      }, 1000)
     } else {
-      // 暂停时取消Android原生定时器
+      // 暂停时暂停Android原生定时会话，剩余时间由原生层保存
       window.logManager.info('计时器暂停', { currentRemaining: timeRemaining, sessionId })
 
-      if (window.TimerSchedulerBridge && window.TimerSchedulerBridge.cancelTimer) {
-        try {
-          const success = window.TimerSchedulerBridge.cancelTimer()
-          window.logManager.info('Android原生定时器取消结果: ' + success)
-        } catch (error) {
-          window.logManager.error('取消Android原生定时器失败', error)
-        }
+      timerDeadlineRef.current = null
+      if (nativeTimerActiveRef.current && window.TimerSchedulerBridge && window.TimerSchedulerBridge.pause) {
+        nativeTimerActiveRef.current = false
+        pausedNativeSessionRef.current = { timerDuration }
+        callNative('TimerSchedulerBridge', 'pause')
+          .then((success) => window.logManager.info('Android原生定时器暂停结果: ' + success))
+          .catch((error) => window.logManager.error('暂停Android原生定时器失败', error))
       }
 
       // 更新数据库会话状态
@@ -195,19 +240,55 @@ function App() {
       setStartTime(null)
       setInitialDuration(null)
     }
+  }, [isPlaying, enableAlarm, enableVibration, timerDuration, sessionId])
+
+  // 界面显示的剩余时间由结束时间推算，在剩余秒数变化时刷新，没有独立累减的计时
+  // 熄屏休眠时不再刷新界面，亮屏后由原生层的会话快照一次性更新
+  useEffect(() => {
+    if (!isPlaying || hibernating) {
+      return
+    }
+
+    let timeout = null
+    const refresh = () => {
+      const deadline = timerDeadlineRef.current
+      if (deadline === null) {
+        return
+      }
+      const remainingMs = Math.max(0, deadline - Date.now())
+      const remainingTime = Math.ceil(remainingMs / 1000)
+      setTimeRemaining(remainingTime)
+
+      // 更新数据库会话的剩余时间
+      if (sessionId) {
+        updateTimerSession(sessionId, { remainingTime })
+          .catch(error => window.logManager.error('更新数据库会话失败', error))
+      }
+
+      // 如果时间到了，停止播放（这个逻辑通常由Android原生定时器触发，但保留作为备份）
+      if (remainingMs <= 0) {
+        handleTimerComplete()
+        return
+      }
+      // 等到剩余秒数下一次变化；结束时间被原生层校正后下一次刷新自动使用新值
+      timeout = setTimeout(refresh, remainingMs - (remainingTime - 1) * 1000)
+    }
+    refresh()
 
     return () => {
-      if (interval) {
-        clearInterval(interval)
-        window.logManager.debug('计时器已清除')
+      if (timeout) {
+        clearTimeout(timeout)
       }
     }
-  }, [isPlaying, timeRemaining, enableAlarm, enableVibration, timerDuration, sessionId])
+  }, [isPlaying, hibernating, sessionId])
 
   // 定时完成处理函数（主要由Java端调用）
   const handleTimerComplete = async () => {
     window.logManager.info('定时完成处理开始', { sessionId, timerDuration })
 
+    // 结束原生定时会话，下次播放重新开始计时
+    cancelNativeTimer()
+
     // 停止播放
     setIsPlaying(false)
     setStartTime(null)
@@ -289,19 +370,39 @@ function App() {
     window.logManager.info('定时完成处理结束')
   }
 
-  // 暴露全局回调函数，供Android TimerReceiver调用（这是定时结束的主要判断依据）
+  // 订阅Android TimerReceiver发出的定时结束事件（这是定时结束的主要判断依据）
   useEffect(() => {
-    window.onTimerComplete = (alarmEnabled, duration) => {
-      window.logManager.info('收到Android定时器回调（主要判断依据）', { alarmEnabled, duration })
+    return onNativeEvent('timerFired', ({ enableAlarm: alarmEnabled, timerDuration: duration }) => {
+      window.logManager.info('收到Android定时器事件（主要判断依据）', { alarmEnabled, duration })
       // 调用处理函数，这是定时结束的主要触发点
       handleTimerComplete()
-    }
-
-    return () => {
-      window.onTimerComplete = null
-    }
+    })
   }, [enableAlarm, timerDuration, sessionId])
 
+  // 会话中熄屏时原生层通知网页休眠，随后暂停所有JS计时器
+  useEffect(() => {
+    return onNativeEvent('hibernation', ({ hibernating: value }) => {
+      window.logManager.info('网页休眠状态变化', { hibernating: value })
+      setHibernating(Boolean(value))
+    })
+  }, [])
+
+  // 亮屏后原生层推送一次会话快照，剩余时间以原生定时器为准，与结束休眠在同一次渲染中生效
+  useEffect(() => {
+    return onNativeEvent('sessionSnapshot', ({ remainingMs, regularPlaying }) => {
+      window.logManager.info('收到会话快照', { remainingMs, regularPlaying })
+      if (typeof remainingMs === 'number' && remainingMs >= 0) {
+        const remainingTime = Math.ceil(remainingMs / 1000)
+        applyNativeRemaining(remainingMs)
+        if (sessionId) {
+          updateTimerSession(sessionId, { remainingTime })
+            .catch(error => window.logManager.error('更新数据库会话失败', error))
+        }
+      }
+      setHibernating(false)
+    })
+  }, [sessionId])
+
   const handlePlayPause = () => {
     window.logManager.info('播放/暂停按钮被点击', { currentState: isPlaying ? '播放中' : '暂停中' })
     try {
@@ -317,6 +418,7 @@ function App() {
     try {
       setTimerDuration(minutes)
       setTimeRemaining(minutes * 60)
+      cancelNativeTimer() // 新的时长开始新的原生定时会话
       setStartTime(null) // 重置开始时间
       setInitialDuration(null) // 重置初始时长
       if (isPlaying) {
@@ -1,4 +1,9 @@
 import { useRef, useEffect, useState } from 'react'
+import { callNative } from '../utils/NativeBridge'
+import { onNativeEvent } from '../utils/NativeEvents'
+
+// 1.mp3（冥想引导）与2.mp3（背景音乐）之间的交叉淡化时长
+const CROSSFADE_DURATION_MS = 4000
 
 const AudioPlayer = ({ isPlaying, volume = 0.3, playMeditationAudio = true, enableAlarm = false }) => {
   const audioRef1 = useRef(null)
@@ -202,37 +207,38 @@ const AudioPlayer = ({ isPlaying, volume = 0.3, playMeditationAudio = true, enab
       window.logManager.info('1.mp3 暂停播放')
     })
     
-    // 设置Android原生音频播放完成回调
-    window.regularAudioPlayerCallback = (audioFileName) => {
+    // 订阅Android原生音频播放完成事件
+    const unsubscribeAudioCompleted = onNativeEvent('audioCompleted', ({ fileName: audioFileName }) => {
       window.logManager.info(`Android原生音频播放完成: ${audioFileName}`)
       if (audioFileName === '1.mp3') {
         window.logManager.info('1.mp3播放结束，开始播放2.mp3（背景音乐）')
         
         // 播放背景音乐（2.mp3）
-        try {
-          const success = window.RegularAudioBridge.playRegularAudio('2.mp3', 0.3, true)
-          if (success) {
-            window.logManager.info('Android原生音频播放2.mp3（背景音乐）成功')
-          } else {
-            const errorMessage = 'Android原生音频播放2.mp3（背景音乐）失败，尝试Web音频'
-            window.logManager.error(errorMessage)
+        callNative('RegularAudioBridge', 'playRegularAudio', '2.mp3', 0.3, true, 'pcm')
+          .then((success) => {
+            if (success) {
+              window.logManager.info('Android原生音频播放2.mp3（背景音乐）成功')
+            } else {
+              const errorMessage = 'Android原生音频播放2.mp3（背景音乐）失败，尝试Web音频'
+              window.logManager.error(errorMessage)
+              showError(errorMessage)
+              // Fallback到Web音频
+              playWebBackgroundAudio()
+            }
+          })
+          .catch((err) => {
+            const errorMessage = `调用Android原生音频接口播放2.mp3失败: ${err.message}`
+            window.logManager.error('调用Android原生音频接口播放2.mp3失败', {
+              error: err,
+              name: err.name,
+              message: err.message
+            })
             showError(errorMessage)
             // Fallback到Web音频
             playWebBackgroundAudio()
-          }
-        } catch (err) {
-          const errorMessage = `调用Android原生音频接口播放2.mp3失败: ${err.message}`
-          window.logManager.error('调用Android原生音频接口播放2.mp3失败', {
-            error: err,
-            name: err.name,
-            message: err.message
           })
-          showError(errorMessage)
-          // Fallback到Web音频
-          playWebBackgroundAudio()
-        }
       }
-    }
+    })
 
     audioRef1.current.addEventListener('ended', () => {
       window.logManager.info('1.mp3 播放结束，开始播放2.mp3')
@@ -301,6 +307,7 @@ const AudioPlayer = ({ isPlaying, volume = 0.3, playMeditationAudio = true, enab
     
     return () => {
       // 清理
+      unsubscribeAudioCompleted()
       if (audioRef1.current) {
         audioRef1.current.pause()
         audioRef1.current = null
@@ -350,29 +357,35 @@ const AudioPlayer = ({ isPlaying, volume = 0.3, playMeditationAudio = true, enab
           if (isAndroid && window.RegularAudioBridge) {
             window.logManager.info('Android环境：使用原生音频接口播放1.mp3（冥想引导）')
 
-            try {
-              const success = window.RegularAudioBridge.playRegularAudio('1.mp3', 0.6, false)
-              window.logManager.info('RegularAudioBridge.playRegularAudio返回值:', { success })
+            callNative('RegularAudioBridge', 'playRegularAudio', '1.mp3', 0.6, false)
+              .then((success) => {
+                window.logManager.info('RegularAudioBridge.playRegularAudio返回值:', { success })
 
-              if (success) {
-                window.logManager.info('Android原生音频播放1.mp3（冥想引导）成功')
-                // 音频播放完成后会通过window.regularAudioPlayerCallback回调处理，无需设置定时器
-              } else {
-                const errorMessage = 'Android原生音频播放1.mp3（冥想引导）失败，fallback到Web音频'
-                window.logManager.warn(errorMessage)
+                if (success) {
+                  window.logManager.info('Android原生音频播放1.mp3（冥想引导）成功')
+                  // 预加载2.mp3（背景音乐），1.mp3结束前由原生层交叉淡化切换
+                  callNative('RegularAudioBridge', 'setCrossfadeDuration', CROSSFADE_DURATION_MS)
+                    .catch((err) => window.logManager.warn('设置交叉淡化时长失败', err))
+                  callNative('RegularAudioBridge', 'prepareNextRegularAudio', '2.mp3', 0.3, true, 'pcm')
+                    .catch((err) => window.logManager.warn('预加载2.mp3失败，将在1.mp3结束后再加载', err))
+                  // 音频播放完成后会通过audioCompleted原生事件处理，无需设置定时器
+                } else {
+                  const errorMessage = 'Android原生音频播放1.mp3（冥想引导）失败，fallback到Web音频'
+                  window.logManager.warn(errorMessage)
+                  showError(errorMessage)
+                  playWebMeditationAudio()
+                }
+              })
+              .catch((err) => {
+                const errorMessage = `调用Android原生音频接口播放1.mp3失败: ${err.message}`
+                window.logManager.error('调用Android原生音频接口播放1.mp3失败', {
+                  error: err,
+                  name: err.name,
+                  message: err.message
+                })
                 showError(errorMessage)
                 playWebMeditationAudio()
-              }
-            } catch (err) {
-              const errorMessage = `调用Android原生音频接口播放1.mp3失败: ${err.message}`
-              window.logManager.error('调用Android原生音频接口播放1.mp3失败', {
-                error: err,
-                name: err.name,
-                message: err.message
               })
-              showError(errorMessage)
-              playWebMeditationAudio()
-            }
           } else {
             // 非Android环境或没有原生接口，使用Web音频
             if (!window.RegularAudioBridge) {
@@ -396,24 +409,25 @@ const AudioPlayer = ({ isPlaying, volume = 0.3, playMeditationAudio = true, enab
           if (isAndroid && window.RegularAudioBridge) {
             window.logManager.info('Android环境：使用原生音频接口直接播放2.mp3（背景音乐）')
 
-            try {
-              const success = window.RegularAudioBridge.playRegularAudio('2.mp3', 0.3, true)
-              window.logManager.info('RegularAudioBridge.playRegularAudio返回值:', { success })
+            callNative('RegularAudioBridge', 'playRegularAudio', '2.mp3', 0.3, true, 'pcm')
+              .then((success) => {
+                window.logManager.info('RegularAudioBridge.playRegularAudio返回值:', { success })
 
-              if (success) {
-                window.logManager.info('Android原生音频播放2.mp3（背景音乐）成功')
-              } else {
-                window.logManager.error('Android原生音频播放2.mp3（背景音乐）失败，fallback到Web音频')
+                if (success) {
+                  window.logManager.info('Android原生音频播放2.mp3（背景音乐）成功')
+                } else {
+                  window.logManager.error('Android原生音频播放2.mp3（背景音乐）失败，fallback到Web音频')
+                  playWebBackgroundAudio()
+                }
+              })
+              .catch((err) => {
+                window.logManager.error('调用Android原生音频接口播放2.mp3失败', {
+                  error: err,
+                  name: err.name,
+                  message: err.message
+                })
                 playWebBackgroundAudio()
-              }
-            } catch (err) {
-              window.logManager.error('调用Android原生音频接口播放2.mp3失败', {
-                error: err,
-                name: err.name,
-                message: err.message
               })
-              playWebBackgroundAudio()
-            }
           } else {
             // 非Android环境或没有原生接口，使用Web音频
             if (!window.RegularAudioBridge) {
@@ -427,20 +441,21 @@ const AudioPlayer = ({ isPlaying, volume = 0.3, playMeditationAudio = true, enab
       if (isAndroid && window.RegularAudioBridge) {
         window.logManager.info('Android环境：使用原生音频接口停止音频')
         
-        try {
-          const success = window.RegularAudioBridge.stopRegularAudio()
-          if (success) {
-            window.logManager.info('Android原生音频停止成功')
-          } else {
-            window.logManager.error('Android原生音频停止失败')
-          }
-        } catch (err) {
-          window.logManager.error('调用Android原生音频停止接口失败', {
-            error: err,
-            name: err.name,
-            message: err.message
+        callNative('RegularAudioBridge', 'stopRegularAudio')
+          .then((success) => {
+            if (success) {
+              window.logManager.info('Android原生音频停止成功')
+            } else {
+              window.logManager.error('Android原生音频停止失败')
+            }
+          })
+          .catch((err) => {
+            window.logManager.error('调用Android原生音频停止接口失败', {
+              error: err,
+              name: err.name,
+              message: err.message
+            })
           })
-        }
       }
       
       audioRef1.current.pause()
@@ -696,24 +711,25 @@ const AudioPlayer = ({ isPlaying, volume = 0.3, playMeditationAudio = true, enab
       if (isAndroid && window.RegularAudioBridge) {
         window.logManager.info('Android环境：使用原生音频接口播放1.mp3')
         
-        try {
-          const success = window.RegularAudioBridge.playRegularAudio('1.mp3', 0.3, false)
-          if (success) {
-            window.logManager.info('Android原生音频播放1.mp3成功')
-          } else {
-            window.logManager.error('Android原生音频播放1.mp3失败，尝试Web音频')
-            // 如果原生播放失败，尝试Web音频
+        callNative('RegularAudioBridge', 'playRegularAudio', '1.mp3', 0.3, false)
+          .then((success) => {
+            if (success) {
+              window.logManager.info('Android原生音频播放1.mp3成功')
+            } else {
+              window.logManager.error('Android原生音频播放1.mp3失败，尝试Web音频')
+              // 如果原生播放失败，尝试Web音频
+              playWebAudio1()
+            }
+          })
+          .catch((err) => {
+            window.logManager.error('调用Android原生音频接口失败', {
+              error: err,
+              name: err.name,
+              message: err.message
+            })
+            // 如果调用失败，尝试Web音频
             playWebAudio1()
-          }
-        } catch (err) {
-          window.logManager.error('调用Android原生音频接口失败', {
-            error: err,
-            name: err.name,
-            message: err.message
           })
-          // 如果调用失败，尝试Web音频
-          playWebAudio1()
-        }
       } else {
         // 非Android环境或没有原生接口，使用Web音频
         playWebAudio1()
@@ -800,24 +816,25 @@ const AudioPlayer = ({ isPlaying, volume = 0.3, playMeditationAudio = true, enab
       if (isAndroid && window.RegularAudioBridge) {
         window.logManager.info('Android环境：使用原生音频接口播放2.mp3')
         
-        try {
-          const success = window.RegularAudioBridge.playRegularAudio('2.mp3', 0.1, true)
-          if (success) {
-            window.logManager.info('Android原生音频播放2.mp3成功')
-          } else {
-            window.logManager.error('Android原生音频播放2.mp3失败，尝试Web音频')
-            // 如果原生播放失败，尝试Web音频
+        callNative('RegularAudioBridge', 'playRegularAudio', '2.mp3', 0.1, true, 'pcm')
+          .then((success) => {
+            if (success) {
+              window.logManager.info('Android原生音频播放2.mp3成功')
+            } else {
+              window.logManager.error('Android原生音频播放2.mp3失败，尝试Web音频')
+              // 如果原生播放失败，尝试Web音频
+              playWebAudio2()
+            }
+          })
+          .catch((err) => {
+            window.logManager.error('调用Android原生音频接口失败', {
+              error: err,
+              name: err.name,
+              message: err.message
+            })
+            // 如果调用失败，尝试Web音频
             playWebAudio2()
-          }
-        } catch (err) {
-          window.logManager.error('调用Android原生音频接口失败', {
-            error: err,
-            name: err.name,
-            message: err.message
           })
-          // 如果调用失败，尝试Web音频
-          playWebAudio2()
-        }
       } else {
         // 非Android环境或没有原生接口，使用Web音频
         playWebAudio2()
@@ -885,7 +902,14 @@ const AudioPlayer = ({ isPlaying, volume = 0.3, playMeditationAudio = true, enab
       
       // 在Android环境中使用原生接口
       if (isAndroid && window.AlarmAudioBridge) {
-        window.AlarmAudioBridge.playAlarm('./sounds/3.mp3', true)
+        callNative('AlarmAudioBridge', 'playAlarm', './sounds/3.mp3', true)
+          .catch((err) => {
+            window.logManager.error('调用Android原生闹钟接口失败', {
+              error: err,
+              name: err.name,
+              message: err.message
+            })
+          })
       } else {
         // 停止其他音频
         if (audioRef1.current) audioRef1.current.pause()
@@ -1025,7 +1049,8 @@ const AudioPlayer = ({ isPlaying, volume = 0.3, playMeditationAudio = true, enab
       
       // 在Android环境中使用原生接口
       if (isAndroid && window.AlarmAudioBridge) {
-        window.AlarmAudioBridge.stopAlarm()
+        callNative('AlarmAudioBridge', 'stopAlarm')
+          .catch((err) => window.logManager.error('调用Android原生闹钟停止接口失败', err))
       } else {
         // 停止主要闹钟音频
         if (alarmRef.current) {
@@ -1052,20 +1077,21 @@ const AudioPlayer = ({ isPlaying, volume = 0.3, playMeditationAudio = true, enab
       if (isAndroid && window.RegularAudioBridge) {
         window.logManager.info('Android环境：使用原生音频接口停止音频')
         
-        try {
-          const success = window.RegularAudioBridge.stopRegularAudio()
-          if (success) {
-            window.logManager.info('Android原生音频停止成功')
-          } else {
-            window.logManager.error('Android原生音频停止失败')
-          }
-        } catch (err) {
-          window.logManager.error('调用Android原生音频停止接口失败', {
-            error: err,
-            name: err.name,
-            message: err.message
+        callNative('RegularAudioBridge', 'stopRegularAudio')
+          .then((success) => {
+            if (success) {
+              window.logManager.info('Android原生音频停止成功')
+            } else {
+              window.logManager.error('Android原生音频停止失败')
+            }
+          })
+          .catch((err) => {
+            window.logManager.error('调用Android原生音频停止接口失败', {
+              error: err,
+              name: err.name,
+              message: err.message
+            })
           })
-        }
       }
       
       // 停止主要音频
@@ -118,6 +118,36 @@ const LogViewer = ({ isVisible, onClose }) => {
     }
   };
 
+  // 查看最近几次冷启动耗时（各节点为相对进程启动的毫秒数）
+  const showStartupTraces = () => {
+    try {
+      if (window.AppBridge && window.AppBridge.getStartupTraces) {
+        const traces = JSON.parse(window.AppBridge.getStartupTraces());
+        window.logManager.info(`最近${traces.length}次启动耗时`, traces);
+        loadLogs();
+      } else {
+        window.logManager.warn('AppBridge.getStartupTraces 不可用');
+      }
+    } catch (error) {
+      window.logManager.error('获取启动耗时时出错', error);
+    }
+  };
+
+  // 查看各桥接方法的调用次数与耗时分布（p50/p95/p99）
+  const showBridgeMetrics = () => {
+    try {
+      if (window.AppBridge && window.AppBridge.getMetricsSnapshot) {
+        const metrics = JSON.parse(window.AppBridge.getMetricsSnapshot());
+        window.logManager.info(`桥接方法指标（${Object.keys(metrics).length}个方法）`, metrics);
+        loadLogs();
+      } else {
+        window.logManager.warn('AppBridge.getMetricsSnapshot 不可用');
+      }
+    } catch (error) {
+      window.logManager.error('获取桥接指标时出错', error);
+    }
+  };
+
   // 获取日志级别样式
   const getLogLevelStyle = (level) => {
     switch (level) {
@@ -169,6 +199,8 @@ const LogViewer = ({ isVisible, onClose }) => {
               自动滚动
             </label>
             <button onClick={testVibration}>测试震动</button>
+            <button onClick={showStartupTraces}>启动耗时</button>
+            <button onClick={showBridgeMetrics}>桥接指标</button>
             <button onClick={clearLogs}>清空日志</button>
             <button onClick={exportLogs}>导出日志</button>
           </div>
@@ -13,7 +13,10 @@ const originalCreateElement = document.createElement
 const mockLogManager = {
   getLogs: jest.fn(),
   clearLogs: jest.fn(),
-  exportLogs: jest.fn()
+  exportLogs: jest.fn(),
+  info: jest.fn(),
+  warn: jest.fn(),
+  error: jest.fn()
 }
 
 // 模拟URL.createObjectURL
@@ -236,4 +239,30 @@ describe('LogViewer', () => {
     
     jest.useRealTimers()
   })
-})
\ No newline at end of file
+
+  it('应该在点击启动耗时按钮时读取原生启动记录', () => {
+    const traces = [{ launchedAt: 1, sdk: 34, marks: { processStart: 0, pageFinished: 420 } }]
+    window.AppBridge = { getStartupTraces: jest.fn(() => JSON.stringify(traces)) }
+
+    render(<LogViewer isVisible={true} onClose={jest.fn()} />)
+    fireEvent.click(screen.getByText('启动耗时'))
+
+    expect(window.AppBridge.getStartupTraces).toHaveBeenCalled()
+    expect(mockLogManager.info).toHaveBeenCalledWith('最近1次启动耗时', traces)
+
+    delete window.AppBridge
+  })
+
+  it('应该在点击桥接指标按钮时读取原生调用指标', () => {
+    const metrics = { 'RegularAudioBridge.playRegularAudio': { count: 3, errors: 0, p50Ms: 2.048, p95Ms: 8.192, p99Ms: 8.192, maxMs: 7.5 } }
+    window.AppBridge = { getMetricsSnapshot: jest.fn(() => JSON.stringify(metrics)) }
+
+    render(<LogViewer isVisible={true} onClose={jest.fn()} />)
+    fireEvent.click(screen.getByText('桥接指标'))
+
+    expect(window.AppBridge.getMetricsSnapshot).toHaveBeenCalled()
+    expect(mockLogManager.info).toHaveBeenCalledWith('桥接方法指标（1个方法）', metrics)
+
+    delete window.AppBridge
+  })
+})
@@ -1,10 +1,15 @@
 import React from 'react'
 import ReactDOM from 'react-dom/client'
+import './utils/NativeEvents' // 尽早监听原生事件通道的初始化消息
+import { importLegacyStorage } from './utils/StorageMigration'
 import App from './App.jsx'
 import './index.css'
 
-ReactDOM.createRoot(document.getElementById('root')).render(
-  <React.StrictMode>
-    <App />
-  </React.StrictMode>,
-)
\ No newline at end of file
+// 先导入旧file://源的网页存储，App挂载时读取的设置才是迁移后的
+importLegacyStorage().finally(() => {
+  ReactDOM.createRoot(document.getElementById('root')).render(
+    <React.StrictMode>
+      <App />
+    </React.StrictMode>,
+  )
+})
@@ -0,0 +1,169 @@
+/**
+ * 原生桥接调用工具
+ * 通过AsyncBridge异步调用原生方法：调用立即返回，原生方法在独立线程执行，
+ * 结果经由原生事件通道的 bridgeResult 事件回传并兑现Promise
+ * 同一轮事件循环内发起的多个调用合并为一批，通过AsyncBridge.callBatch一次跨线程执行
+ * 没有AsyncBridge时（旧版本或测试环境）退回同步调用
+ */
+import { onNativeEvent } from './NativeEvents'
+
+const pendingCalls = new Map()
+
+// 等待合并发送的调用，在微任务中统一发送
+let queuedCalls = []
+
+// 每次调用阻塞JS线程的耗时统计，分别记录异步和同步调用，便于对比
+const blockingStats = {
+  async: { calls: 0, totalMs: 0, maxMs: 0 },
+  sync: { calls: 0, totalMs: 0, maxMs: 0 }
+}
+
+// 批量调用统计：batches为实际跨线程次数，calls为其中包含的调用数
+const batchStats = { batches: 0, calls: 0 }
+
+const now = () => (typeof performance !== 'undefined' ? performance.now() : Date.now())
+
+const recordBlocking = (mode, elapsedMs) => {
+  const stats = blockingStats[mode]
+  stats.calls += 1
+  stats.totalMs += elapsedMs
+  stats.maxMs = Math.max(stats.maxMs, elapsedMs)
+}
+
+/**
+ * 原生层统一的完成通道
+ * @param {{id: string, ok: boolean, result: *}} envelope - 调用结果
+ */
+window.__nativeBridgeResolve = (envelope) => {
+  const pending = pendingCalls.get(envelope.id)
+  if (!pending) {
+    return
+  }
+  pendingCalls.delete(envelope.id)
+
+  if (envelope.ok) {
+    pending.resolve(envelope.result)
+  } else {
+    pending.reject(new Error(`${pending.name} 调用失败: ${envelope.result}`))
+  }
+}
+
+onNativeEvent('bridgeResult', (envelope) => window.__nativeBridgeResolve(envelope))
+
+const supportsBatch = () => window.AsyncBridge && typeof window.AsyncBridge.callBatch === 'function'
+
+/**
+ * 把排队的调用作为一批发送，结果数组按顺序分发给各自的Promise
+ */
+const flushQueuedCalls = () => {
+  const batch = queuedCalls
+  queuedCalls = []
+  if (batch.length === 0) {
+    return
+  }
+
+  const start = now()
+  const payload = batch.map(({ bridge, method, args }) => ({ bridge, method, args }))
+  const callId = window.AsyncBridge.callBatch(JSON.stringify(payload))
+  recordBlocking('async', now() - start)
+  batchStats.batches += 1
+  batchStats.calls += batch.length
+
+  pendingCalls.set(callId, {
+    name: `批量调用(${batch.length})`,
+    resolve: (results) => {
+      batch.forEach((call, index) => {
+        const result = results[index]
+        if (result && result.ok) {
+          call.resolve(result.result)
+        } else {
+          call.reject(new Error(`${call.name} 调用失败: ${result ? result.result : '缺少结果'}`))
+        }
+      })
+    },
+    reject: (error) => batch.forEach((call) => call.reject(error))
+  })
+}
+
+/**
+ * 调用原生桥接方法
+ * @param {string} bridge - 桥接名称，如 'RegularAudioBridge'
+ * @param {string} method - 方法名称，如 'playRegularAudio'
+ * @param {...*} args - 方法参数
+ * @returns {Promise<*>} 原生方法的返回值
+ */
+export const callNative = (bridge, method, ...args) => {
+  const name = `${bridge}.${method}`
+
+  if (supportsBatch()) {
+    return new Promise((resolve, reject) => {
+      if (queuedCalls.length === 0) {
+        queueMicrotask(flushQueuedCalls)
+      }
+      queuedCalls.push({ bridge, method, args, name, resolve, reject })
+    })
+  }
+
+  if (window.AsyncBridge && typeof window.AsyncBridge.call === 'function') {
+    return new Promise((resolve, reject) => {
+      const start = now()
+      const callId = window.AsyncBridge.call(bridge, method, JSON.stringify(args))
+      recordBlocking('async', now() - start)
+      pendingCalls.set(callId, { name, resolve, reject })
+    })
+  }
+
+  const target = window[bridge]
+  if (!target || typeof target[method] !== 'function') {
+    return Promise.reject(new Error(`${name} 不可用`))
+  }
+
+  try {
+    const start = now()
+    const result = target[method](...args)
+    recordBlocking('sync', now() - start)
+    return Promise.resolve(result)
+  } catch (error) {
+    return Promise.reject(error)
+  }
+}
+
+/**
+ * 按顺序执行一组原生调用，一次跨线程完成
+ * 单个调用失败不影响其他调用，结果按顺序返回
+ * @param {Array<[string, string, ...*]>} calls - 形如 [桥接名称, 方法名称, ...参数] 的调用列表
+ * @returns {Promise<Array<{ok: boolean, result: *}>>} 各调用的结果
+ */
+export const callNativeBatch = (calls) => {
+  const settle = (promise) => promise.then(
+    (result) => ({ ok: true, result }),
+    (error) => ({ ok: false, result: error.message })
+  )
+
+  // 没有异步批量接口但有同步的NativeBridge.dispatch时，同样只需一次跨线程调用
+  if (!supportsBatch() && window.NativeBridge && typeof window.NativeBridge.dispatch === 'function') {
+    try {
+      const start = now()
+      const payload = calls.map(([bridge, method, ...args]) => ({ bridge, method, args }))
+      const results = JSON.parse(window.NativeBridge.dispatch(JSON.stringify(payload)))
+      recordBlocking('sync', now() - start)
+      batchStats.batches += 1
+      batchStats.calls += calls.length
+      return Promise.resolve(results)
+    } catch (error) {
+      return Promise.reject(error)
+    }
+  }
+
+  return Promise.all(calls.map(([bridge, method, ...args]) => settle(callNative(bridge, method, ...args))))
+}
+
+/**
+ * 获取桥接调用阻塞JS线程的耗时统计
+ */
+export const getBridgeBlockingStats = () => ({
+  async: { ...blockingStats.async },
+  sync: { ...blockingStats.sync },
+  batch: { ...batchStats, savedHops: batchStats.calls - batchStats.batches },
+  pending: pendingCalls.size
+})
@@ -0,0 +1,79 @@
+/**
+ * 原生→JS事件通道
+ * 原生层在页面加载完成后通过 postWebMessage 发送 'nativeEvents:init' 并附带一个 MessagePort，
+ * 之后的事件（audioCompleted、timerFired、alarmState、bridgeResult、hibernation、sessionSnapshot）以JSON数组批量经由该端口到达，
+ * 每个事件形如 { type, payload, time }
+ */
+const INIT_MESSAGE = 'nativeEvents:init'
+
+const listeners = new Map()
+let port = null
+
+/**
+ * 分发一批事件给对应类型的监听器
+ * @param {Array<{type: string, payload: Object, time: number}>} events
+ */
+export const dispatchNativeEvents = (events) => {
+  events.forEach((event) => {
+    const handlers = listeners.get(event.type)
+    if (!handlers || handlers.size === 0) {
+      window.logManager.debug(`原生事件没有监听器: ${event.type}`)
+      return
+    }
+    handlers.forEach((handler) => {
+      try {
+        handler(event.payload || {}, event)
+      } catch (error) {
+        window.logManager.error(`处理原生事件失败: ${event.type}`, error)
+      }
+    })
+  })
+}
+
+const handlePortMessage = (message) => {
+  try {
+    const events = JSON.parse(message.data)
+    dispatchNativeEvents(Array.isArray(events) ? events : [events])
+  } catch (error) {
+    window.logManager.error('解析原生事件失败', error)
+  }
+}
+
+/**
+ * 页面每次加载时原生层会重新发送端口，旧端口随之关闭
+ */
+const handleWindowMessage = (message) => {
+  if (message.data !== INIT_MESSAGE || !message.ports || message.ports.length === 0) {
+    return
+  }
+  if (port) {
+    port.close()
+  }
+  port = message.ports[0]
+  port.onmessage = handlePortMessage
+  window.logManager.info('原生事件通道已建立')
+}
+
+if (typeof window !== 'undefined') {
+  window.addEventListener('message', handleWindowMessage)
+}
+
+/**
+ * 订阅原生事件
+ * @param {string} type - 事件类型
+ * @param {(payload: Object, event: Object) => void} handler - 事件处理函数
+ * @returns {() => void} 取消订阅函数
+ */
+export const onNativeEvent = (type, handler) => {
+  if (!listeners.has(type)) {
+    listeners.set(type, new Set())
+  }
+  listeners.get(type).add(handler)
+
+  return () => {
+    const handlers = listeners.get(type)
+    if (handlers) {
+      handlers.delete(handler)
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/**
+ * 网页存储迁移
+ * 旧版本从 file:// 源加载，localStorage 和 IndexedDB 属于 file:// 源；改为 https://appassets.local 后
+ * 原生层在升级后第一次启动时导出旧数据，这里在应用渲染前把它导入当前源，完成后通知原生层删除
+ * 当前源已有的 localStorage 项不会被覆盖
+ */
+
+/**
+ * 导入 localStorage，已存在的键保持不变
+ * @param {Object<string, string>} items
+ */
+export const importLocalStorage = (items) => {
+  Object.keys(items || {}).forEach((key) => {
+    if (localStorage.getItem(key) === null) {
+      localStorage.setItem(key, items[key])
+    }
+  })
+}
+
+/**
+ * 导入一个 IndexedDB 数据库：按导出的结构创建缺少的对象仓库和索引，再写入全部记录
+ * @param {{name: string, version: number, stores: Array}} database
+ * @returns {Promise<boolean>}
+ */
+export const importDatabase = (database) => {
+  return new Promise((resolve) => {
+    const request = indexedDB.open(database.name, database.version)
+
+    request.onupgradeneeded = () => {
+      const db = request.result
+      database.stores.forEach((store) => {
+        if (db.objectStoreNames.contains(store.name)) {
+          return
+        }
+        const created = db.createObjectStore(store.name, {
+          keyPath: store.keyPath,
+          autoIncrement: store.autoIncrement
+        })
+        store.indexes.forEach((index) => {
+          created.createIndex(index.name, index.keyPath, {
+            unique: index.unique,
+            multiEntry: index.multiEntry
+          })
+        })
+      })
+    }
+
+    request.onerror = () => {
+      window.logManager.error(`导入数据库失败: ${database.name}`, request.error)
+      resolve(false)
+    }
+
+    request.onsuccess = () => {
+      const db = request.result
+      const stores = database.stores.filter((store) => db.objectStoreNames.contains(store.name))
+      if (stores.length === 0) {
+        db.close()
+        resolve(true)
+        return
+      }
+
+      const transaction = db.transaction(stores.map((store) => store.name), 'readwrite')
+      stores.forEach((store) => {
+        const objectStore = transaction.objectStore(store.name)
+        store.records.forEach((record) => {
+          if (store.keyPath === null) {
+            objectStore.put(record.value, record.key)
+          } else {
+            objectStore.put(record.value)
+          }
+        })
+      })
+      transaction.oncomplete = () => {
+        db.close()
+        resolve(true)
+      }
+      transaction.onerror = () => {
+        window.logManager.error(`写入数据库失败: ${database.name}`, transaction.error)
+        db.close()
+        resolve(false)
+      }
+    }
+  })
+}
+
+/**
+ * 导入原生层保存的旧网页存储，没有待导入的数据时立即完成
+ * @returns {Promise<boolean>} 是否导入了数据
+ */
+export const importLegacyStorage = async () => {
+  const bridge = window.StorageMigrationBridge
+  if (!bridge) {
+    return false
+  }
+
+  let data
+  try {
+    const json = bridge.takeExport()
+    if (!json) {
+      return false
+    }
+    data = JSON.parse(json)
+  } catch (error) {
+    window.logManager.error('读取待导入的网页存储失败', error)
+    return false
+  }
+
+  importLocalStorage(data.localStorage)
+
+  let success = true
+  if (window.indexedDB) {
+    for (const database of data.indexedDB || []) {
+      success = (await importDatabase(database)) && success
+    }
+  }
+
+  // 失败时保留数据，下次启动重试
+  if (success) {
+    bridge.complete()
+    window.logManager.info('已从file://源迁移网页存储')
+  }
+  return true
+}
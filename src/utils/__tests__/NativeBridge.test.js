@@ -0,0 +1,72 @@
+import { callNative, callNativeBatch, getBridgeBlockingStats } from '../NativeBridge'
+
+describe('NativeBridge', () => {
+  afterEach(() => {
+    delete window.AsyncBridge
+    delete window.NativeBridge
+    delete window.RegularAudioBridge
+  })
+
+  it('应该通过AsyncBridge异步调用并在完成通道回传后兑现Promise', async () => {
+    window.AsyncBridge = { call: jest.fn(() => '7') }
+
+    const promise = callNative('RegularAudioBridge', 'playRegularAudio', '1.mp3', 0.6, false)
+    expect(window.AsyncBridge.call).toHaveBeenCalledWith('RegularAudioBridge', 'playRegularAudio', '["1.mp3",0.6,false]')
+
+    window.__nativeBridgeResolve({ id: '7', ok: true, result: true })
+    await expect(promise).resolves.toBe(true)
+  })
+
+  it('应该在原生调用失败时拒绝Promise', async () => {
+    window.AsyncBridge = { call: jest.fn(() => '8') }
+
+    const promise = callNative('RegularAudioBridge', 'stopRegularAudio')
+    window.__nativeBridgeResolve({ id: '8', ok: false, result: 'boom' })
+
+    await expect(promise).rejects.toThrow('RegularAudioBridge.stopRegularAudio 调用失败: boom')
+  })
+
+  it('应该在没有AsyncBridge时退回同步调用', async () => {
+    window.RegularAudioBridge = { playRegularAudio: jest.fn(() => true) }
+
+    await expect(callNative('RegularAudioBridge', 'playRegularAudio', '2.mp3', 0.3, true)).resolves.toBe(true)
+    expect(window.RegularAudioBridge.playRegularAudio).toHaveBeenCalledWith('2.mp3', 0.3, true)
+    expect(getBridgeBlockingStats().sync.calls).toBeGreaterThan(0)
+  })
+
+  it('应该在桥接不可用时拒绝Promise', async () => {
+    await expect(callNative('RegularAudioBridge', 'playRegularAudio')).rejects.toThrow('RegularAudioBridge.playRegularAudio 不可用')
+  })
+
+  it('应该把同一轮事件循环内的调用合并为一次callBatch', async () => {
+    window.AsyncBridge = { call: jest.fn(), callBatch: jest.fn(() => '9') }
+
+    const stop = callNative('RegularAudioBridge', 'stopRegularAudio')
+    const play = callNative('RegularAudioBridge', 'playRegularAudio', '1.mp3', 0.6, false)
+    await Promise.resolve()
+
+    expect(window.AsyncBridge.call).not.toHaveBeenCalled()
+    expect(window.AsyncBridge.callBatch).toHaveBeenCalledTimes(1)
+    expect(JSON.parse(window.AsyncBridge.callBatch.mock.calls[0][0])).toEqual([
+      { bridge: 'RegularAudioBridge', method: 'stopRegularAudio', args: [] },
+      { bridge: 'RegularAudioBridge', method: 'playRegularAudio', args: ['1.mp3', 0.6, false] }
+    ])
+
+    window.__nativeBridgeResolve({ id: '9', ok: true, result: [{ ok: true, result: true }, { ok: false, result: 'boom' }] })
+    await expect(stop).resolves.toBe(true)
+    await expect(play).rejects.toThrow('RegularAudioBridge.playRegularAudio 调用失败: boom')
+    expect(getBridgeBlockingStats().batch.savedHops).toBeGreaterThan(0)
+  })
+
+  it('应该在只有NativeBridge.dispatch时一次同步执行整批调用', async () => {
+    window.NativeBridge = { dispatch: jest.fn(() => '[{"ok":true,"result":true},{"ok":true,"result":false}]') }
+
+    const results = await callNativeBatch([
+      ['RegularAudioBridge', 'stopRegularAudio'],
+      ['AlarmAudioBridge', 'isAlarmPlaying']
+    ])
+
+    expect(window.NativeBridge.dispatch).toHaveBeenCalledTimes(1)
+    expect(results).toEqual([{ ok: true, result: true }, { ok: true, result: false }])
+  })
+})
@@ -0,0 +1,55 @@
+import { onNativeEvent, dispatchNativeEvents } from '../NativeEvents'
+
+describe('NativeEvents', () => {
+  beforeEach(() => {
+    window.logManager = {
+      debug: jest.fn(),
+      info: jest.fn(),
+      warn: jest.fn(),
+      error: jest.fn()
+    }
+  })
+
+  it('应该把同一批次的事件分发给对应类型的监听器', () => {
+    const onAudio = jest.fn()
+    const onTimer = jest.fn()
+    const offAudio = onNativeEvent('audioCompleted', onAudio)
+    const offTimer = onNativeEvent('timerFired', onTimer)
+
+    dispatchNativeEvents([
+      { type: 'audioCompleted', payload: { fileName: '1.mp3' }, time: 1 },
+      { type: 'timerFired', payload: { enableAlarm: true, timerDuration: 30 }, time: 2 }
+    ])
+
+    expect(onAudio).toHaveBeenCalledWith({ fileName: '1.mp3' }, expect.objectContaining({ type: 'audioCompleted' }))
+    expect(onTimer).toHaveBeenCalledWith({ enableAlarm: true, timerDuration: 30 }, expect.objectContaining({ type: 'timerFired' }))
+    offAudio()
+    offTimer()
+  })
+
+  it('应该在取消订阅后不再收到事件', () => {
+    const handler = jest.fn()
+    const off = onNativeEvent('alarmState', handler)
+    off()
+
+    dispatchNativeEvents([{ type: 'alarmState', payload: { playing: true }, time: 1 }])
+    expect(handler).not.toHaveBeenCalled()
+  })
+
+  it('应该在监听器抛出异常时继续分发后续事件', () => {
+    const failing = jest.fn(() => { throw new Error('boom') })
+    const next = jest.fn()
+    const offFailing = onNativeEvent('audioCompleted', failing)
+    const offNext = onNativeEvent('timerFired', next)
+
+    dispatchNativeEvents([
+      { type: 'audioCompleted', payload: { fileName: '2.mp3' }, time: 1 },
+      { type: 'timerFired', payload: {}, time: 2 }
+    ])
+
+    expect(window.logManager.error).toHaveBeenCalled()
+    expect(next).toHaveBeenCalled()
+    offFailing()
+    offNext()
+  })
+})
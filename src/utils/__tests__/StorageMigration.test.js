@@ -0,0 +1,58 @@
+import { importLegacyStorage, importLocalStorage } from '../StorageMigration'
+
+describe('StorageMigration', () => {
+  beforeEach(() => {
+    localStorage.clear()
+    window.logManager = {
+      debug: jest.fn(),
+      info: jest.fn(),
+      warn: jest.fn(),
+      error: jest.fn()
+    }
+  })
+
+  afterEach(() => {
+    delete window.StorageMigrationBridge
+  })
+
+  it('应该导入localStorage且不覆盖当前源已有的设置', () => {
+    localStorage.setItem('theme', 'light')
+
+    importLocalStorage({ theme: 'dark', volume: '0.4' })
+
+    expect(localStorage.getItem('theme')).toBe('light')
+    expect(localStorage.getItem('volume')).toBe('0.4')
+  })
+
+  it('没有待导入的数据时不通知原生层', async () => {
+    window.StorageMigrationBridge = {
+      takeExport: jest.fn(() => ''),
+      complete: jest.fn()
+    }
+
+    await expect(importLegacyStorage()).resolves.toBe(false)
+    expect(window.StorageMigrationBridge.complete).not.toHaveBeenCalled()
+  })
+
+  it('导入完成后通知原生层删除导出的数据', async () => {
+    window.StorageMigrationBridge = {
+      takeExport: jest.fn(() => JSON.stringify({ localStorage: { enableVibration: 'true' }, indexedDB: [] })),
+      complete: jest.fn()
+    }
+
+    await expect(importLegacyStorage()).resolves.toBe(true)
+    expect(localStorage.getItem('enableVibration')).toBe('true')
+    expect(window.StorageMigrationBridge.complete).toHaveBeenCalledTimes(1)
+  })
+
+  it('导出数据损坏时跳过迁移', async () => {
+    window.StorageMigrationBridge = {
+      takeExport: jest.fn(() => '{not json'),
+      complete: jest.fn()
+    }
+
+    await expect(importLegacyStorage()).resolves.toBe(false)
+    expect(window.logManager.error).toHaveBeenCalled()
+    expect(window.StorageMigrationBridge.complete).not.toHaveBeenCalled()
+  })
+})